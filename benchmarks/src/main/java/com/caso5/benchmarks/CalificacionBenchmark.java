@@ -0,0 +1,19 @@
+package com.caso5.benchmarks;
+
+import com.caso5.Evaluacion;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Corrección de todo el conjunto en un solo hilo con CalificadorEvaluaciones.calificar.
+ */
+public class CalificacionBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public double calificarTodas(EstadoEvaluaciones estado) {
+        double suma = 0.0;
+        for (Evaluacion<?> evaluacion : estado.evaluaciones) {
+            suma += estado.calificador.calificar(evaluacion);
+        }
+        return suma;
+    }
+}
@@ -0,0 +1,54 @@
+package com.caso5.benchmarks;
+
+import com.caso5.ColaAnilloMPMC;
+import com.caso5.ColaCorreccion;
+import com.caso5.ColaEvaluaciones;
+import com.caso5.Evaluacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encolar todo el conjunto y vaciarlo, con extracción individual o por lotes.
+ */
+@State(Scope.Thread)
+public class ColaBenchmark extends BenchmarkBase {
+
+    private static final int TAMANO_LOTE = 256;
+
+    @Param({"lista", "anillo"})
+    public String implementacion;
+
+    @Benchmark
+    public int encolarYTomar(EstadoEvaluaciones estado) {
+        ColaEvaluaciones cola = crearCola(estado.cantidad);
+        for (Evaluacion<?> evaluacion : estado.evaluaciones) {
+            cola.encolar(evaluacion);
+        }
+        int tomadas = 0;
+        while (cola.tomarSiguiente().isPresent()) {
+            tomadas++;
+        }
+        return tomadas;
+    }
+
+    @Benchmark
+    public int encolarYTomarLotes(EstadoEvaluaciones estado) {
+        ColaEvaluaciones cola = crearCola(estado.cantidad);
+        for (Evaluacion<?> evaluacion : estado.evaluaciones) {
+            cola.encolar(evaluacion);
+        }
+        Evaluacion<?>[] lote = new Evaluacion<?>[TAMANO_LOTE];
+        int tomadas = 0;
+        int cantidad;
+        while ((cantidad = cola.tomarLote(lote, TAMANO_LOTE)) > 0) {
+            tomadas += cantidad;
+        }
+        return tomadas;
+    }
+
+    private ColaEvaluaciones crearCola(int capacidad) {
+        return implementacion.equals("anillo") ? new ColaAnilloMPMC(capacidad) : new ColaCorreccion();
+    }
+}
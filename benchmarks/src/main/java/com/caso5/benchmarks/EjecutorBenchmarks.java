@@ -0,0 +1,26 @@
+package com.caso5.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del jar de benchmarks: acepta las opciones normales de JMH y siempre
+ * agrega el perfilador de GC para reportar gc.alloc.rate.norm.
+ */
+public final class EjecutorBenchmarks {
+
+    private EjecutorBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions opciones = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(opciones)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,42 @@
+package com.caso5.benchmarks;
+
+import com.caso5.CalificadorEvaluaciones;
+import com.caso5.ColaCorreccion;
+import com.caso5.Evaluacion;
+import com.caso5.EvaluacionRepository;
+import com.caso5.SimuladorEvaluaciones;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Conjunto de evaluaciones compartido por los benchmarks, generado con semilla fija.
+ */
+@State(Scope.Benchmark)
+public class EstadoEvaluaciones {
+
+    // Semilla fija para que cada corrida mida exactamente los mismos datos
+    public static final long SEMILLA = 20_240_501L;
+
+    @Param({"5000", "1000000", "10000000"})
+    public int cantidad;
+
+    public CalificadorEvaluaciones calificador;
+    public List<Evaluacion<?>> evaluaciones;
+
+    @Setup(Level.Trial)
+    public void generar() {
+        EvaluacionRepository repositorio = new EvaluacionRepository();
+        calificador = new CalificadorEvaluaciones();
+        new SimuladorEvaluaciones(SEMILLA).generarEvaluaciones(cantidad, repositorio, calificador, new ColaCorreccion());
+        evaluaciones = repositorio.copiarComoLista();
+        // Los reportes se miden sobre evaluaciones ya calificadas
+        for (Evaluacion<?> evaluacion : evaluaciones) {
+            evaluacion.actualizarPuntaje(calificador.calificar(evaluacion));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.caso5.benchmarks;
+
+import com.caso5.Evaluacion;
+import com.caso5.EvaluacionRepository;
+import com.caso5.EvaluacionRepositoryColumnar;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Ingesta: registro de todo el conjunto en un repositorio vacío.
+ */
+public class RegistroBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public EvaluacionRepository registrarEnMapa(EstadoEvaluaciones estado) {
+        EvaluacionRepository repositorio = new EvaluacionRepository();
+        for (Evaluacion<?> evaluacion : estado.evaluaciones) {
+            repositorio.registrar(evaluacion);
+        }
+        return repositorio;
+    }
+
+    @Benchmark
+    public EvaluacionRepositoryColumnar registrarEnColumnas(EstadoEvaluaciones estado) {
+        EvaluacionRepositoryColumnar repositorio = new EvaluacionRepositoryColumnar();
+        for (Evaluacion<?> evaluacion : estado.evaluaciones) {
+            repositorio.registrar(evaluacion);
+        }
+        return repositorio;
+    }
+}
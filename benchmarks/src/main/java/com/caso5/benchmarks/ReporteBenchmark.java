@@ -0,0 +1,51 @@
+package com.caso5.benchmarks;
+
+import com.caso5.Evaluacion;
+import com.caso5.GeneradorReporte;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Ordenamiento por puntaje y escritura del reporte.
+ */
+@State(Scope.Thread)
+public class ReporteBenchmark extends BenchmarkBase {
+
+    private final GeneradorReporte generadorReporte = new GeneradorReporte();
+
+    /**
+     * Listado ya ordenado para medir solo el formato del reporte.
+     */
+    @State(Scope.Benchmark)
+    public static class ListadoOrdenado {
+
+        public List<Evaluacion<?>> ordenadas;
+
+        @Setup(Level.Trial)
+        public void ordenar(EstadoEvaluaciones estado) {
+            ordenadas = new GeneradorReporte().generarListadoOrdenado(estado.evaluaciones);
+        }
+    }
+
+    @Benchmark
+    public List<Evaluacion<?>> generarListadoOrdenado(EstadoEvaluaciones estado) {
+        return generadorReporte.generarListadoOrdenado(estado.evaluaciones);
+    }
+
+    @Benchmark
+    public String generarReporteEnTexto(ListadoOrdenado listado) {
+        return generadorReporte.generarReporteEnTexto(listado.ordenadas);
+    }
+
+    @Benchmark
+    public void escribirReporte(ListadoOrdenado listado) throws IOException {
+        generadorReporte.escribirReporte(listado.ordenadas, Writer.nullWriter());
+    }
+}
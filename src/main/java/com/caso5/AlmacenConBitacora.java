@@ -0,0 +1,76 @@
+package com.caso5;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio que delega en otro y anexa a la bitácora cada evaluación aceptada.
+ */
+final class AlmacenConBitacora implements AlmacenEvaluaciones {
+
+    private final AlmacenEvaluaciones almacen;
+    private final BitacoraEvaluaciones bitacora;
+
+    AlmacenConBitacora(AlmacenEvaluaciones almacen, BitacoraEvaluaciones bitacora) {
+        this.almacen = almacen;
+        this.bitacora = bitacora;
+    }
+
+    @Override
+    public boolean registrar(Evaluacion<?> evaluacion) {
+        boolean agregada = almacen.registrar(evaluacion);
+        if (agregada) {
+            bitacora.anexarEvaluacion(evaluacion);
+        }
+        return agregada;
+    }
+
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        Evaluacion<?> almacenada = almacen.almacenar(evaluacion);
+        if (almacenada != null) {
+            bitacora.anexarEvaluacion(evaluacion);
+        }
+        return almacenada;
+    }
+
+    @Override
+    public int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        int almacenadas = almacen.almacenarLote(lote, cantidad);
+        for (int i = 0; i < almacenadas; i++) {
+            bitacora.anexarEvaluacion(lote[i]);
+        }
+        return almacenadas;
+    }
+
+    @Override
+    public Evaluacion<?> buscar(UUID identificador) {
+        return almacen.buscar(identificador);
+    }
+
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        return almacen.listarTodas();
+    }
+
+    @Override
+    public PaginaEvaluaciones paginar(String cursor, int tamano) {
+        return almacen.paginar(cursor, tamano);
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return almacen.copiarComoLista();
+    }
+
+    @Override
+    public int cantidad() {
+        return almacen.cantidad();
+    }
+
+    @Override
+    public long estimarBytes() {
+        return almacen.estimarBytes();
+    }
+}
@@ -0,0 +1,74 @@
+package com.caso5;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio que delega en otro y agrega al {@link IndiceEstudiantes} cada evaluación aceptada.
+ */
+final class AlmacenConIndice implements AlmacenEvaluaciones {
+
+    private final AlmacenEvaluaciones almacen;
+    private final IndiceEstudiantes indice;
+
+    AlmacenConIndice(AlmacenEvaluaciones almacen, IndiceEstudiantes indice) {
+        this.almacen = almacen;
+        this.indice = indice;
+    }
+
+    @Override
+    public boolean registrar(Evaluacion<?> evaluacion) {
+        boolean agregada = almacen.registrar(evaluacion);
+        if (agregada) {
+            indice.agregar(evaluacion);
+        }
+        return agregada;
+    }
+
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        Evaluacion<?> almacenada = almacen.almacenar(evaluacion);
+        if (almacenada != null) {
+            indice.agregar(almacenada);
+        }
+        return almacenada;
+    }
+
+    @Override
+    public int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        int almacenadas = almacen.almacenarLote(lote, cantidad);
+        indice.agregarLote(lote, almacenadas);
+        return almacenadas;
+    }
+
+    @Override
+    public Evaluacion<?> buscar(UUID identificador) {
+        return almacen.buscar(identificador);
+    }
+
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        return almacen.listarTodas();
+    }
+
+    @Override
+    public PaginaEvaluaciones paginar(String cursor, int tamano) {
+        return almacen.paginar(cursor, tamano);
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return almacen.copiarComoLista();
+    }
+
+    @Override
+    public int cantidad() {
+        return almacen.cantidad();
+    }
+
+    @Override
+    public long estimarBytes() {
+        return almacen.estimarBytes();
+    }
+}
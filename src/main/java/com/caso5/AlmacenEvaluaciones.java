@@ -0,0 +1,81 @@
+package com.caso5;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Contrato común de los repositorios de evaluaciones.
+ */
+public interface AlmacenEvaluaciones {
+
+    /**
+     * Registra una nueva evaluación. Ignora duplicados.
+     *
+     * @return {@code true} si la evaluación fue agregada; {@code false} si el identificador ya existía.
+     */
+    boolean registrar(Evaluacion<?> evaluacion);
+
+    /**
+     * Registra una evaluación y devuelve la instancia que queda almacenada. Los puntajes deben
+     * actualizarse sobre esa instancia, que puede ser una vista respaldada por el almacén.
+     *
+     * @return evaluación almacenada o {@code null} si el identificador ya existía.
+     */
+    Evaluacion<?> almacenar(Evaluacion<?> evaluacion);
+
+    /**
+     * Almacena las primeras {@code cantidad} evaluaciones del lote y deja al inicio del mismo
+     * arreglo las instancias almacenadas, en orden; los duplicados se descartan.
+     *
+     * @return cantidad de evaluaciones almacenadas.
+     */
+    default int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        int almacenadas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            Evaluacion<?> almacenada = almacenar(lote[i]);
+            if (almacenada != null) {
+                lote[almacenadas++] = almacenada;
+            }
+        }
+        return almacenadas;
+    }
+
+    /**
+     * Busca una evaluación por su identificador.
+     *
+     * @return evaluación encontrada o {@code null} si no existe.
+     */
+    Evaluacion<?> buscar(UUID identificador);
+
+    /**
+     * Devuelve una vista de solo lectura con todas las evaluaciones en orden de inserción.
+     */
+    Collection<Evaluacion<?>> listarTodas();
+
+    /**
+     * Devuelve una página en orden de inserción sin copiar el resto. Los repositorios solo anexan,
+     * así un cursor sigue siendo válido mientras se registran más evaluaciones.
+     *
+     * @param cursor devuelto en la página anterior, o {@code null} para empezar.
+     * @param tamano evaluaciones por página.
+     * @throws IllegalArgumentException si el cursor no salió de este recorrido.
+     */
+    PaginaEvaluaciones paginar(String cursor, int tamano);
+
+    /**
+     * Crea una lista mutable con todas las evaluaciones registradas.
+     */
+    List<Evaluacion<?>> copiarComoLista();
+
+    int cantidad();
+
+    /**
+     * Estima los bytes que ocupa la estructura del almacén, sin contar los objetos evaluación.
+     *
+     * @return bytes aproximados, o {@code -1} si el almacén no lo sabe estimar.
+     */
+    default long estimarBytes() {
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.caso5;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio que delega en otro y cuenta los registros aceptados y los duplicados rechazados.
+ */
+final class AlmacenInstrumentado implements AlmacenEvaluaciones {
+
+    private final AlmacenEvaluaciones almacen;
+    private final MetricasCalificacion metricas;
+
+    AlmacenInstrumentado(AlmacenEvaluaciones almacen, MetricasCalificacion metricas) {
+        this.almacen = almacen;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public boolean registrar(Evaluacion<?> evaluacion) {
+        boolean agregada = almacen.registrar(evaluacion);
+        metricas.contarRegistro(agregada);
+        return agregada;
+    }
+
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        Evaluacion<?> almacenada = almacen.almacenar(evaluacion);
+        metricas.contarRegistro(almacenada != null);
+        return almacenada;
+    }
+
+    @Override
+    public int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        int almacenadas = almacen.almacenarLote(lote, cantidad);
+        metricas.contarLote(almacenadas, cantidad - almacenadas);
+        return almacenadas;
+    }
+
+    @Override
+    public Evaluacion<?> buscar(UUID identificador) {
+        return almacen.buscar(identificador);
+    }
+
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        return almacen.listarTodas();
+    }
+
+    @Override
+    public PaginaEvaluaciones paginar(String cursor, int tamano) {
+        return almacen.paginar(cursor, tamano);
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return almacen.copiarComoLista();
+    }
+
+    @Override
+    public int cantidad() {
+        return almacen.cantidad();
+    }
+
+    @Override
+    public long estimarBytes() {
+        return almacen.estimarBytes();
+    }
+}
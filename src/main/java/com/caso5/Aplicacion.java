@@ -1,9 +1,16 @@
 package com.caso5;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Scanner;
 import java.util.UUID;
 
@@ -19,6 +26,28 @@ public final class Aplicacion {
     // Cantidad por defecto de evaluaciones a generar automáticamente
     private static final int TOTAL_EVALUACIONES = 5_000;
     
+    // Propiedad del sistema que elige el repositorio: "mapa" (por defecto) o "columnar"
+    private static final String PROPIEDAD_ALMACEN = "caso5.almacen";
+    
+    // Propiedad del sistema que elige la cola de corrección: "fifo" (por defecto) o "carriles"
+    private static final String PROPIEDAD_COLA = "caso5.cola";
+    
+    // Propiedad del sistema con el archivo CSV donde se vuelcan las métricas cada segundo
+    private static final String PROPIEDAD_METRICAS = "caso5.metricas";
+    private static final long PERIODO_VOLCADO_MS = 1_000L;
+    
+    // Propiedad del sistema con el archivo de la bitácora; si se indica, el estado sobrevive a reinicios
+    private static final String PROPIEDAD_BITACORA = "caso5.bitacora";
+    // Espera máxima de cada grupo de registros antes de forzarse a disco
+    private static final long INTERVALO_BITACORA_MS = 5L;
+    
+    // Elementos por página al elegir estudiantes y evaluaciones, y respuestas especiales de la selección
+    private static final int TAMANO_PAGINA = 20;
+    private static final int SIGUIENTE_PAGINA = -1;
+    private static final int CANCELAR = -2;
+    // Filas por página del listado completo
+    private static final int FILAS_POR_PAGINA_REPORTE = 50;
+    
     // Scanner para leer entrada del usuario desde la consola
     private static final Scanner scanner = new Scanner(System.in);
 
@@ -29,24 +58,68 @@ public final class Aplicacion {
     /**
      * Método principal que inicia la aplicación.
      * Crea todas las estructuras necesarias y muestra el menú interactivo.
+     * Si recibe argumentos, corre sin menú (ver {@link ModoLote}) y termina con su código de salida.
      * 
-     * @param args argumentos de línea de comandos (no se utilizan)
+     * @param args opciones del modo por lotes, o ninguna para el menú
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(ModoLote.ejecutar(args));
+        }
+
         // Inicializar todas las estructuras de datos necesarias:
         // - Repositorio: almacena todas las evaluaciones
         // - Calificador: calcula los puntajes comparando respuestas con claves
-        // - ColaCorreccion: cola FIFO para procesar evaluaciones pendientes
+        // - ColaCorreccion: cola FIFO para procesar evaluaciones pendientes (o PlanificadorCorreccion, por carriles)
         // - Simulador: genera evaluaciones automáticas con datos aleatorios
         // - GeneradorReporte: crea reportes ordenados por puntaje
-        EvaluacionRepository repositorio = new EvaluacionRepository();
+        // - MotorCalificacion: vacía la cola de corrección usando todos los núcleos
+        // - MetricasCalificacion: contadores de cola, repositorio, calificación y reportes (también por JMX)
+        MetricasCalificacion metricas = new MetricasCalificacion();
+        metricas.registrarEnJmx();
+        // - DiccionarioEstudiantes: código entero y cadena única por estudiante, compartidos por los índices
+        DiccionarioEstudiantes diccionario = new DiccionarioEstudiantes();
+        String modoAlmacen = System.getProperty(PROPIEDAD_ALMACEN, "mapa");
+        AlmacenEvaluaciones almacen = crearRepositorio(modoAlmacen, diccionario);
         CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
-        ColaCorreccion colaCorreccion = new ColaCorreccion();
+        ColaEvaluaciones colaCorreccion = metricas.instrumentar(crearCola(System.getProperty(PROPIEDAD_COLA, "fifo")));
         SimuladorEvaluaciones simulador = new SimuladorEvaluaciones();
         GeneradorReporte generadorReporte = new GeneradorReporte();
+        generadorReporte.usarMetricas(metricas);
+        MotorCalificacion motor = new MotorCalificacion(Runtime.getRuntime().availableProcessors());
+        motor.usarMetricas(metricas);
+        // - TablaPosiciones: índice de posiciones que se actualiza con cada calificación. Retiene un
+        //   nodo y la evaluación por cada calificada, así que con el almacén columnar no se crea y
+        //   los listados por puntaje se ordenan desde el repositorio al pedirlos
+        TablaPosiciones tablaPosiciones = modoAlmacen.equals("columnar") ? null : new TablaPosiciones();
+        if (tablaPosiciones != null) {
+            motor.agregarOyente(tablaPosiciones);
+        }
+        // - EstadisticasPuntajes: promedio, extremos y percentiles por estudiante y por tipo
+        EstadisticasPuntajes estadisticas = new EstadisticasPuntajes(diccionario);
+        motor.agregarOyente(estadisticas);
+        // - BitacoraEvaluaciones: recupera el estado anterior y anexa los cambios nuevos
+        BitacoraEvaluaciones bitacora = abrirBitacora(
+                System.getProperty(PROPIEDAD_BITACORA), almacen, calificador, colaCorreccion,
+                tablaPosiciones == null ? estadisticas : tablaPosiciones.y(estadisticas));
+        if (bitacora != null) {
+            almacen = bitacora.envolver(almacen);
+            motor.agregarOyente(bitacora);
+        }
+        // - IndiceEstudiantes: evaluaciones de cada estudiante y búsqueda de nombres por prefijo
+        IndiceEstudiantes indiceEstudiantes = new IndiceEstudiantes(diccionario);
+        almacen = indiceEstudiantes.envolver(almacen);
+        AlmacenEvaluaciones repositorio = metricas.instrumentar(almacen);
+        // - ImportadorEvaluaciones: carga claves y evaluaciones desde archivos CSV o JSON-lines
+        ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, motor.getHilos());
+        importador.usarDiccionario(diccionario);
+        // - TuberiaCalificacion: genera y corrige a la vez con una cola acotada
+        TuberiaCalificacion tuberia = new TuberiaCalificacion(TuberiaCalificacion.CAPACIDAD_POR_DEFECTO);
+        tuberia.usarMetricas(metricas);
+        VolcadoMetricas volcado = iniciarVolcado(metricas, System.getProperty(PROPIEDAD_METRICAS));
 
         // Bucle principal del menú interactivo
-        // Se ejecuta hasta que el usuario elija salir (opción 7)
+        // Se ejecuta hasta que el usuario elija salir (opción 9)
         boolean continuar = true;
         while (continuar) {
             mostrarMenu(); // Muestra las opciones disponibles
@@ -54,21 +127,168 @@ public final class Aplicacion {
             
             // Ejecutar la acción correspondiente a la opción seleccionada
             switch (opcion) {
-                case 1 -> agregarEvaluacionManual(repositorio, calificador, colaCorreccion);
-                case 2 -> agregarNotaManual(repositorio);
-                case 3 -> verCantidadEvaluaciones(repositorio, generadorReporte);
-                case 4 -> verTodasEvaluaciones(repositorio, generadorReporte);
-                case 5 -> generarEvaluacionesAutomaticas(simulador, repositorio, calificador, colaCorreccion);
-                case 6 -> procesarTodasCorrecciones(colaCorreccion, calificador);
-                case 7 -> continuar = false; // Salir del programa
-                default -> System.out.println("Opción no válida. Por favor, seleccione una opción del 1 al 7.");
+                case 1 -> agregarEvaluacionManual(repositorio, diccionario, calificador, colaCorreccion, motor, bitacora);
+                case 2 -> agregarNotaManual(repositorio, indiceEstudiantes, motor, bitacora);
+                case 3 -> verCantidadEvaluaciones(repositorio, tablaPosiciones, generadorReporte);
+                case 4 -> verTodasEvaluaciones(repositorio, tablaPosiciones, generadorReporte);
+                case 5 -> generarEvaluacionesAutomaticas(simulador, tuberia, repositorio, calificador, motor, metricas, bitacora);
+                case 6 -> procesarTodasCorrecciones(colaCorreccion, calificador, motor, metricas, bitacora);
+                case 7 -> importarDesdeArchivos(importador, repositorio, colaCorreccion, calificador, motor, metricas, bitacora);
+                case 8 -> verEstadisticas(estadisticas);
+                case 9 -> continuar = false; // Salir del programa
+                default -> System.out.println("Opción no válida. Por favor, seleccione una opción del 1 al 9.");
             }
         }
         
         System.out.println("\n¡Gracias por usar el sistema de evaluaciones!");
+        motor.close(); // Detener los hilos calificadores
+        cerrarBitacora(bitacora);
+        detenerVolcado(volcado);
         scanner.close(); // Cerrar el scanner para liberar recursos
     }
 
+    /**
+     * Crea el repositorio indicado.
+     * El modo columnar guarda las evaluaciones en arreglos primitivos para manejar decenas de millones.
+     * 
+     * @param modo "mapa" o "columnar"
+     * @param diccionario códigos de estudiante que guarda el modo columnar
+     * @return repositorio vacío
+     */
+    private static AlmacenEvaluaciones crearRepositorio(String modo, DiccionarioEstudiantes diccionario) {
+        return switch (modo) {
+            case "mapa" -> new EvaluacionRepository();
+            case "columnar" -> new EvaluacionRepositoryColumnar(diccionario);
+            default -> throw new IllegalArgumentException("Modo de repositorio desconocido: " + modo);
+        };
+    }
+
+    /**
+     * Crea la cola de corrección indicada.
+     * Con carriles, cada tipo tiene su propia fila y las abiertas no retienen a las OM y VF.
+     * 
+     * @param modo "fifo" o "carriles"
+     * @return cola vacía
+     */
+    private static ColaEvaluaciones crearCola(String modo) {
+        return switch (modo) {
+            case "fifo" -> new ColaCorreccion();
+            case "carriles" -> new PlanificadorCorreccion();
+            default -> throw new IllegalArgumentException("Modo de cola desconocido: " + modo);
+        };
+    }
+
+    /**
+     * Reproduce la bitácora indicada sobre las estructuras vacías y la abre para seguir anexando.
+     * 
+     * @param ruta archivo de la bitácora, o null para trabajar solo en memoria
+     * @param almacen repositorio que recibe las evaluaciones recuperadas
+     * @param calificador cuyo catálogo recibe las claves recuperadas
+     * @param colaCorreccion recibe las evaluaciones que quedaron sin corregir
+     * @param oyente índices que reciben los puntajes recuperados
+     * @return bitácora abierta, o null si no se indicó o no se pudo abrir
+     */
+    private static BitacoraEvaluaciones abrirBitacora(
+            String ruta,
+            AlmacenEvaluaciones almacen,
+            CalificadorEvaluaciones calificador,
+            ColaEvaluaciones colaCorreccion,
+            OyenteCalificacion oyente
+    ) {
+        if (ruta == null || ruta.isBlank()) {
+            return null;
+        }
+        try {
+            Path archivo = Path.of(ruta);
+            BitacoraEvaluaciones.ResultadoReproduccion resultado =
+                    BitacoraEvaluaciones.reproducir(archivo, almacen, calificador, colaCorreccion, oyente);
+            if (resultado.registros() > 0) {
+                System.out.printf("✓ Bitácora recuperada: %d evaluaciones, %d puntajes, %d pendientes (%.2f ms)%n",
+                        resultado.evaluaciones(), resultado.puntajes(), resultado.pendientes(), resultado.milisegundos());
+            }
+            if (resultado.bytesDescartados() > 0) {
+                System.out.println("  Se descartaron " + resultado.bytesDescartados() + " bytes incompletos al final de la bitácora.");
+            }
+            return BitacoraEvaluaciones.abrir(archivo, calificador.getCatalogo(), INTERVALO_BITACORA_MS);
+        } catch (IOException e) {
+            System.out.println("✗ No se pudo abrir la bitácora: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escribe lo pendiente de la bitácora y cierra el archivo.
+     * 
+     * @param bitacora bitácora abierta, o null si no se usa
+     */
+    private static void cerrarBitacora(BitacoraEvaluaciones bitacora) {
+        if (bitacora == null) {
+            return;
+        }
+        try {
+            bitacora.close();
+        } catch (IOException e) {
+            System.out.println("✗ Error al escribir la bitácora: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Espera a que la bitácora deje en disco lo anexado hasta ahora. La bitácora confirma por grupos
+     * cada pocos milisegundos; sin esta espera, una caída justo después podría perder un cambio que
+     * ya se informó como guardado.
+     * 
+     * @param bitacora bitácora abierta, o null si no se usa
+     * @return false si no se pudo escribir, después de avisarlo
+     */
+    private static boolean sincronizarBitacora(BitacoraEvaluaciones bitacora) {
+        if (bitacora == null) {
+            return true;
+        }
+        try {
+            bitacora.sincronizar();
+            return true;
+        } catch (UncheckedIOException e) {
+            System.out.println("✗ La bitácora no pudo guardar los cambios: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Inicia el volcado periódico de métricas si se indicó un archivo.
+     * 
+     * @param metricas métricas a volcar
+     * @param ruta archivo CSV de destino, o null para no volcar
+     * @return volcado en curso, o null si no se inició
+     */
+    private static VolcadoMetricas iniciarVolcado(MetricasCalificacion metricas, String ruta) {
+        if (ruta == null || ruta.isBlank()) {
+            return null;
+        }
+        try {
+            Writer archivo = Files.newBufferedWriter(Path.of(ruta), StandardCharsets.UTF_8);
+            return new VolcadoMetricas(metricas, archivo, PERIODO_VOLCADO_MS);
+        } catch (IOException e) {
+            System.out.println("✗ No se pudo abrir el archivo de métricas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escribe la última fila de métricas y cierra el archivo.
+     * 
+     * @param volcado volcado en curso, o null si no se inició
+     */
+    private static void detenerVolcado(VolcadoMetricas volcado) {
+        if (volcado == null) {
+            return;
+        }
+        try {
+            volcado.close();
+        } catch (IOException e) {
+            System.out.println("✗ Error al escribir las métricas: " + e.getMessage());
+        }
+    }
+
     /**
      * Muestra el menú principal con todas las opciones disponibles.
      * Este método se llama en cada iteración del bucle principal.
@@ -81,7 +301,9 @@ public final class Aplicacion {
         System.out.println("4. Ver todas las evaluaciones");
         System.out.println("5. Generar evaluaciones automáticamente (5000)");
         System.out.println("6. Procesar correcciones pendientes");
-        System.out.println("7. Salir");
+        System.out.println("7. Importar evaluaciones desde archivos (CSV/JSONL)");
+        System.out.println("8. Ver estadísticas por estudiante y tipo");
+        System.out.println("9. Salir");
         System.out.print("Seleccione una opción: ");
     }
 
@@ -108,13 +330,19 @@ public final class Aplicacion {
      * Al final, puede ingresar el puntaje manualmente o calcularlo automáticamente.
      * 
      * @param repositorio almacén de todas las evaluaciones
+     * @param diccionario da la cadena única del nombre ingresado
      * @param calificador calcula puntajes comparando respuestas con claves
      * @param colaCorreccion cola FIFO para evaluaciones pendientes (no se usa en modo manual)
+     * @param motor asigna el puntaje y avisa a los índices que dependen de él
+     * @param bitacora confirma en disco los cambios antes de avisar al usuario, o null si no se usa
      */
     private static void agregarEvaluacionManual(
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
+            DiccionarioEstudiantes diccionario,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion,
+            MotorCalificacion motor,
+            BitacoraEvaluaciones bitacora
     ) {
         System.out.println("\n=== AÑADIR EVALUACIÓN MANUAL ===");
         System.out.println("Tipos disponibles:");
@@ -145,6 +373,8 @@ public final class Aplicacion {
             System.out.println("El nombre no puede estar vacío.");
             return;
         }
+        // Reutilizar la cadena del estudiante si ya tenía evaluaciones
+        estudiante = diccionario.canonico(estudiante);
         
         // Generar un identificador único para la evaluación
         UUID id = UUID.randomUUID();
@@ -193,12 +423,18 @@ public final class Aplicacion {
                         }
                     }
                     // Asignar el puntaje manual ingresado
-                    evaluacionCreada.actualizarPuntaje(puntajeFinal);
+                    motor.asignarPuntaje(evaluacionCreada, puntajeFinal);
+                    if (!sincronizarBitacora(bitacora)) {
+                        return;
+                    }
                     System.out.printf("✓ Puntaje manual asignado: %.2f%n", puntajeFinal);
                 } else {
                     // Calcular el puntaje automáticamente comparando respuestas con la clave
                     puntajeFinal = calificador.calificar(evaluacionCreada);
-                    evaluacionCreada.actualizarPuntaje(puntajeFinal);
+                    motor.asignarPuntaje(evaluacionCreada, puntajeFinal);
+                    if (!sincronizarBitacora(bitacora)) {
+                        return;
+                    }
                     System.out.printf("✓ Puntaje calculado automáticamente: %.2f%n", puntajeFinal);
                 }
                 System.out.println("✓ Evaluación agregada exitosamente.");
@@ -217,7 +453,7 @@ public final class Aplicacion {
      * @param estudiante nombre del estudiante
      * @param ordenLlegada orden de llegada (para desempates)
      * @param repositorio donde se guardará la evaluación
-     * @param calificador donde se registrará la clave de respuestas correctas
+     * @param calificador cuyo catálogo guarda la clave de respuestas correctas
      * @param colaCorreccion no se usa en modo manual
      * @return la evaluación creada
      */
@@ -225,13 +461,13 @@ public final class Aplicacion {
             UUID id,
             String estudiante,
             long ordenLlegada,
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
         System.out.println("\nIngrese 5 respuestas (0-3 para cada pregunta):");
-        List<Integer> respuestas = new ArrayList<>(); // Respuestas del estudiante
-        List<Integer> clave = new ArrayList<>(); // Respuestas correctas (clave de corrección)
+        int[] respuestas = new int[5]; // Respuestas del estudiante
+        int[] clave = new int[5]; // Respuestas correctas (clave de corrección)
         
         // Solicitar 5 preguntas de opción múltiple
         for (int i = 1; i <= 5; i++) {
@@ -241,7 +477,7 @@ public final class Aplicacion {
             if (respuesta < 0 || respuesta > 3) {
                 throw new IllegalArgumentException("La respuesta debe estar entre 0 y 3");
             }
-            respuestas.add(respuesta);
+            respuestas[i - 1] = respuesta;
             
             // Leer la respuesta correcta para esta pregunta
             System.out.print("Pregunta " + i + " - Respuesta correcta (0-3): ");
@@ -249,16 +485,18 @@ public final class Aplicacion {
             if (correcta < 0 || correcta > 3) {
                 throw new IllegalArgumentException("La respuesta correcta debe estar entre 0 y 3");
             }
-            clave.add(correcta);
+            clave[i - 1] = correcta;
         }
         
-        // Crear la evaluación con las respuestas del estudiante
-        Evaluacion<List<Integer>> evaluacion = new Evaluacion<>(id, estudiante, TipoEvaluacion.OM, respuestas, ordenLlegada);
-        if (repositorio.registrar(evaluacion)) {
-            // Registrar la clave de respuestas correctas para poder calificar después
-            calificador.registrarClave(new ClaveEvaluacion<>(id, clave));
+        // Registrar la clave en el catálogo (o reutilizarla si otra evaluación ya la usa)
+        int indiceClave = calificador.getCatalogo().registrar(RespuestasOpcionMultiple.de(clave));
+        // Crear la evaluación con las respuestas del estudiante (empaquetadas a 2 bits por pregunta)
+        Evaluacion<RespuestasOpcionMultiple> evaluacion = new Evaluacion<>(
+                id, estudiante, TipoEvaluacion.OM, RespuestasOpcionMultiple.de(respuestas), ordenLlegada, indiceClave);
+        Evaluacion<?> almacenada = repositorio.almacenar(evaluacion);
+        if (almacenada != null) {
             // No se encola porque se procesará inmediatamente en agregarEvaluacionManual
-            return evaluacion;
+            return almacenada;
         } else {
             throw new IllegalStateException("El ID de la evaluación ya existe");
         }
@@ -273,7 +511,7 @@ public final class Aplicacion {
      * @param estudiante nombre del estudiante
      * @param ordenLlegada orden de llegada (para desempates)
      * @param repositorio donde se guardará la evaluación
-     * @param calificador donde se registrará la clave de respuestas correctas
+     * @param calificador cuyo catálogo guarda la clave de respuestas correctas
      * @param colaCorreccion no se usa en modo manual
      * @return la evaluación creada
      */
@@ -281,13 +519,13 @@ public final class Aplicacion {
             UUID id,
             String estudiante,
             long ordenLlegada,
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
         System.out.println("\nIngrese 6 respuestas (true/false para cada pregunta):");
-        List<Boolean> respuestas = new ArrayList<>(); // Respuestas del estudiante
-        List<Boolean> clave = new ArrayList<>(); // Respuestas correctas (clave de corrección)
+        boolean[] respuestas = new boolean[6]; // Respuestas del estudiante
+        boolean[] clave = new boolean[6]; // Respuestas correctas (clave de corrección)
         
         // Solicitar 6 preguntas de verdadero/falso
         for (int i = 1; i <= 6; i++) {
@@ -296,23 +534,25 @@ public final class Aplicacion {
             String respuestaStr = scanner.nextLine().trim().toLowerCase();
             // Convertir texto a booleano (acepta múltiples formatos)
             boolean respuesta = respuestaStr.equals("true") || respuestaStr.equals("t") || respuestaStr.equals("verdadero") || respuestaStr.equals("v");
-            respuestas.add(respuesta);
+            respuestas[i - 1] = respuesta;
             
             // Leer la respuesta correcta para esta pregunta
             System.out.print("Pregunta " + i + " - Respuesta correcta (true/false): ");
             String correctaStr = scanner.nextLine().trim().toLowerCase();
             // Convertir texto a booleano
             boolean correcta = correctaStr.equals("true") || correctaStr.equals("t") || correctaStr.equals("verdadero") || correctaStr.equals("v");
-            clave.add(correcta);
+            clave[i - 1] = correcta;
         }
         
-        // Crear la evaluación con las respuestas del estudiante
-        Evaluacion<List<Boolean>> evaluacion = new Evaluacion<>(id, estudiante, TipoEvaluacion.VF, respuestas, ordenLlegada);
-        if (repositorio.registrar(evaluacion)) {
-            // Registrar la clave de respuestas correctas para poder calificar después
-            calificador.registrarClave(new ClaveEvaluacion<>(id, clave));
+        // Registrar la clave en el catálogo (o reutilizarla si otra evaluación ya la usa)
+        int indiceClave = calificador.getCatalogo().registrar(RespuestasVerdaderoFalso.de(clave));
+        // Crear la evaluación con las respuestas del estudiante (un bit por pregunta)
+        Evaluacion<RespuestasVerdaderoFalso> evaluacion = new Evaluacion<>(
+                id, estudiante, TipoEvaluacion.VF, RespuestasVerdaderoFalso.de(respuestas), ordenLlegada, indiceClave);
+        Evaluacion<?> almacenada = repositorio.almacenar(evaluacion);
+        if (almacenada != null) {
             // No se encola porque se procesará inmediatamente en agregarEvaluacionManual
-            return evaluacion;
+            return almacenada;
         } else {
             throw new IllegalStateException("El ID de la evaluación ya existe");
         }
@@ -327,7 +567,7 @@ public final class Aplicacion {
      * @param estudiante nombre del estudiante
      * @param ordenLlegada orden de llegada (para desempates)
      * @param repositorio donde se guardará la evaluación
-     * @param calificador donde se registrará la clave de respuesta correcta
+     * @param calificador cuyo catálogo guarda la clave de respuesta correcta
      * @param colaCorreccion no se usa en modo manual
      * @return la evaluación creada
      */
@@ -335,9 +575,9 @@ public final class Aplicacion {
             UUID id,
             String estudiante,
             long ordenLlegada,
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
         // Leer la respuesta del estudiante (texto libre)
         System.out.print("Respuesta del estudiante: ");
@@ -353,13 +593,14 @@ public final class Aplicacion {
             throw new IllegalArgumentException("La clave no puede estar vacía");
         }
         
+        // Registrar la clave en el catálogo (o reutilizarla si otra evaluación ya la usa)
+        int indiceClave = calificador.getCatalogo().registrar(clave);
         // Crear la evaluación con la respuesta del estudiante
-        Evaluacion<String> evaluacion = new Evaluacion<>(id, estudiante, TipoEvaluacion.ABIERTA, respuesta, ordenLlegada);
-        if (repositorio.registrar(evaluacion)) {
-            // Registrar la clave de respuesta correcta para poder calificar después
-            calificador.registrarClave(new ClaveEvaluacion<>(id, clave));
+        Evaluacion<String> evaluacion = new Evaluacion<>(id, estudiante, TipoEvaluacion.ABIERTA, respuesta, ordenLlegada, indiceClave);
+        Evaluacion<?> almacenada = repositorio.almacenar(evaluacion);
+        if (almacenada != null) {
             // No se encola porque se procesará inmediatamente en agregarEvaluacionManual
-            return evaluacion;
+            return almacenada;
         } else {
             throw new IllegalStateException("El ID de la evaluación ya existe");
         }
@@ -367,42 +608,53 @@ public final class Aplicacion {
 
     /**
      * Permite editar manualmente el puntaje de una evaluación existente.
-     * Muestra todas las evaluaciones disponibles y permite seleccionar una para cambiar su nota.
+     * Busca al estudiante por nombre o inicio del nombre con el índice secundario y muestra sus
+     * evaluaciones de a una página, sin recorrer el repositorio; también acepta el ID de la evaluación.
      * 
      * @param repositorio almacén de todas las evaluaciones
+     * @param indiceEstudiantes índice de evaluaciones por estudiante
+     * @param motor asigna la nueva nota y avisa a los índices que dependen de ella
+     * @param bitacora confirma en disco los cambios antes de avisar al usuario, o null si no se usa
      */
-    private static void agregarNotaManual(EvaluacionRepository repositorio) {
+    private static void agregarNotaManual(
+            AlmacenEvaluaciones repositorio,
+            IndiceEstudiantes indiceEstudiantes,
+            MotorCalificacion motor,
+            BitacoraEvaluaciones bitacora
+    ) {
         System.out.println("\n=== AGREGAR/EDITAR NOTA MANUALMENTE ===");
         
-        // Obtener todas las evaluaciones registradas
-        Collection<Evaluacion<?>> todas = repositorio.listarTodas();
-        if (todas.isEmpty()) {
+        if (repositorio.cantidad() == 0) {
             System.out.println("No hay evaluaciones registradas. Primero debe crear una evaluación.");
             return;
         }
         
-        // Mostrar lista numerada de todas las evaluaciones disponibles
-        System.out.println("\nEvaluaciones disponibles:");
-        List<Evaluacion<?>> listaEvaluaciones = new ArrayList<>(todas);
-        for (int i = 0; i < listaEvaluaciones.size(); i++) {
-            Evaluacion<?> eval = listaEvaluaciones.get(i);
-            // Mostrar: número, estudiante, tipo y nota actual
-            System.out.printf("%d. %s - %s (Nota actual: %.2f)%n", 
-                i + 1, eval.getEstudiante(), eval.getTipo(), eval.getPuntaje());
+        System.out.print("Estudiante, inicio del nombre o ID de la evaluación: ");
+        String busqueda = scanner.nextLine().trim();
+        if (busqueda.isEmpty()) {
+            return;
         }
         
-        // Solicitar al usuario que seleccione una evaluación
-        System.out.print("\nSeleccione el número de la evaluación (1-" + listaEvaluaciones.size() + "): ");
         try {
-            // Leer el número seleccionado y convertir a índice (restar 1 porque la lista empieza en 0)
-            int indice = Integer.parseInt(scanner.nextLine().trim()) - 1;
-            if (indice < 0 || indice >= listaEvaluaciones.size()) {
-                System.out.println("Número inválido.");
-                return;
+            // Un ID válido lleva directo a la evaluación; cualquier otro texto se busca como nombre
+            Evaluacion<?> evaluacion;
+            UUID id = leerIdentificador(busqueda);
+            if (id != null) {
+                evaluacion = repositorio.buscar(id);
+                if (evaluacion == null) {
+                    System.out.println("No existe una evaluación con ese ID.");
+                    return;
+                }
+            } else {
+                String estudiante = elegirEstudiante(indiceEstudiantes, busqueda);
+                if (estudiante == null) {
+                    return;
+                }
+                evaluacion = elegirEvaluacion(indiceEstudiantes, estudiante);
+                if (evaluacion == null) {
+                    return;
+                }
             }
-            
-            // Obtener la evaluación seleccionada
-            Evaluacion<?> evaluacion = listaEvaluaciones.get(indice);
             System.out.printf("\nEvaluación seleccionada: %s - %s%n", evaluacion.getEstudiante(), evaluacion.getTipo());
             System.out.printf("Nota actual: %.2f%n", evaluacion.getPuntaje());
             
@@ -417,7 +669,10 @@ public final class Aplicacion {
             }
             
             // Actualizar el puntaje de la evaluación
-            evaluacion.actualizarPuntaje(nuevaNota);
+            motor.asignarPuntaje(evaluacion, nuevaNota);
+            if (!sincronizarBitacora(bitacora)) {
+                return;
+            }
             System.out.printf("✓ Nota actualizada exitosamente: %.2f%n", nuevaNota);
             
         } catch (NumberFormatException e) {
@@ -427,16 +682,133 @@ public final class Aplicacion {
         }
     }
 
+    /**
+     * Interpreta el texto como ID de evaluación.
+     * 
+     * @return el ID, o null si el texto no tiene forma de UUID
+     */
+    private static UUID leerIdentificador(String texto) {
+        if (texto.length() != 36 || texto.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            return UUID.fromString(texto);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Devuelve el estudiante con ese nombre exacto o deja elegirlo entre los que empiezan así,
+     * mostrando una página a la vez.
+     * 
+     * @param indiceEstudiantes índice de evaluaciones por estudiante
+     * @param busqueda nombre o inicio del nombre
+     * @return nombre elegido, o null si no hay coincidencias o se canceló
+     */
+    private static String elegirEstudiante(IndiceEstudiantes indiceEstudiantes, String busqueda) {
+        if (indiceEstudiantes.cantidadEvaluaciones(busqueda) > 0) {
+            return busqueda;
+        }
+        String ultimo = null;
+        while (true) {
+            List<String> nombres = indiceEstudiantes.buscarEstudiantes(busqueda, ultimo, TAMANO_PAGINA);
+            if (nombres.isEmpty()) {
+                System.out.println(ultimo == null
+                        ? "No hay estudiantes cuyo nombre empiece con \"" + busqueda + "\"."
+                        : "No hay más estudiantes.");
+                return null;
+            }
+            for (int i = 0; i < nombres.size(); i++) {
+                System.out.printf("%d. %s (%d evaluaciones)%n",
+                        i + 1, nombres.get(i), indiceEstudiantes.cantidadEvaluaciones(nombres.get(i)));
+            }
+            int seleccion = leerSeleccion(1, nombres.size(), nombres.size() == TAMANO_PAGINA);
+            if (seleccion == CANCELAR) {
+                return null;
+            }
+            if (seleccion != SIGUIENTE_PAGINA) {
+                return nombres.get(seleccion - 1);
+            }
+            ultimo = nombres.get(nombres.size() - 1);
+        }
+    }
+
+    /**
+     * Muestra las evaluaciones del estudiante de a una página y deja elegir una.
+     * 
+     * @param indiceEstudiantes índice de evaluaciones por estudiante
+     * @param estudiante nombre exacto
+     * @return evaluación elegida, o null si se canceló
+     */
+    private static Evaluacion<?> elegirEvaluacion(IndiceEstudiantes indiceEstudiantes, String estudiante) {
+        int total = indiceEstudiantes.cantidadEvaluaciones(estudiante);
+        System.out.println("\nEvaluaciones de " + estudiante + " (" + total + "):");
+        int desde = 0;
+        while (desde < total) {
+            List<Evaluacion<?>> pagina = indiceEstudiantes.evaluacionesDe(estudiante, desde, TAMANO_PAGINA);
+            for (int i = 0; i < pagina.size(); i++) {
+                Evaluacion<?> eval = pagina.get(i);
+                // Mostrar: número, tipo, ID y nota actual
+                System.out.printf("%d. %s %s (Nota actual: %.2f)%n",
+                        desde + i + 1, eval.getTipo(), eval.getId(), eval.getPuntaje());
+            }
+            int seleccion = leerSeleccion(desde + 1, desde + pagina.size(), desde + pagina.size() < total);
+            if (seleccion == CANCELAR) {
+                return null;
+            }
+            if (seleccion != SIGUIENTE_PAGINA) {
+                return pagina.get(seleccion - desde - 1);
+            }
+            desde += pagina.size();
+        }
+        return null;
+    }
+
+    /**
+     * Lee el número elegido de la página mostrada.
+     * 
+     * @param primero número del primer elemento de la página
+     * @param ultimo número del último elemento de la página
+     * @param hayMas si Enter pasa a la página siguiente
+     * @return número elegido, SIGUIENTE_PAGINA o CANCELAR
+     */
+    private static int leerSeleccion(int primero, int ultimo, boolean hayMas) {
+        while (true) {
+            System.out.print("Seleccione el número (" + primero + "-" + ultimo + ")"
+                    + (hayMas ? ", Enter para ver más" : "") + " o 0 para cancelar: ");
+            String texto = scanner.nextLine().trim();
+            if (texto.isEmpty()) {
+                return hayMas ? SIGUIENTE_PAGINA : CANCELAR;
+            }
+            try {
+                int numero = Integer.parseInt(texto);
+                if (numero == 0) {
+                    return CANCELAR;
+                }
+                if (numero >= primero && numero <= ultimo) {
+                    return numero;
+                }
+            } catch (NumberFormatException e) {
+                // Se vuelve a preguntar
+            }
+            System.out.println("Número inválido.");
+        }
+    }
+
     /**
      * Muestra una cantidad específica de evaluaciones ordenadas por puntaje.
      * El usuario puede elegir cuántas evaluaciones desea ver.
      * Las evaluaciones se muestran ordenadas de mayor a menor puntaje.
+     * Se leen de la tabla de posiciones, sin reordenar todo el repositorio, si la hay.
      * 
-     * @param repositorio almacén de todas las evaluaciones
-     * @param generadorReporte genera reportes ordenados por puntaje
+     * @param repositorio almacén de todas las evaluaciones, que se ordena si no hay tabla
+     * @param tablaPosiciones índice de evaluaciones calificadas ordenadas por puntaje, o {@code null}
+     * @param generadorReporte genera el texto del reporte
      */
     private static void verCantidadEvaluaciones(
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
+            TablaPosiciones tablaPosiciones,
             GeneradorReporte generadorReporte
     ) {
         System.out.print("\n¿Cuántas evaluaciones desea ver? ");
@@ -448,75 +820,196 @@ public final class Aplicacion {
                 return;
             }
             
-            // Obtener todas las evaluaciones ordenadas por puntaje (de mayor a menor)
-            List<Evaluacion<?>> todas = generadorReporte.generarListadoOrdenado(repositorio.listarTodas());
-            int total = todas.size();
-            
+            List<Evaluacion<?>> ordenadas = tablaPosiciones == null ? ordenarCalificadas(repositorio, generadorReporte) : null;
+            int total = ordenadas == null ? tablaPosiciones.cantidad() : ordenadas.size();
             if (total == 0) {
                 System.out.println("No hay evaluaciones registradas.");
                 return;
             }
             
-            // Calcular cuántas evaluaciones mostrar (no más de las que existen)
-            int cantidadAMostrar = Math.min(cantidad, total);
-            // Obtener solo las primeras N evaluaciones de la lista ordenada
-            List<Evaluacion<?>> evaluacionesAMostrar = todas.subList(0, cantidadAMostrar);
+            // Obtener solo las primeras N evaluaciones (de mayor a menor puntaje)
+            List<Evaluacion<?>> evaluacionesAMostrar = ordenadas == null
+                    ? tablaPosiciones.primeras(cantidad)
+                    : ordenadas.subList(0, Math.min(cantidad, total));
+            int cantidadAMostrar = evaluacionesAMostrar.size();
             
-            // Generar y mostrar el reporte en formato de tabla
-            String reporte = generadorReporte.generarReporteEnTexto(evaluacionesAMostrar);
+            // Mostrar el reporte en formato de tabla
             System.out.println("\n=== EVALUACIONES (mostrando " + cantidadAMostrar + " de " + total + ") ===");
-            System.out.println(reporte);
+            imprimirReporte(generadorReporte, evaluacionesAMostrar);
         } catch (NumberFormatException e) {
             System.out.println("Por favor, ingrese un número válido.");
         }
     }
 
     /**
-     * Muestra todas las evaluaciones registradas ordenadas por puntaje.
-     * También muestra información del mejor puntaje obtenido.
+     * Muestra las estadísticas de puntajes por tipo y, si se indica, las de un estudiante.
+     * Se leen del índice que se actualiza al calificar, sin recorrer el repositorio.
+     * 
+     * @param estadisticas estadísticas acumuladas por estudiante y por tipo
+     */
+    private static void verEstadisticas(EstadisticasPuntajes estadisticas) {
+        System.out.println("\n=== ESTADÍSTICAS DE PUNTAJES ===");
+        System.out.printf("%-10s %10s %9s %8s %8s %8s %8s%n", "", "cantidad", "promedio", "mínimo", "p50", "p90", "máximo");
+        for (TipoEvaluacion tipo : TipoEvaluacion.values()) {
+            imprimirResumen(tipo.name(), estadisticas.porTipo(tipo));
+        }
+        imprimirResumen("Total", estadisticas.total());
+        
+        System.out.print("\nEstudiante (Enter para volver, ? para listarlos): ");
+        String estudiante = scanner.nextLine().trim();
+        if (estudiante.equals("?")) {
+            System.out.println(String.join(", ", estadisticas.estudiantes()));
+            System.out.print("Estudiante: ");
+            estudiante = scanner.nextLine().trim();
+        }
+        if (estudiante.isEmpty()) {
+            return;
+        }
+        EstadisticasPuntajes.Resumen resumen = estadisticas.porEstudiante(estudiante);
+        if (resumen == null) {
+            System.out.println("No hay evaluaciones calificadas de " + estudiante + ".");
+            return;
+        }
+        imprimirResumen(estudiante, resumen);
+        
+        // Histograma en tramos de 10 puntos; el último tramo incluye el 100
+        long[] conteos = estadisticas.histogramaEstudiante(estudiante);
+        for (int desde = 0; desde < 100; desde += 10) {
+            long tramo = 0;
+            for (int i = desde; i < desde + 10; i++) {
+                tramo += conteos[i];
+            }
+            if (desde == 90) {
+                tramo += conteos[100];
+            }
+            int barra = (int) Math.round(40.0 * tramo / resumen.cantidad());
+            System.out.printf("  %3d-%-3d %6d %s%n", desde, desde + 10, tramo, "#".repeat(barra));
+        }
+    }
+
+    private static void imprimirResumen(String titulo, EstadisticasPuntajes.Resumen resumen) {
+        if (resumen.cantidad() == 0) {
+            System.out.printf("%-10s %10d%n", titulo, 0);
+            return;
+        }
+        System.out.printf("%-10s %10d %9.2f %8.2f %8.2f %8.2f %8.2f%n", titulo, resumen.cantidad(), resumen.promedio(),
+                resumen.minimo(), resumen.p50(), resumen.p90(), resumen.maximo());
+    }
+
+    /**
+     * Muestra las evaluaciones calificadas ordenadas por puntaje, una página a la vez.
+     * Cada página se pide a la tabla de posiciones con el cursor de la anterior, así mostrarla
+     * cuesta lo mismo con cinco mil evaluaciones que con millones. Sin tabla, las calificadas se
+     * ordenan una vez al entrar y se recorren por posición.
      * 
      * @param repositorio almacén de todas las evaluaciones
-     * @param generadorReporte genera reportes ordenados por puntaje
+     * @param tablaPosiciones índice de evaluaciones calificadas ordenadas por puntaje, o {@code null}
+     * @param generadorReporte da formato a cada fila
      */
     private static void verTodasEvaluaciones(
-            EvaluacionRepository repositorio,
+            AlmacenEvaluaciones repositorio,
+            TablaPosiciones tablaPosiciones,
             GeneradorReporte generadorReporte
     ) {
-        // Obtener todas las evaluaciones ordenadas por puntaje (de mayor a menor)
-        List<Evaluacion<?>> todas = generadorReporte.generarListadoOrdenado(repositorio.listarTodas());
-        
-        if (todas.isEmpty()) {
-            System.out.println("\nNo hay evaluaciones registradas.");
+        List<Evaluacion<?>> ordenadas = tablaPosiciones == null ? ordenarCalificadas(repositorio, generadorReporte) : null;
+        int calificadas = ordenadas == null ? tablaPosiciones.cantidad() : ordenadas.size();
+        if (calificadas == 0) {
+            System.out.println("\nNo hay evaluaciones calificadas.");
             return;
         }
         
-        // Generar y mostrar el reporte completo en formato de tabla
-        String reporte = generadorReporte.generarReporteEnTexto(todas);
-        System.out.println("\n=== TODAS LAS EVALUACIONES (Total: " + todas.size() + ") ===");
-        System.out.println(reporte);
+        System.out.println("\n=== TODAS LAS EVALUACIONES (Total: " + calificadas + ") ===");
+        int pendientes = repositorio.cantidad() - calificadas;
+        if (pendientes > 0) {
+            System.out.println(pendientes + " evaluaciones sin calificar no aparecen hasta procesar las correcciones.");
+        }
+        PaginaEvaluaciones pagina = paginarPosiciones(tablaPosiciones, ordenadas, null);
+        
+        // Mostrar información del mejor puntaje (primera evaluación de la primera página)
+        Evaluacion<?> mejor = pagina.evaluaciones().get(0);
+        System.out.printf("Mejor puntaje: %.2f (%s)%n", mejor.getPuntaje(), mejor.getEstudiante());
         
-        // Mostrar información del mejor puntaje (primera evaluación de la lista ordenada)
-        if (!todas.isEmpty()) {
-            Evaluacion<?> mejor = todas.get(0);
-            System.out.printf("Mejor puntaje: %.2f (%s)%n", mejor.getPuntaje(), mejor.getEstudiante());
+        int mostradas = 0;
+        while (true) {
+            imprimirReporte(generadorReporte, pagina.evaluaciones());
+            mostradas += pagina.evaluaciones().size();
+            if (!pagina.hayMas()) {
+                return;
+            }
+            System.out.print("Mostradas " + mostradas + " de " + calificadas + ". Enter para ver más, 0 para volver: ");
+            if (!scanner.nextLine().trim().isEmpty()) {
+                return;
+            }
+            pagina = paginarPosiciones(tablaPosiciones, ordenadas, pagina.siguiente());
+        }
+    }
+
+    // Página por puntaje desde la tabla o, si no la hay, desde el listado ya ordenado
+    private static PaginaEvaluaciones paginarPosiciones(
+            TablaPosiciones tablaPosiciones,
+            List<Evaluacion<?>> ordenadas,
+            String cursor
+    ) {
+        if (tablaPosiciones != null) {
+            return tablaPosiciones.paginar(cursor, FILAS_POR_PAGINA_REPORTE);
+        }
+        int desde = PaginaEvaluaciones.leerPosicion(cursor);
+        int hasta = Math.min(desde + FILAS_POR_PAGINA_REPORTE, ordenadas.size());
+        return PaginaEvaluaciones.porPosicion(ordenadas.subList(desde, hasta), hasta, ordenadas.size());
+    }
+
+    /**
+     * Ordena por puntaje las evaluaciones calificadas del repositorio, para cuando no hay tabla
+     * de posiciones.
+     */
+    private static List<Evaluacion<?>> ordenarCalificadas(AlmacenEvaluaciones repositorio, GeneradorReporte generadorReporte) {
+        List<Evaluacion<?>> calificadas = new ArrayList<>();
+        for (Evaluacion<?> evaluacion : repositorio.listarTodas()) {
+            if (evaluacion.estaCalificada()) {
+                calificadas.add(evaluacion);
+            }
         }
+        return generadorReporte.generarListadoOrdenado(calificadas);
+    }
+
+    /**
+     * Escribe el reporte directamente en la consola sin armar el texto completo en memoria.
+     * 
+     * @param generadorReporte da formato a cada fila
+     * @param evaluaciones evaluaciones ya ordenadas
+     */
+    private static void imprimirReporte(GeneradorReporte generadorReporte, List<Evaluacion<?>> evaluaciones) {
+        // No se cierra el escritor para no cerrar System.out
+        Writer consola = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+        try {
+            generadorReporte.escribirReporte(evaluaciones, consola);
+        } catch (IOException e) {
+            System.out.println("✗ Error al escribir el reporte: " + e.getMessage());
+        }
+        System.out.println();
     }
 
     /**
      * Genera evaluaciones automáticamente usando el simulador.
-     * Las evaluaciones se crean con datos aleatorios y se procesan inmediatamente
-     * para calcular sus puntajes.
+     * Las evaluaciones se crean con datos aleatorios y se califican mientras se siguen
+     * generando, con una cola acotada entre ambas etapas.
      * 
      * @param simulador genera evaluaciones con datos aleatorios
+     * @param tuberia conecta la generación con la corrección
      * @param repositorio donde se guardarán las evaluaciones
      * @param calificador calcula los puntajes
-     * @param colaCorreccion cola FIFO para procesar evaluaciones pendientes
+     * @param motor califica en paralelo las evaluaciones generadas
+     * @param metricas contadores que se muestran al terminar
+     * @param bitacora confirma en disco los cambios antes de avisar al usuario, o null si no se usa
      */
     private static void generarEvaluacionesAutomaticas(
             SimuladorEvaluaciones simulador,
-            EvaluacionRepository repositorio,
+            TuberiaCalificacion tuberia,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            MotorCalificacion motor,
+            MetricasCalificacion metricas,
+            BitacoraEvaluaciones bitacora
     ) {
         // Solicitar la cantidad de evaluaciones a generar (por defecto 5000)
         System.out.print("\n¿Cuántas evaluaciones desea generar? (presione Enter para 5000): ");
@@ -528,17 +1021,95 @@ public final class Aplicacion {
             return;
         }
         
-        // Generar las evaluaciones con datos aleatorios
-        System.out.println("Generando " + cantidad + " evaluaciones...");
-        simulador.generarEvaluaciones(cantidad, repositorio, calificador, colaCorreccion);
-        System.out.println("✓ " + cantidad + " evaluaciones generadas exitosamente.");
+        // Generar y corregir a la vez: los productores esperan si hay demasiadas en vuelo
+        System.out.println("Generando y corrigiendo " + cantidad + " evaluaciones (hasta "
+                + tuberia.getCapacidad() + " en vuelo)...");
+        TuberiaCalificacion.ResultadoTuberia resultado =
+                tuberia.ejecutar(simulador, cantidad, motor.getHilos(), repositorio, calificador, motor);
+        if (!sincronizarBitacora(bitacora)) {
+            return;
+        }
+        System.out.println("✓ " + resultado.calificacion().procesadas() + " evaluaciones generadas y calificadas.");
+        HistogramaLatencia latencia = resultado.latencia();
+        System.out.printf("  Primer puntaje a los %.2f ms, total %.2f ms, máximo en vuelo %d%n",
+                resultado.milisegundosPrimerPuntaje(), resultado.milisegundos(), resultado.maximoEnVuelo());
+        System.out.printf("  Latencia encolar→calificar: p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                latencia.getP50Nanos() / 1e6, latencia.getP99Nanos() / 1e6, latencia.getMaximoNanos() / 1e6);
+        if (resultado.muestrasPerdidas() > 0) {
+            System.out.println("  (" + resultado.muestrasPerdidas() + " calificaciones sin marca de tiempo)");
+        }
+        mostrarRendimiento(resultado.calificacion(), metricas);
+    }
+    
+    /**
+     * Importa un archivo de claves (opcional) y uno de evaluaciones, y luego las corrige.
+     * El formato se deduce por la extensión: .jsonl/.ndjson/.json o CSV.
+     * 
+     * @param importador conserva las claves importadas entre una llamada y otra
+     * @param repositorio recibe las evaluaciones importadas
+     * @param colaCorreccion recibe las evaluaciones para corregirlas
+     * @param calificador calcula los puntajes
+     * @param motor reparte la corrección entre varios hilos
+     * @param metricas contadores que se muestran al terminar
+     * @param bitacora confirma en disco los cambios antes de avisar al usuario, o null si no se usa
+     */
+    private static void importarDesdeArchivos(
+            ImportadorEvaluaciones importador,
+            AlmacenEvaluaciones repositorio,
+            ColaEvaluaciones colaCorreccion,
+            CalificadorEvaluaciones calificador,
+            MotorCalificacion motor,
+            MetricasCalificacion metricas,
+            BitacoraEvaluaciones bitacora
+    ) {
+        System.out.print("\nArchivo de claves (Enter para usar las ya importadas): ");
+        String archivoClaves = scanner.nextLine().trim();
+        System.out.print("Archivo de evaluaciones: ");
+        String archivoEvaluaciones = scanner.nextLine().trim();
+        if (archivoEvaluaciones.isEmpty()) {
+            System.out.println("Debe indicar el archivo de evaluaciones.");
+            return;
+        }
         
-        // Procesar todas las correcciones automáticamente para calcular los puntajes
+        try {
+            if (!archivoClaves.isEmpty()) {
+                mostrarImportacion("Claves", importador.importarClaves(Path.of(archivoClaves)));
+            }
+            mostrarImportacion("Evaluaciones",
+                    importador.importarEvaluaciones(Path.of(archivoEvaluaciones), repositorio, colaCorreccion));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("✗ No se pudo importar: " + e.getMessage());
+            return;
+        }
+        if (!sincronizarBitacora(bitacora)) {
+            return;
+        }
+        
+        // Las evaluaciones importadas quedan en la cola: se corrigen igual que las generadas
         System.out.println("Procesando correcciones automáticamente...");
-        int procesadas = procesarCorreccionesSilencioso(colaCorreccion, calificador);
-        System.out.println("✓ " + procesadas + " evaluaciones procesadas y calificadas.");
+        ResultadoCalificacion resultado = procesarCorreccionesSilencioso(colaCorreccion, calificador, motor);
+        if (!sincronizarBitacora(bitacora)) {
+            return;
+        }
+        System.out.println("✓ " + resultado.procesadas() + " evaluaciones procesadas y calificadas.");
+        mostrarRendimiento(resultado, metricas);
     }
-    
+
+    /**
+     * Muestra el resumen de una importación y los primeros errores encontrados.
+     * 
+     * @param titulo qué se importó
+     * @param resultado resumen devuelto por el importador
+     */
+    private static void mostrarImportacion(String titulo, ImportadorEvaluaciones.ResultadoImportacion resultado) {
+        System.out.printf("✓ %s: %d filas, %d importadas, %d duplicadas, %d con errores (%.2f ms, %.0f filas/s)%n",
+                titulo, resultado.lineas(), resultado.importadas(), resultado.duplicadas(), resultado.errores(),
+                resultado.milisegundos(), resultado.filasPorSegundo());
+        for (String error : resultado.primerosErrores()) {
+            System.out.println("  " + error);
+        }
+    }
+
     /**
      * Procesa todas las evaluaciones pendientes en la cola de corrección.
      * Calcula el puntaje de cada evaluación comparando respuestas con claves.
@@ -546,25 +1117,16 @@ public final class Aplicacion {
      * 
      * @param colaCorreccion cola FIFO con evaluaciones pendientes
      * @param calificador calcula los puntajes
-     * @return número de evaluaciones procesadas
+     * @param motor reparte la corrección entre varios hilos
+     * @return resumen con las evaluaciones procesadas y el tiempo empleado
      */
-    private static int procesarCorreccionesSilencioso(ColaCorreccion colaCorreccion, CalificadorEvaluaciones calificador) {
-        int procesadas = 0;
-        // Procesar todas las evaluaciones en la cola (orden FIFO)
-        while (!colaCorreccion.estaVacia()) {
-            // Tomar la siguiente evaluación de la cola
-            Optional<Evaluacion<?>> posibleEvaluacion = colaCorreccion.tomarSiguiente();
-            if (posibleEvaluacion.isEmpty()) {
-                break; // No hay más evaluaciones
-            }
-            Evaluacion<?> evaluacion = posibleEvaluacion.get();
-            // Calcular el puntaje comparando respuestas con la clave
-            double puntaje = calificador.calificar(evaluacion);
-            // Actualizar el puntaje en la evaluación
-            evaluacion.actualizarPuntaje(puntaje);
-            procesadas++;
-        }
-        return procesadas;
+    private static ResultadoCalificacion procesarCorreccionesSilencioso(
+            ColaEvaluaciones colaCorreccion,
+            CalificadorEvaluaciones calificador,
+            MotorCalificacion motor
+    ) {
+        // Los hilos del motor toman evaluaciones de la cola hasta vaciarla
+        return motor.procesar(colaCorreccion, calificador);
     }
 
     /**
@@ -574,30 +1136,36 @@ public final class Aplicacion {
      * 
      * @param colaCorreccion cola FIFO con evaluaciones pendientes
      * @param calificador calcula los puntajes
+     * @param motor reparte la corrección entre varios hilos
+     * @param metricas contadores que se muestran al terminar
+     * @param bitacora confirma en disco los cambios antes de avisar al usuario, o null si no se usa
      */
     private static void procesarTodasCorrecciones(
-            ColaCorreccion colaCorreccion,
-            CalificadorEvaluaciones calificador
+            ColaEvaluaciones colaCorreccion,
+            CalificadorEvaluaciones calificador,
+            MotorCalificacion motor,
+            MetricasCalificacion metricas,
+            BitacoraEvaluaciones bitacora
     ) {
         System.out.println("\nProcesando correcciones...");
-        int procesadas = 0;
-        
-        // Procesar todas las evaluaciones en la cola (orden FIFO)
-        while (!colaCorreccion.estaVacia()) {
-            // Tomar la siguiente evaluación de la cola
-            Optional<Evaluacion<?>> posibleEvaluacion = colaCorreccion.tomarSiguiente();
-            if (posibleEvaluacion.isEmpty()) {
-                break; // No hay más evaluaciones
-            }
-            Evaluacion<?> evaluacion = posibleEvaluacion.get();
-            // Calcular el puntaje comparando respuestas con la clave
-            double puntaje = calificador.calificar(evaluacion);
-            // Actualizar el puntaje en la evaluación
-            evaluacion.actualizarPuntaje(puntaje);
-            procesadas++;
+        ResultadoCalificacion resultado = motor.procesar(colaCorreccion, calificador);
+        if (!sincronizarBitacora(bitacora)) {
+            return;
         }
-        
-        System.out.println("✓ " + procesadas + " evaluaciones procesadas.");
+        System.out.println("✓ " + resultado.procesadas() + " evaluaciones procesadas.");
+        mostrarRendimiento(resultado, metricas);
+    }
+
+    /**
+     * Muestra el tiempo y el rendimiento de una ronda de corrección junto con las métricas acumuladas.
+     * 
+     * @param resultado resumen devuelto por el motor de calificación
+     * @param metricas contadores acumulados desde el inicio
+     */
+    private static void mostrarRendimiento(ResultadoCalificacion resultado, MetricasCalificacion metricas) {
+        System.out.printf("  %d hilos, %.2f ms (%.0f evaluaciones/s)%n",
+                resultado.hilos(), resultado.milisegundos(), resultado.evaluacionesPorSegundo());
+        System.out.print(metricas.resumen());
     }
 }
 
@@ -0,0 +1,612 @@
+package com.caso5;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Bitácora binaria de solo anexado con los registros, claves y cambios de puntaje.
+ * <p>
+ * Cada registro se escribe como {@code [largo:int][crc32c:int][tipo:byte][datos]}; el CRC cubre
+ * el tipo y los datos. Los hilos solo copian su registro a un búfer en memoria; un hilo de
+ * escritura junta todo lo acumulado, lo escribe con un {@link FileChannel} y hace un único
+ * {@code force} por grupo (confirmación en grupo). {@link #sincronizar()} espera a que lo anexado
+ * hasta ese momento quede en disco.
+ * <p>
+ * {@link #reproducir} reconstruye las estructuras en memoria al iniciar. Si el último registro
+ * quedó a medias o con un CRC inválido (por ejemplo, tras una caída), se descarta desde ahí y el
+ * archivo se trunca en el último registro válido.
+ * <p>
+ * Las claves se guardan la primera vez que una evaluación de la sesión las referencia, con el
+ * índice del catálogo de esa sesión; al reproducir se traducen a los índices del catálogo nuevo.
+ * Solo se persisten las claves del {@link CatalogoClaves}.
+ */
+public final class BitacoraEvaluaciones implements OyenteCalificacion, AutoCloseable {
+
+    // Encabezado del archivo: identifica el formato y su versión
+    private static final byte[] MAGICO = "CASO5BT1".getBytes(StandardCharsets.US_ASCII);
+    // Largo del marco antes de los datos: largo + crc
+    private static final int ENCABEZADO_REGISTRO = 8;
+    // Registros más largos se consideran basura al reproducir
+    private static final int LARGO_MAXIMO_REGISTRO = 16 << 20;
+
+    private static final byte REGISTRO_CLAVE = 1;
+    private static final byte REGISTRO_EVALUACION = 2;
+    private static final byte REGISTRO_PUNTAJE = 3;
+
+    // Bytes acumulados que despiertan al hilo de escritura antes de que venza el intervalo
+    private static final int UMBRAL_ESCRITURA = 1 << 20;
+    // Bytes pendientes a partir de los cuales los productores esperan al disco
+    private static final int LIMITE_PENDIENTE = 64 << 20;
+    private static final int TAMANO_LECTURA = 1 << 20;
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+
+    private final FileChannel canal;
+    private final CatalogoClaves catalogo;
+    // Tiempo máximo que un registro espera a su grupo
+    private final long intervaloNanos;
+    private final Thread hiloEscritura;
+
+    // Protege todo el estado mutable de abajo
+    private final Object candado = new Object();
+    // Registros anexados que aún no se escriben
+    private ByteBuffer pendiente = ByteBuffer.allocate(UMBRAL_ESCRITURA);
+    // Búfer que el hilo de escritura está vaciando
+    private ByteBuffer enEscritura = ByteBuffer.allocate(UMBRAL_ESCRITURA);
+    // Bytes anexados y bytes ya forzados a disco desde que se abrió la bitácora
+    private long bytesAnexados;
+    private long bytesDurables;
+    // Claves del catálogo ya guardadas en esta sesión
+    private final BitSet clavesEscritas = new BitSet();
+    private final CRC32C crc = new CRC32C();
+    // Posición del tipo del registro que se está armando en el búfer pendiente
+    private int inicioRegistro;
+    // Algún hilo espera en sincronizar(): el grupo se escribe sin esperar el intervalo
+    private boolean urgente;
+    private boolean cerrando;
+    private IOException errorEscritura;
+
+    private BitacoraEvaluaciones(FileChannel canal, CatalogoClaves catalogo, long intervaloMilisegundos) {
+        this.canal = canal;
+        this.catalogo = catalogo;
+        this.intervaloNanos = intervaloMilisegundos * 1_000_000L;
+        this.hiloEscritura = new Thread(this::escribirGrupos, "bitacora");
+        hiloEscritura.setDaemon(true);
+        hiloEscritura.start();
+    }
+
+    /**
+     * Abre (o crea) la bitácora para anexar al final.
+     *
+     * @param archivo               ruta del archivo.
+     * @param catalogo              catálogo del que se toman las claves referenciadas.
+     * @param intervaloMilisegundos espera máxima de un grupo antes de forzarse a disco.
+     */
+    public static BitacoraEvaluaciones abrir(Path archivo, CatalogoClaves catalogo, long intervaloMilisegundos) throws IOException {
+        if (intervaloMilisegundos < 1) {
+            throw new IllegalArgumentException("El intervalo debe ser mayor a 0");
+        }
+        FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() == 0) {
+                canal.write(ByteBuffer.wrap(MAGICO));
+                canal.force(true);
+            } else {
+                validarEncabezado(canal);
+            }
+            canal.position(canal.size());
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return new BitacoraEvaluaciones(canal, catalogo, intervaloMilisegundos);
+    }
+
+    /**
+     * Envuelve el repositorio para anexar cada evaluación aceptada (y su clave, la primera vez).
+     */
+    public AlmacenEvaluaciones envolver(AlmacenEvaluaciones almacen) {
+        return new AlmacenConBitacora(almacen, this);
+    }
+
+    /**
+     * Anexa una evaluación recién almacenada.
+     */
+    void anexarEvaluacion(Evaluacion<?> evaluacion) {
+        byte[] estudiante = evaluacion.getEstudiante().getBytes(StandardCharsets.UTF_8);
+        Object respuesta = serializable(evaluacion.getRespuesta());
+        int indiceClave = evaluacion.getIndiceClave();
+        synchronized (candado) {
+            if (indiceClave != CatalogoClaves.SIN_CLAVE && !clavesEscritas.get(indiceClave)) {
+                Object clave = serializable(catalogo.respuestaEsperada(indiceClave));
+                int largo = 1 + 4 + 1 + largoRespuesta(clave);
+                ByteBuffer destino = iniciarRegistro(REGISTRO_CLAVE, largo);
+                destino.putInt(indiceClave);
+                destino.put((byte) evaluacion.getTipo().ordinal());
+                escribirRespuesta(destino, clave);
+                cerrarRegistro(destino);
+                clavesEscritas.set(indiceClave);
+            }
+            UUID id = evaluacion.getId();
+            int largo = 1 + 8 + 8 + 8 + 1 + 4 + 4 + estudiante.length + largoRespuesta(respuesta);
+            ByteBuffer destino = iniciarRegistro(REGISTRO_EVALUACION, largo);
+            destino.putLong(id.getMostSignificantBits());
+            destino.putLong(id.getLeastSignificantBits());
+            destino.putLong(evaluacion.getOrdenLlegada());
+            destino.put((byte) evaluacion.getTipo().ordinal());
+            destino.putInt(indiceClave);
+            destino.putInt(estudiante.length);
+            destino.put(estudiante);
+            escribirRespuesta(destino, respuesta);
+            cerrarRegistro(destino);
+            if (evaluacion.estaCalificada()) {
+                anexarPuntaje(evaluacion);
+            }
+        }
+    }
+
+    @Override
+    public void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+        synchronized (candado) {
+            anexarPuntaje(evaluacion);
+        }
+    }
+
+    /**
+     * Anexa todo el lote con una sola adquisición del candado.
+     */
+    @Override
+    public void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+        synchronized (candado) {
+            for (int i = 0; i < cantidad; i++) {
+                anexarPuntaje(lote[i]);
+            }
+        }
+    }
+
+    private void anexarPuntaje(Evaluacion<?> evaluacion) {
+        UUID id = evaluacion.getId();
+        ByteBuffer destino = iniciarRegistro(REGISTRO_PUNTAJE, 1 + 8 + 8 + 8);
+        destino.putLong(id.getMostSignificantBits());
+        destino.putLong(id.getLeastSignificantBits());
+        destino.putDouble(evaluacion.getPuntaje());
+        cerrarRegistro(destino);
+    }
+
+    // Reserva espacio para el marco y escribe el largo y el tipo; el CRC se completa al cerrar
+    private ByteBuffer iniciarRegistro(byte tipo, int largo) {
+        verificarEstado();
+        while (pendiente.position() > LIMITE_PENDIENTE) {
+            esperar();
+            verificarEstado();
+        }
+        int necesario = ENCABEZADO_REGISTRO + largo;
+        if (pendiente.remaining() < necesario) {
+            int capacidad = Math.max(pendiente.capacity() * 2, pendiente.position() + necesario);
+            ByteBuffer mayor = ByteBuffer.allocate(capacidad);
+            mayor.put(pendiente.flip());
+            pendiente = mayor;
+        }
+        if (pendiente.position() == 0) {
+            // Primer registro del grupo: el hilo de escritura empieza a contar el intervalo
+            candado.notifyAll();
+        }
+        pendiente.putInt(largo);
+        pendiente.putInt(0);
+        inicioRegistro = pendiente.position();
+        pendiente.put(tipo);
+        return pendiente;
+    }
+
+    // Calcula el CRC del registro en curso y lo cuenta como anexado
+    private void cerrarRegistro(ByteBuffer destino) {
+        int fin = destino.position();
+        crc.reset();
+        crc.update(destino.array(), inicioRegistro, fin - inicioRegistro);
+        destino.putInt(inicioRegistro - 4, (int) crc.getValue());
+        bytesAnexados += fin - inicioRegistro + ENCABEZADO_REGISTRO;
+        if (fin >= UMBRAL_ESCRITURA) {
+            candado.notifyAll();
+        }
+    }
+
+    private void verificarEstado() {
+        if (errorEscritura != null) {
+            throw new UncheckedIOException("La bitácora dejó de escribir", errorEscritura);
+        }
+        if (cerrando) {
+            throw new IllegalStateException("La bitácora está cerrada");
+        }
+    }
+
+    private void esperar() {
+        try {
+            candado.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera de la bitácora", e);
+        }
+    }
+
+    /**
+     * Bloquea hasta que todo lo anexado antes de la llamada quede forzado a disco.
+     *
+     * @throws UncheckedIOException si el hilo de escritura falló.
+     */
+    public void sincronizar() {
+        synchronized (candado) {
+            long objetivo = bytesAnexados;
+            urgente = true;
+            candado.notifyAll();
+            while (bytesDurables < objetivo) {
+                if (errorEscritura != null) {
+                    throw new UncheckedIOException("La bitácora dejó de escribir", errorEscritura);
+                }
+                esperar();
+            }
+        }
+    }
+
+    // Bucle del hilo de escritura: junta un grupo, lo escribe y lo fuerza una sola vez
+    private void escribirGrupos() {
+        while (true) {
+            long objetivo;
+            synchronized (candado) {
+                try {
+                    esperarGrupo();
+                } catch (InterruptedException e) {
+                    cerrando = true;
+                }
+                if (pendiente.position() == 0) {
+                    if (cerrando) {
+                        candado.notifyAll();
+                        return;
+                    }
+                    urgente = false;
+                    continue;
+                }
+                ByteBuffer grupo = pendiente;
+                pendiente = enEscritura;
+                enEscritura = grupo;
+                objetivo = bytesAnexados;
+                urgente = false;
+                // Libera a los productores que esperaban espacio
+                candado.notifyAll();
+            }
+            try {
+                enEscritura.flip();
+                while (enEscritura.hasRemaining()) {
+                    canal.write(enEscritura);
+                }
+                canal.force(false);
+                enEscritura.clear();
+            } catch (IOException e) {
+                synchronized (candado) {
+                    errorEscritura = e;
+                    candado.notifyAll();
+                }
+                return;
+            }
+            synchronized (candado) {
+                bytesDurables = objetivo;
+                candado.notifyAll();
+            }
+        }
+    }
+
+    // Espera hasta que el grupo venza su intervalo, llene el umbral, se pida sincronizar o se cierre
+    private void esperarGrupo() throws InterruptedException {
+        while (!cerrando && !urgente && pendiente.position() == 0) {
+            candado.wait();
+        }
+        long limite = System.nanoTime() + intervaloNanos;
+        while (!cerrando && !urgente && pendiente.position() < UMBRAL_ESCRITURA) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            TimeUnit.NANOSECONDS.timedWait(candado, restante);
+        }
+    }
+
+    /**
+     * Escribe lo pendiente, detiene el hilo de escritura y cierra el archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (candado) {
+            cerrando = true;
+            candado.notifyAll();
+        }
+        try {
+            hiloEscritura.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        synchronized (candado) {
+            if (errorEscritura != null) {
+                throw errorEscritura;
+            }
+        }
+    }
+
+    // Los textos se codifican una sola vez para medirlos y escribirlos
+    private static Object serializable(Object respuesta) {
+        return respuesta instanceof String texto ? texto.getBytes(StandardCharsets.UTF_8) : respuesta;
+    }
+
+    private static int largoRespuesta(Object respuesta) {
+        if (respuesta instanceof RespuestasOpcionMultiple opciones) {
+            return 4 + 4 + 8 * opciones.palabras().length;
+        }
+        if (respuesta instanceof RespuestasVerdaderoFalso respuestas) {
+            return 4 + 4 + 8 * respuestas.bits().length;
+        }
+        if (respuesta instanceof byte[] texto) {
+            return 4 + texto.length;
+        }
+        throw new IllegalArgumentException("Respuesta no serializable: " + respuesta.getClass().getName());
+    }
+
+    private static void escribirRespuesta(ByteBuffer destino, Object respuesta) {
+        if (respuesta instanceof RespuestasOpcionMultiple opciones) {
+            escribirPalabras(destino, opciones.cantidad(), opciones.palabras());
+        } else if (respuesta instanceof RespuestasVerdaderoFalso respuestas) {
+            escribirPalabras(destino, respuestas.cantidad(), respuestas.bits());
+        } else {
+            byte[] texto = (byte[]) respuesta;
+            destino.putInt(texto.length);
+            destino.put(texto);
+        }
+    }
+
+    private static void escribirPalabras(ByteBuffer destino, int cantidad, long[] palabras) {
+        destino.putInt(cantidad);
+        destino.putInt(palabras.length);
+        for (long palabra : palabras) {
+            destino.putLong(palabra);
+        }
+    }
+
+    private static void validarEncabezado(FileChannel canal) throws IOException {
+        ByteBuffer encabezado = ByteBuffer.allocate(MAGICO.length);
+        while (encabezado.hasRemaining()) {
+            if (canal.read(encabezado, encabezado.position()) < 0) {
+                throw new IOException("El archivo no es una bitácora de evaluaciones");
+            }
+        }
+        if (!Arrays.equals(encabezado.array(), MAGICO)) {
+            throw new IOException("El archivo no es una bitácora de evaluaciones");
+        }
+    }
+
+    /**
+     * Resumen de una reproducción.
+     *
+     * @param registros        registros válidos leídos.
+     * @param evaluaciones     evaluaciones almacenadas.
+     * @param puntajes         cambios de puntaje aplicados.
+     * @param pendientes       evaluaciones sin puntaje que se encolaron para corregir.
+     * @param bytesDescartados bytes del final que se truncaron por estar incompletos o dañados.
+     * @param nanos            duración de la reproducción.
+     */
+    public record ResultadoReproduccion(long registros, int evaluaciones, long puntajes, int pendientes,
+                                        long bytesDescartados, long nanos) {
+
+        public double milisegundos() {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Reconstruye el estado desde la bitácora. Si el archivo no existe no hace nada.
+     * <p>
+     * Las claves se registran en el catálogo del calificador, las evaluaciones en el repositorio
+     * y los puntajes se aplican sobre la instancia almacenada (el último gana). Al terminar, el
+     * oyente recibe todas las evaluaciones calificadas y las que no tienen puntaje se encolan.
+     *
+     * @param oyente índice a poblar con los puntajes recuperados, o {@code null}.
+     */
+    public static ResultadoReproduccion reproducir(
+            Path archivo,
+            AlmacenEvaluaciones almacen,
+            CalificadorEvaluaciones calificador,
+            ColaEvaluaciones colaCorreccion,
+            OyenteCalificacion oyente
+    ) throws IOException {
+        long inicio = System.nanoTime();
+        if (!Files.exists(archivo)) {
+            return new ResultadoReproduccion(0, 0, 0, 0, 0, System.nanoTime() - inicio);
+        }
+        Reproduccion reproduccion = new Reproduccion(almacen, calificador.getCatalogo());
+        long descartados;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (canal.size() == 0) {
+                return new ResultadoReproduccion(0, 0, 0, 0, 0, System.nanoTime() - inicio);
+            }
+            validarEncabezado(canal);
+            long valido = reproduccion.leer(canal, MAGICO.length);
+            descartados = canal.size() - valido;
+            if (descartados > 0) {
+                canal.truncate(valido);
+                canal.force(true);
+            }
+        }
+        int pendientes = reproduccion.publicar(colaCorreccion, oyente);
+        return new ResultadoReproduccion(reproduccion.registros, reproduccion.evaluaciones, reproduccion.puntajes,
+                pendientes, descartados, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Estado de una reproducción en curso.
+     */
+    private static final class Reproduccion {
+
+        private final AlmacenEvaluaciones almacen;
+        private final CatalogoClaves catalogo;
+        // Índice de la sesión original -> índice en el catálogo actual
+        private final Map<Integer, Integer> indicesClave = new HashMap<>();
+        // Nombres ya leídos, para no repetir una cadena por evaluación
+        private final Map<String, String> nombres = new HashMap<>();
+        private final CRC32C crc = new CRC32C();
+        private long registros;
+        private int evaluaciones;
+        private long puntajes;
+
+        private Reproduccion(AlmacenEvaluaciones almacen, CatalogoClaves catalogo) {
+            this.almacen = almacen;
+            this.catalogo = catalogo;
+        }
+
+        // Aplica los registros desde "posicion" y devuelve dónde termina el último válido
+        private long leer(FileChannel canal, long posicion) throws IOException {
+            ByteBuffer lectura = ByteBuffer.allocateDirect(TAMANO_LECTURA);
+            byte[] datos = new byte[1024];
+            long valido = posicion;
+            canal.position(posicion);
+            boolean finArchivo = false;
+            while (true) {
+                if (!finArchivo && lectura.remaining() > 0) {
+                    finArchivo = canal.read(lectura) < 0;
+                }
+                lectura.flip();
+                while (lectura.remaining() >= ENCABEZADO_REGISTRO) {
+                    int largo = lectura.getInt(lectura.position());
+                    if (largo < 1 || largo > LARGO_MAXIMO_REGISTRO) {
+                        return valido;
+                    }
+                    if (lectura.remaining() < ENCABEZADO_REGISTRO + largo) {
+                        break;
+                    }
+                    int esperado = lectura.getInt(lectura.position() + 4);
+                    if (datos.length < largo) {
+                        datos = new byte[Math.max(largo, datos.length * 2)];
+                    }
+                    lectura.position(lectura.position() + ENCABEZADO_REGISTRO);
+                    lectura.get(datos, 0, largo);
+                    crc.reset();
+                    crc.update(datos, 0, largo);
+                    if ((int) crc.getValue() != esperado) {
+                        return valido;
+                    }
+                    try {
+                        aplicar(ByteBuffer.wrap(datos, 0, largo));
+                    } catch (RuntimeException e) {
+                        // Un registro con CRC válido pero ilegible marca también el fin de lo confiable
+                        return valido;
+                    }
+                    registros++;
+                    valido += ENCABEZADO_REGISTRO + largo;
+                }
+                int largoPendiente = lectura.remaining() >= 4 ? lectura.getInt(lectura.position()) : 0;
+                lectura.compact();
+                if (finArchivo) {
+                    return valido;
+                }
+                if (lectura.remaining() == 0) {
+                    // El registro no cabe en el búfer: se agranda para leerlo completo
+                    ByteBuffer mayor = ByteBuffer.allocateDirect(
+                            Math.max(lectura.capacity() * 2, ENCABEZADO_REGISTRO + largoPendiente));
+                    lectura.flip();
+                    mayor.put(lectura);
+                    lectura = mayor;
+                }
+            }
+        }
+
+        private void aplicar(ByteBuffer registro) {
+            byte tipo = registro.get();
+            switch (tipo) {
+                case REGISTRO_CLAVE -> {
+                    int indiceOriginal = registro.getInt();
+                    TipoEvaluacion tipoEvaluacion = TIPOS[registro.get()];
+                    indicesClave.put(indiceOriginal, catalogo.registrar(leerRespuesta(registro, tipoEvaluacion)));
+                }
+                case REGISTRO_EVALUACION -> {
+                    UUID id = new UUID(registro.getLong(), registro.getLong());
+                    long orden = registro.getLong();
+                    TipoEvaluacion tipoEvaluacion = TIPOS[registro.get()];
+                    int indiceOriginal = registro.getInt();
+                    String estudiante = nombres.computeIfAbsent(leerTexto(registro), nombre -> nombre);
+                    Object respuesta = leerRespuesta(registro, tipoEvaluacion);
+                    Integer indiceClave = indicesClave.get(indiceOriginal);
+                    Evaluacion<Object> evaluacion = new Evaluacion<>(id, estudiante, tipoEvaluacion, respuesta, orden,
+                            indiceClave == null ? CatalogoClaves.SIN_CLAVE : indiceClave);
+                    if (almacen.almacenar(evaluacion) != null) {
+                        evaluaciones++;
+                    }
+                }
+                case REGISTRO_PUNTAJE -> {
+                    UUID id = new UUID(registro.getLong(), registro.getLong());
+                    double puntaje = registro.getDouble();
+                    Evaluacion<?> evaluacion = almacen.buscar(id);
+                    if (evaluacion != null) {
+                        evaluacion.actualizarPuntaje(puntaje);
+                        puntajes++;
+                    }
+                }
+                default -> throw new IllegalStateException("Tipo de registro desconocido: " + tipo);
+            }
+        }
+
+        private static Object leerRespuesta(ByteBuffer registro, TipoEvaluacion tipo) {
+            if (tipo == TipoEvaluacion.ABIERTA) {
+                return leerTexto(registro);
+            }
+            int cantidad = registro.getInt();
+            long[] palabras = new long[registro.getInt()];
+            for (int i = 0; i < palabras.length; i++) {
+                palabras[i] = registro.getLong();
+            }
+            return tipo == TipoEvaluacion.OM
+                    ? new RespuestasOpcionMultiple(palabras, cantidad)
+                    : new RespuestasVerdaderoFalso(palabras, cantidad);
+        }
+
+        private static String leerTexto(ByteBuffer registro) {
+            int largo = registro.getInt();
+            String texto = new String(registro.array(), registro.arrayOffset() + registro.position(), largo, StandardCharsets.UTF_8);
+            registro.position(registro.position() + largo);
+            return texto;
+        }
+
+        // Avisa al oyente de los puntajes recuperados y encola las evaluaciones sin corregir
+        private int publicar(ColaEvaluaciones colaCorreccion, OyenteCalificacion oyente) {
+            Evaluacion<?>[] lote = new Evaluacion<?>[MotorCalificacion.TAMANO_LOTE];
+            double[] anteriores = new double[MotorCalificacion.TAMANO_LOTE];
+            Arrays.fill(anteriores, Double.NaN);
+            int enLote = 0;
+            int pendientes = 0;
+            for (Evaluacion<?> evaluacion : almacen.listarTodas()) {
+                if (!evaluacion.estaCalificada()) {
+                    colaCorreccion.encolar(evaluacion);
+                    pendientes++;
+                } else if (oyente != null) {
+                    lote[enLote++] = evaluacion;
+                    if (enLote == lote.length) {
+                        oyente.lotePuntajesActualizados(lote, anteriores, enLote);
+                        enLote = 0;
+                    }
+                }
+            }
+            if (enLote > 0) {
+                oyente.lotePuntajesActualizados(lote, anteriores, enLote);
+            }
+            return pendientes;
+        }
+    }
+}
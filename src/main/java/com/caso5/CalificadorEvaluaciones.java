@@ -1,81 +1,96 @@
 package com.caso5;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Calcula el puntaje de cada evaluación utilizando su clave de respuestas.
+ * Es seguro usarlo desde varios hilos calificadores a la vez.
+ * <p>
+ * Las claves viven en un {@link CatalogoClaves}: las evaluaciones creadas con un índice de clave
+ * se califican sin búsquedas por identificador. Las claves registradas con
+ * {@link #registrarClave(ClaveEvaluacion)} también se guardan en el catálogo, y solo se asocia el
+ * identificador con el índice.
  */
 public class CalificadorEvaluaciones {
 
-    // Relaciona el ID de la evaluación con su clave correcta
-    private final Map<UUID, ClaveEvaluacion<?>> clavesPorEvaluacion = new HashMap<>();
+    // Claves compartidas, registradas una vez por versión de examen
+    private final CatalogoClaves catalogo;
+    // Índice de clave de las evaluaciones sin índice propio (concurrente para calificar en paralelo)
+    private final Map<UUID, Integer> indicesPorEvaluacion = new ConcurrentHashMap<>();
+
+    public CalificadorEvaluaciones() {
+        this(new CatalogoClaves());
+    }
+
+    public CalificadorEvaluaciones(CatalogoClaves catalogo) {
+        this.catalogo = Objects.requireNonNull(catalogo);
+    }
+
+    public CatalogoClaves getCatalogo() {
+        return catalogo;
+    }
 
     /**
-     * Guarda la clave correspondiente a una evaluación.
+     * Guarda la clave correspondiente a una evaluación que no tiene índice de clave.
+     * Si otra evaluación ya registró la misma clave, se comparte la entrada del catálogo.
      */
     public void registrarClave(ClaveEvaluacion<?> clave) {
-        clavesPorEvaluacion.put(clave.getIdentificadorEvaluacion(), clave);
+        int indice = catalogo.registrar(clave.getRespuestaEsperada());
+        indicesPorEvaluacion.put(clave.getIdentificadorEvaluacion(), indice);
     }
 
-    @SuppressWarnings("unchecked")
     /**
-     * Calcula el puntaje usando la clave almacenada y el tipo de evaluación.
+     * Calcula el puntaje usando la clave del catálogo y el tipo de evaluación.
      */
     public double calificar(Evaluacion<?> evaluacion) {
-        ClaveEvaluacion<?> clave = clavesPorEvaluacion.get(evaluacion.getId());
-        if (clave == null) {
-            throw new IllegalStateException("No se encontró la clave para " + evaluacion.getId());
+        int indice = evaluacion.getIndiceClave();
+        if (indice == CatalogoClaves.SIN_CLAVE) {
+            Integer registrado = indicesPorEvaluacion.get(evaluacion.getId());
+            if (registrado == null) {
+                throw new IllegalStateException("No se encontró la clave para " + evaluacion.getId());
+            }
+            indice = registrado;
         }
+        Object clave = catalogo.claveCompilada(indice);
 
         return switch (evaluacion.getTipo()) {
             case OM -> calificarOpcionMultiple(
-                    (List<Integer>) evaluacion.getRespuesta(),
-                    (List<Integer>) clave.getRespuestaEsperada()
+                    (RespuestasOpcionMultiple) evaluacion.getRespuesta(),
+                    (RespuestasOpcionMultiple) clave
             );
             case VF -> calificarVerdaderoFalso(
-                    (List<Boolean>) evaluacion.getRespuesta(),
-                    (List<Boolean>) clave.getRespuestaEsperada()
+                    (RespuestasVerdaderoFalso) evaluacion.getRespuesta(),
+                    (RespuestasVerdaderoFalso) clave
             );
             case ABIERTA -> calificarPreguntaAbierta(
                     (String) evaluacion.getRespuesta(),
-                    (String) clave.getRespuestaEsperada()
+                    (PatronRespuesta) clave
             );
         };
     }
 
-    private double calificarOpcionMultiple(List<Integer> respuestas, List<Integer> clave) {
-        int total = Math.min(respuestas.size(), clave.size());
-        int aciertos = 0;
-        for (int i = 0; i < total; i++) {
-            if (respuestas.get(i).equals(clave.get(i))) {
-                aciertos++;
-            }
-        }
-        return total == 0 ? 0.0 : (aciertos * 100.0) / total;
+    // Las respuestas empaquetadas se comparan con XOR y conteo de bits
+    private double calificarOpcionMultiple(RespuestasOpcionMultiple respuestas, RespuestasOpcionMultiple clave) {
+        int total = Math.min(respuestas.cantidad(), clave.cantidad());
+        return total == 0 ? 0.0 : (respuestas.contarAciertos(clave) * 100.0) / total;
     }
 
-    private double calificarVerdaderoFalso(List<Boolean> respuestas, List<Boolean> clave) {
-        int total = Math.min(respuestas.size(), clave.size());
-        int aciertos = 0;
-        for (int i = 0; i < total; i++) {
-            if (respuestas.get(i).equals(clave.get(i))) {
-                aciertos++;
-            }
-        }
-        return total == 0 ? 0.0 : (aciertos * 100.0) / total;
+    private double calificarVerdaderoFalso(RespuestasVerdaderoFalso respuestas, RespuestasVerdaderoFalso clave) {
+        int total = Math.min(respuestas.cantidad(), clave.cantidad());
+        return total == 0 ? 0.0 : (respuestas.contarAciertos(clave) * 100.0) / total;
     }
 
-    // Para preguntas abiertas se hace una comparación sencilla del contenido
-    private double calificarPreguntaAbierta(String respuesta, String clave) {
+    // Para preguntas abiertas se compara el contenido sin distinguir mayúsculas y sin copiar cadenas
+    private double calificarPreguntaAbierta(String respuesta, PatronRespuesta clave) {
         if (respuesta == null || respuesta.isBlank()) {
             return 0.0;
         }
-        if (respuesta.equalsIgnoreCase(clave)) {
+        if (clave.coincideCon(respuesta)) {
             return 100.0;
         }
-        return respuesta.toLowerCase().contains(clave.toLowerCase()) ? 70.0 : 40.0;
+        return clave.estaContenidoEn(respuesta) ? 70.0 : 40.0;
     }
 }
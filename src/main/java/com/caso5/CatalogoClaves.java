@@ -0,0 +1,76 @@
+package com.caso5;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Catálogo de claves de corrección compartidas entre evaluaciones.
+ * <p>
+ * Cada versión de examen se registra una sola vez y recibe un índice; las evaluaciones guardan
+ * ese índice en lugar de una clave propia, de modo que la memoria de claves depende de las
+ * versiones y no de la cantidad de entregas. Registrar dos veces la misma clave devuelve el mismo
+ * índice. Las claves de texto se guardan ya compiladas como {@link PatronRespuesta}.
+ */
+public class CatalogoClaves {
+
+    /**
+     * Índice de las evaluaciones que no referencian una clave del catálogo.
+     */
+    public static final int SIN_CLAVE = -1;
+
+    // Índice asignado a cada clave ya registrada (protegido por el candado del catálogo)
+    private final Map<Object, Integer> indicesPorClave = new HashMap<>();
+    // Claves listas para calificar, por índice; se lee sin candado
+    private volatile Object[] claves = new Object[16];
+    private int cantidad;
+
+    /**
+     * Registra una clave (o reutiliza la existente si ya estaba).
+     *
+     * @param respuestaEsperada respuestas de opción múltiple, verdadero/falso o texto modelo.
+     * @return índice de la clave en el catálogo.
+     */
+    public synchronized int registrar(Object respuestaEsperada) {
+        Objects.requireNonNull(respuestaEsperada, "La respuesta esperada no puede ser nula");
+        Integer existente = indicesPorClave.get(respuestaEsperada);
+        if (existente != null) {
+            return existente;
+        }
+        Object[] actuales = claves;
+        if (cantidad == actuales.length) {
+            actuales = Arrays.copyOf(actuales, cantidad * 2);
+        }
+        actuales[cantidad] = respuestaEsperada instanceof String texto ? new PatronRespuesta(texto) : respuestaEsperada;
+        claves = actuales;
+        indicesPorClave.put(respuestaEsperada, cantidad);
+        return cantidad++;
+    }
+
+    /**
+     * Devuelve la clave preparada para calificar.
+     *
+     * @throws IllegalArgumentException si el índice no corresponde a una clave registrada.
+     */
+    Object claveCompilada(int indice) {
+        Object[] actuales = claves;
+        Object clave = indice >= 0 && indice < actuales.length ? actuales[indice] : null;
+        if (clave == null) {
+            throw new IllegalArgumentException("No existe la clave " + indice + " en el catálogo");
+        }
+        return clave;
+    }
+
+    /**
+     * Devuelve la clave tal como se registró.
+     */
+    public Object respuestaEsperada(int indice) {
+        Object clave = claveCompilada(indice);
+        return clave instanceof PatronRespuesta patron ? patron.texto() : clave;
+    }
+
+    public synchronized int cantidad() {
+        return cantidad;
+    }
+}
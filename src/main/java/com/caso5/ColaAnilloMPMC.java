@@ -0,0 +1,286 @@
+package com.caso5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola FIFO acotada sobre un arreglo circular, sin bloqueos, para varios productores y consumidores.
+ * <p>
+ * Cada casilla guarda un número de secuencia que indica si está libre para el productor del turno
+ * o lista para el consumidor del turno. Productores y consumidores solo compiten con un CAS sobre
+ * su propio contador, por lo que el simulador puede encolar mientras los calificadores toman.
+ * <p>
+ * Opcionalmente cada casilla guarda también el instante en que se publicó, así quien toma un lote
+ * sabe cuánto esperó cada evaluación sin una tabla aparte que crezca con lo encolado.
+ */
+public class ColaAnilloMPMC implements ColaEvaluaciones {
+
+    // Pausa máxima al esperar espacio con la política BLOQUEAR
+    private static final long PAUSA_MAXIMA_NANOS = 1_000_000L;
+
+    // Casillas con las evaluaciones encoladas
+    private final AtomicReferenceArray<Evaluacion<?>> casillas;
+    // Turno esperado en cada casilla para publicar o consumir
+    private final AtomicLongArray secuencias;
+    // Máscara para convertir un turno en índice (la capacidad es potencia de dos)
+    private final int mascara;
+    // Política aplicada por encolar(Evaluacion) cuando la cola está llena
+    private final PoliticaColaLlena politicaPorDefecto;
+    // Siguiente turno de inserción
+    private final AtomicLong turnoCola = new AtomicLong();
+    // Siguiente turno de extracción
+    private final AtomicLong turnoCabeza = new AtomicLong();
+    // Instante de publicación de cada casilla (System.nanoTime); null si la cola no los marca.
+    // Se escribe antes de publicar la secuencia y se lee después de verla, como la casilla
+    private final long[] instantes;
+    // Una vez cerrada no acepta más evaluaciones
+    private volatile boolean cerrada;
+
+    /**
+     * Crea una cola que bloquea a los productores cuando se llena.
+     *
+     * @param capacidad espacio mínimo deseado; se redondea a la siguiente potencia de dos.
+     */
+    public ColaAnilloMPMC(int capacidad) {
+        this(capacidad, PoliticaColaLlena.BLOQUEAR);
+    }
+
+    /**
+     * @param capacidad          espacio mínimo deseado; se redondea a la siguiente potencia de dos.
+     * @param politicaPorDefecto comportamiento de {@link #encolar(Evaluacion)} cuando no hay espacio.
+     */
+    public ColaAnilloMPMC(int capacidad, PoliticaColaLlena politicaPorDefecto) {
+        this(capacidad, politicaPorDefecto, false);
+    }
+
+    /**
+     * @param capacidad          espacio mínimo deseado; se redondea a la siguiente potencia de dos.
+     * @param politicaPorDefecto comportamiento de {@link #encolar(Evaluacion)} cuando no hay espacio.
+     * @param marcarInstantes    si se guarda el instante de publicación de cada casilla para
+     *                           {@link #tomarLote(Evaluacion[], long[], int)}.
+     */
+    public ColaAnilloMPMC(int capacidad, PoliticaColaLlena politicaPorDefecto, boolean marcarInstantes) {
+        if (capacidad < 1 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("La capacidad debe estar entre 1 y 2^30");
+        }
+        int tamano = Integer.highestOneBit(capacidad);
+        if (tamano < capacidad) {
+            tamano <<= 1;
+        }
+        this.casillas = new AtomicReferenceArray<>(tamano);
+        this.secuencias = new AtomicLongArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            secuencias.set(i, i);
+        }
+        this.mascara = tamano - 1;
+        this.politicaPorDefecto = Objects.requireNonNull(politicaPorDefecto);
+        this.instantes = marcarInstantes ? new long[tamano] : null;
+    }
+
+    public int capacidad() {
+        return mascara + 1;
+    }
+
+    /**
+     * Inserta la evaluación aplicando la política por defecto si la cola está llena.
+     */
+    @Override
+    public void encolar(Evaluacion<?> evaluacion) {
+        encolar(evaluacion, politicaPorDefecto);
+    }
+
+    /**
+     * Inserta la evaluación con la política elegida por el productor.
+     *
+     * @throws IllegalStateException si la cola está llena con {@link PoliticaColaLlena#FALLAR},
+     *                               si se cierra o si el hilo se interrumpe mientras espera.
+     */
+    public void encolar(Evaluacion<?> evaluacion, PoliticaColaLlena politica) {
+        if (ofrecer(evaluacion)) {
+            return;
+        }
+        switch (politica) {
+            case FALLAR -> throw new IllegalStateException("La cola de corrección está llena");
+            case ESPERA_ACTIVA -> {
+                while (!ofrecer(evaluacion)) {
+                    Thread.onSpinWait();
+                }
+            }
+            case BLOQUEAR -> {
+                long pausa = 1_000L;
+                while (!ofrecer(evaluacion)) {
+                    LockSupport.parkNanos(pausa);
+                    if (Thread.interrupted()) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Se interrumpió la espera por espacio en la cola");
+                    }
+                    pausa = Math.min(pausa << 1, PAUSA_MAXIMA_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Intenta insertar sin esperar.
+     *
+     * @return {@code true} si se insertó; {@code false} si la cola estaba llena.
+     * @throws IllegalStateException si la cola está cerrada.
+     */
+    public boolean ofrecer(Evaluacion<?> evaluacion) {
+        Objects.requireNonNull(evaluacion);
+        if (cerrada) {
+            throw new IllegalStateException("La cola de corrección está cerrada");
+        }
+        long turno = turnoCola.get();
+        while (true) {
+            int indice = (int) turno & mascara;
+            long diferencia = secuencias.getAcquire(indice) - turno;
+            if (diferencia == 0) {
+                if (turnoCola.compareAndSet(turno, turno + 1)) {
+                    casillas.setPlain(indice, evaluacion);
+                    if (instantes != null) {
+                        instantes[indice] = System.nanoTime();
+                    }
+                    // Publica la casilla para el consumidor de este turno
+                    secuencias.setRelease(indice, turno + 1);
+                    return true;
+                }
+                turno = turnoCola.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                turno = turnoCola.get();
+            }
+        }
+    }
+
+    /**
+     * Rechaza los encolados siguientes; los productores que esperan espacio lo notan en su próximo
+     * intento y fallan. Lo ya encolado se puede seguir tomando.
+     */
+    public void cerrar() {
+        cerrada = true;
+    }
+
+    /**
+     * Obtiene la siguiente evaluación por corregir respetando FIFO.
+     */
+    @Override
+    public Optional<Evaluacion<?>> tomarSiguiente() {
+        return Optional.ofNullable(sondear());
+    }
+
+    /**
+     * Extrae la siguiente evaluación sin crear un {@link Optional}.
+     *
+     * @return evaluación extraída o {@code null} si la cola está vacía.
+     */
+    public Evaluacion<?> sondear() {
+        long turno = turnoCabeza.get();
+        while (true) {
+            int indice = (int) turno & mascara;
+            long diferencia = secuencias.getAcquire(indice) - (turno + 1);
+            if (diferencia == 0) {
+                if (turnoCabeza.compareAndSet(turno, turno + 1)) {
+                    Evaluacion<?> evaluacion = casillas.getPlain(indice);
+                    casillas.setPlain(indice, null);
+                    // Libera la casilla para el productor de la siguiente vuelta
+                    secuencias.setRelease(indice, turno + mascara + 1);
+                    return evaluacion;
+                }
+                turno = turnoCabeza.get();
+            } else if (diferencia < 0) {
+                return null;
+            } else {
+                turno = turnoCabeza.get();
+            }
+        }
+    }
+
+    /**
+     * Reserva con un único CAS todas las casillas publicadas consecutivas (hasta {@code maximo})
+     * y luego las copia al búfer.
+     */
+    @Override
+    public int tomarLote(Evaluacion<?>[] destino, int maximo) {
+        Objects.checkFromIndexSize(0, maximo, destino.length);
+        return tomar(destino, null, maximo);
+    }
+
+    /**
+     * Como {@link #tomarLote(Evaluacion[], int)}, y además deja en {@code instantesDestino} el
+     * instante en que se publicó cada evaluación tomada, en las mismas posiciones.
+     *
+     * @throws IllegalStateException si la cola se creó sin marcar instantes.
+     */
+    public int tomarLote(Evaluacion<?>[] destino, long[] instantesDestino, int maximo) {
+        if (instantes == null) {
+            throw new IllegalStateException("La cola no marca los instantes de publicación");
+        }
+        Objects.checkFromIndexSize(0, maximo, destino.length);
+        Objects.checkFromIndexSize(0, maximo, instantesDestino.length);
+        return tomar(destino, instantesDestino, maximo);
+    }
+
+    private int tomar(Evaluacion<?>[] destino, long[] instantesDestino, int maximo) {
+        while (true) {
+            long turno = turnoCabeza.get();
+            int listas = 0;
+            while (listas < maximo && listas <= mascara
+                    && secuencias.getAcquire((int) (turno + listas) & mascara) == turno + listas + 1) {
+                listas++;
+            }
+            if (listas == 0) {
+                if (turno == turnoCabeza.get()) {
+                    return 0;
+                }
+                continue;
+            }
+            if (turnoCabeza.compareAndSet(turno, turno + listas)) {
+                for (int i = 0; i < listas; i++) {
+                    long turnoCasilla = turno + i;
+                    int indice = (int) turnoCasilla & mascara;
+                    destino[i] = casillas.getPlain(indice);
+                    casillas.setPlain(indice, null);
+                    if (instantesDestino != null) {
+                        instantesDestino[i] = instantes[indice];
+                    }
+                    secuencias.setRelease(indice, turnoCasilla + mascara + 1);
+                }
+                return listas;
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si {@code maximo} es negativo.
+     */
+    @Override
+    public List<Evaluacion<?>> tomarLote(int maximo) {
+        if (maximo < 0) {
+            throw new IllegalArgumentException("El máximo del lote no puede ser negativo: " + maximo);
+        }
+        Evaluacion<?>[] lote = new Evaluacion<?>[Math.min(maximo, capacidad())];
+        int tomadas = tomarLote(lote, lote.length);
+        return new ArrayList<>(Arrays.asList(lote).subList(0, tomadas));
+    }
+
+    @Override
+    public int pendientes() {
+        long cabeza = turnoCabeza.get();
+        long cola = turnoCola.get();
+        return (int) Math.max(0, Math.min(cola - cabeza, capacidad()));
+    }
+
+    @Override
+    public boolean estaVacia() {
+        return pendientes() == 0;
+    }
+}
@@ -1,12 +1,16 @@
 package com.caso5;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Cola FIFO para el proceso de corrección.
+ * Sus operaciones están sincronizadas para que varios hilos puedan encolar y tomar a la vez.
  */
-public class ColaCorreccion {
+public class ColaCorreccion implements ColaEvaluaciones {
 
     // La LinkedList se usa como cola FIFO
     private final LinkedList<Evaluacion<?>> colaEvaluaciones = new LinkedList<>();
@@ -14,25 +18,61 @@ public class ColaCorreccion {
     /**
      * Inserta una evaluación al final de la cola.
      */
-    public void encolar(Evaluacion<?> evaluacion) {
+    @Override
+    public synchronized void encolar(Evaluacion<?> evaluacion) {
         colaEvaluaciones.addLast(evaluacion);
     }
 
+    /**
+     * Inserta el lote en una sola sección sincronizada.
+     */
+    @Override
+    public synchronized void encolarLote(Evaluacion<?>[] lote, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            colaEvaluaciones.addLast(lote[i]);
+        }
+    }
+
     /**
      * Obtiene la siguiente evaluación por corregir respetando FIFO.
      */
-    public Optional<Evaluacion<?>> tomarSiguiente() {
+    @Override
+    public synchronized Optional<Evaluacion<?>> tomarSiguiente() {
         if (colaEvaluaciones.isEmpty()) {
             return Optional.empty();
         }
         return Optional.of(colaEvaluaciones.removeFirst());
     }
 
-    public int pendientes() {
+    /**
+     * Extrae un lote en una sola sección sincronizada.
+     */
+    @Override
+    public synchronized int tomarLote(Evaluacion<?>[] destino, int maximo) {
+        Objects.checkFromIndexSize(0, maximo, destino.length);
+        int tomadas = 0;
+        while (tomadas < maximo && !colaEvaluaciones.isEmpty()) {
+            destino[tomadas++] = colaEvaluaciones.removeFirst();
+        }
+        return tomadas;
+    }
+
+    @Override
+    public synchronized List<Evaluacion<?>> tomarLote(int maximo) {
+        List<Evaluacion<?>> lote = new ArrayList<>(Math.min(maximo, colaEvaluaciones.size()));
+        while (lote.size() < maximo && !colaEvaluaciones.isEmpty()) {
+            lote.add(colaEvaluaciones.removeFirst());
+        }
+        return lote;
+    }
+
+    @Override
+    public synchronized int pendientes() {
         return colaEvaluaciones.size();
     }
 
-    public boolean estaVacia() {
+    @Override
+    public synchronized boolean estaVacia() {
         return colaEvaluaciones.isEmpty();
     }
 }
@@ -0,0 +1,49 @@
+package com.caso5;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones comunes de las colas FIFO que alimentan el proceso de corrección.
+ */
+public interface ColaEvaluaciones {
+
+    /**
+     * Inserta una evaluación al final de la cola.
+     */
+    void encolar(Evaluacion<?> evaluacion);
+
+    /**
+     * Inserta al final de la cola las primeras {@code cantidad} evaluaciones del lote, en orden.
+     */
+    default void encolarLote(Evaluacion<?>[] lote, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            encolar(lote[i]);
+        }
+    }
+
+    /**
+     * Obtiene la siguiente evaluación por corregir respetando FIFO.
+     */
+    Optional<Evaluacion<?>> tomarSiguiente();
+
+    /**
+     * Extrae hasta {@code maximo} evaluaciones en orden FIFO y las copia al inicio del búfer.
+     *
+     * @param destino búfer reutilizable donde se dejan las evaluaciones.
+     * @param maximo  cantidad máxima a extraer, no mayor que el largo del búfer.
+     * @return cantidad de evaluaciones copiadas; cero si la cola estaba vacía.
+     */
+    int tomarLote(Evaluacion<?>[] destino, int maximo);
+
+    /**
+     * Extrae hasta {@code maximo} evaluaciones en orden FIFO.
+     *
+     * @return lista con las evaluaciones extraídas, vacía si no había pendientes.
+     */
+    List<Evaluacion<?>> tomarLote(int maximo);
+
+    int pendientes();
+
+    boolean estaVacia();
+}
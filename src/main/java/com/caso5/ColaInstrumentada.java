@@ -0,0 +1,63 @@
+package com.caso5;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cola que delega en otra y cuenta las evaluaciones que entran y salen.
+ */
+final class ColaInstrumentada implements ColaEvaluaciones {
+
+    private final ColaEvaluaciones cola;
+    private final MetricasCalificacion metricas;
+
+    ColaInstrumentada(ColaEvaluaciones cola, MetricasCalificacion metricas) {
+        this.cola = cola;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public void encolar(Evaluacion<?> evaluacion) {
+        cola.encolar(evaluacion);
+        metricas.contarEncoladas(1);
+    }
+
+    @Override
+    public void encolarLote(Evaluacion<?>[] lote, int cantidad) {
+        cola.encolarLote(lote, cantidad);
+        metricas.contarEncoladas(cantidad);
+    }
+
+    @Override
+    public Optional<Evaluacion<?>> tomarSiguiente() {
+        Optional<Evaluacion<?>> siguiente = cola.tomarSiguiente();
+        if (siguiente.isPresent()) {
+            metricas.contarDesencoladas(1);
+        }
+        return siguiente;
+    }
+
+    @Override
+    public int tomarLote(Evaluacion<?>[] destino, int maximo) {
+        int tomadas = cola.tomarLote(destino, maximo);
+        metricas.contarDesencoladas(tomadas);
+        return tomadas;
+    }
+
+    @Override
+    public List<Evaluacion<?>> tomarLote(int maximo) {
+        List<Evaluacion<?>> lote = cola.tomarLote(maximo);
+        metricas.contarDesencoladas(lote.size());
+        return lote;
+    }
+
+    @Override
+    public int pendientes() {
+        return cola.pendientes();
+    }
+
+    @Override
+    public boolean estaVacia() {
+        return cola.estaVacia();
+    }
+}
@@ -0,0 +1,79 @@
+package com.caso5;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de nombres de estudiante: asigna a cada nombre distinto un código entero compacto
+ * (0, 1, 2...) y guarda una sola instancia del nombre para la búsqueda inversa.
+ * <p>
+ * Los repositorios e índices guardan el código en lugar de la cadena, y las entradas manuales o
+ * importadas reemplazan su cadena recién leída por la instancia canónica con {@link #canonico},
+ * así un estudiante con miles de evaluaciones ocupa un solo {@code String}. Codificar un nombre ya
+ * visto es una lectura de un {@link ConcurrentHashMap} sin candado; solo los nombres nuevos se
+ * serializan.
+ */
+public final class DiccionarioEstudiantes {
+
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+    // Nombres por código; se reemplaza al crecer y las casillas se escriben antes de publicar el código
+    private volatile String[] nombres = new String[64];
+    private int cantidad;
+
+    /**
+     * Devuelve el código del nombre, asignándole uno nuevo si no estaba.
+     */
+    public int codificar(String nombre) {
+        Integer codigo = codigos.get(nombre);
+        return codigo != null ? codigo : agregar(nombre);
+    }
+
+    private synchronized int agregar(String nombre) {
+        Integer existente = codigos.get(Objects.requireNonNull(nombre));
+        if (existente != null) {
+            return existente;
+        }
+        String[] actuales = nombres;
+        if (cantidad == actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length * 2);
+        }
+        int codigo = cantidad++;
+        actuales[codigo] = nombre;
+        nombres = actuales;
+        codigos.put(nombre, codigo);
+        return codigo;
+    }
+
+    /**
+     * @return código del nombre, o -1 si nunca se codificó.
+     */
+    public int buscar(String nombre) {
+        Integer codigo = codigos.get(nombre);
+        return codigo == null ? -1 : codigo;
+    }
+
+    /**
+     * Nombre de un código devuelto por este diccionario.
+     */
+    public String nombre(int codigo) {
+        String[] actuales = nombres;
+        String nombre = codigo < actuales.length ? actuales[codigo] : null;
+        if (nombre == null) {
+            throw new IllegalArgumentException("Código de estudiante desconocido: " + codigo);
+        }
+        return nombre;
+    }
+
+    /**
+     * Instancia única del nombre; la cadena recibida se descarta si el nombre ya existía.
+     */
+    public String canonico(String nombre) {
+        return nombre(codificar(nombre));
+    }
+
+    public synchronized int cantidad() {
+        return cantidad;
+    }
+}
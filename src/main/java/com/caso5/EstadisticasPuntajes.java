@@ -0,0 +1,304 @@
+package com.caso5;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Estadísticas de puntajes que se mantienen al calificar, por estudiante, por tipo y en total.
+ * <p>
+ * Cada partición guarda cantidad, suma, mínimo, máximo y un histograma de 101 cubetas de un punto
+ * (la última solo para el 100). Las cubetas sirven de resumen de cuantiles combinable: la mediana o
+ * cualquier percentil se estiman recorriendo 101 contadores, con error menor a un punto, así cada
+ * consulta cuesta lo mismo sin importar cuántas evaluaciones haya, y dos particiones se combinan
+ * sumando cubetas.
+ * <p>
+ * Una recalificación descuenta el puntaje anterior. El mínimo y el máximo son exactos mientras no
+ * se descuente un extremo; si se descuenta, se acotan con la cubeta ocupada más baja o más alta
+ * (error menor a un punto).
+ * <p>
+ * Las particiones por estudiante están en un arreglo indexado por el código del
+ * {@link DiccionarioEstudiantes}, así cada calificación ubica la suya sin dispersar el nombre.
+ * Varias instancias pueden compartir el diccionario, porque codificar un nombre ya visto no toma
+ * candado. Así las estadísticas de cada partición se llenan sin esperarse entre sí y luego se
+ * suman con {@link #combinar}.
+ */
+public class EstadisticasPuntajes implements OyenteCalificacion {
+
+    // Una cubeta por punto entero de 0 a 99 y otra para el 100
+    static final int CUBETAS = 101;
+
+    /**
+     * Estadísticas de una partición en un momento dado.
+     *
+     * @param cantidad evaluaciones calificadas.
+     * @param promedio {@link Double#NaN} si no hay evaluaciones, igual que los demás valores.
+     * @param p50      mediana estimada con el histograma.
+     */
+    public record Resumen(
+            long cantidad,
+            double suma,
+            double promedio,
+            double minimo,
+            double maximo,
+            double p50,
+            double p90,
+            double p99
+    ) {
+    }
+
+    private final Acumulado total = new Acumulado();
+    private final Acumulado[] porTipo = new Acumulado[TipoEvaluacion.values().length];
+    private final DiccionarioEstudiantes diccionario;
+    // Partición por código de estudiante; null para los códigos sin evaluaciones calificadas
+    private Acumulado[] porEstudiante = new Acumulado[64];
+    private int estudiantes;
+
+    public EstadisticasPuntajes() {
+        this(new DiccionarioEstudiantes());
+    }
+
+    /**
+     * @param diccionario diccionario que asigna los códigos; puede compartirse con el repositorio.
+     */
+    public EstadisticasPuntajes(DiccionarioEstudiantes diccionario) {
+        this.diccionario = diccionario;
+        for (int i = 0; i < porTipo.length; i++) {
+            porTipo[i] = new Acumulado();
+        }
+    }
+
+    @Override
+    public synchronized void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+        aplicar(evaluacion, puntajeAnterior);
+    }
+
+    /**
+     * Aplica todo el lote con una sola adquisición del candado.
+     */
+    @Override
+    public synchronized void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            aplicar(lote[i], anteriores[i]);
+        }
+    }
+
+    private void aplicar(Evaluacion<?> evaluacion, double puntajeAnterior) {
+        if (!evaluacion.estaCalificada()) {
+            return;
+        }
+        double puntaje = evaluacion.getPuntaje();
+        Acumulado tipo = porTipo[evaluacion.getTipo().ordinal()];
+        Acumulado estudiante = particion(diccionario.codificar(evaluacion.getEstudiante()));
+        if (!Double.isNaN(puntajeAnterior)) {
+            total.quitar(puntajeAnterior);
+            tipo.quitar(puntajeAnterior);
+            estudiante.quitar(puntajeAnterior);
+        }
+        total.agregar(puntaje);
+        tipo.agregar(puntaje);
+        estudiante.agregar(puntaje);
+    }
+
+    private Acumulado particion(int codigo) {
+        if (codigo >= porEstudiante.length) {
+            porEstudiante = Arrays.copyOf(porEstudiante, Math.max(porEstudiante.length * 2, codigo + 1));
+        }
+        Acumulado acumulado = porEstudiante[codigo];
+        if (acumulado == null) {
+            acumulado = new Acumulado();
+            porEstudiante[codigo] = acumulado;
+            estudiantes++;
+        }
+        return acumulado;
+    }
+
+    private Acumulado buscar(String estudiante) {
+        int codigo = diccionario.buscar(estudiante);
+        return codigo >= 0 && codigo < porEstudiante.length ? porEstudiante[codigo] : null;
+    }
+
+    /**
+     * Suma las particiones de otro índice a este, por ejemplo el de otro proceso o de otra partición.
+     */
+    public void combinar(EstadisticasPuntajes otro) {
+        if (otro == this) {
+            throw new IllegalArgumentException("No se puede combinar consigo mismo");
+        }
+        Acumulado copiaTotal = new Acumulado();
+        Acumulado[] copiaTipos = new Acumulado[porTipo.length];
+        String[] nombres;
+        Acumulado[] copiaEstudiantes;
+        synchronized (otro) {
+            copiaTotal.combinar(otro.total);
+            for (int i = 0; i < copiaTipos.length; i++) {
+                copiaTipos[i] = new Acumulado();
+                copiaTipos[i].combinar(otro.porTipo[i]);
+            }
+            // Los códigos del otro pueden ser de otro diccionario: se llevan por nombre
+            nombres = new String[otro.estudiantes];
+            copiaEstudiantes = new Acumulado[otro.estudiantes];
+            int copiados = 0;
+            for (int codigo = 0; codigo < otro.porEstudiante.length; codigo++) {
+                if (otro.porEstudiante[codigo] != null) {
+                    nombres[copiados] = otro.diccionario.nombre(codigo);
+                    copiaEstudiantes[copiados] = new Acumulado();
+                    copiaEstudiantes[copiados].combinar(otro.porEstudiante[codigo]);
+                    copiados++;
+                }
+            }
+        }
+        synchronized (this) {
+            total.combinar(copiaTotal);
+            for (int i = 0; i < porTipo.length; i++) {
+                porTipo[i].combinar(copiaTipos[i]);
+            }
+            for (int i = 0; i < nombres.length; i++) {
+                particion(diccionario.codificar(nombres[i])).combinar(copiaEstudiantes[i]);
+            }
+        }
+    }
+
+    public synchronized Resumen total() {
+        return total.resumen();
+    }
+
+    public synchronized Resumen porTipo(TipoEvaluacion tipo) {
+        return porTipo[tipo.ordinal()].resumen();
+    }
+
+    /**
+     * @return resumen del estudiante, o {@code null} si no tiene evaluaciones calificadas.
+     */
+    public synchronized Resumen porEstudiante(String estudiante) {
+        Acumulado acumulado = buscar(estudiante);
+        return acumulado == null ? null : acumulado.resumen();
+    }
+
+    /**
+     * Copia del histograma del estudiante: posición {@code i} cuenta los puntajes en [i, i + 1).
+     *
+     * @return arreglo de 101 conteos, vacío si no tiene evaluaciones calificadas.
+     */
+    public synchronized long[] histogramaEstudiante(String estudiante) {
+        Acumulado acumulado = buscar(estudiante);
+        return acumulado == null ? new long[CUBETAS] : acumulado.conteos.clone();
+    }
+
+    public synchronized long[] histogramaTipo(TipoEvaluacion tipo) {
+        return porTipo[tipo.ordinal()].conteos.clone();
+    }
+
+    /**
+     * Estudiantes con al menos una evaluación calificada, en orden alfabético.
+     */
+    public synchronized Set<String> estudiantes() {
+        Set<String> nombres = new TreeSet<>();
+        for (int codigo = 0; codigo < porEstudiante.length; codigo++) {
+            if (porEstudiante[codigo] != null) {
+                nombres.add(diccionario.nombre(codigo));
+            }
+        }
+        return nombres;
+    }
+
+    public synchronized int cantidadEstudiantes() {
+        return estudiantes;
+    }
+
+    /**
+     * Cantidad, suma, extremos e histograma de una partición.
+     */
+    private static final class Acumulado {
+
+        private final long[] conteos = new long[CUBETAS];
+        private long cantidad;
+        private double suma;
+        private double minimo = Double.POSITIVE_INFINITY;
+        private double maximo = Double.NEGATIVE_INFINITY;
+
+        private void agregar(double puntaje) {
+            conteos[cubeta(puntaje)]++;
+            cantidad++;
+            suma += puntaje;
+            minimo = Math.min(minimo, puntaje);
+            maximo = Math.max(maximo, puntaje);
+        }
+
+        private void quitar(double puntaje) {
+            int cubeta = cubeta(puntaje);
+            if (conteos[cubeta] == 0) {
+                return;
+            }
+            conteos[cubeta]--;
+            cantidad--;
+            suma -= puntaje;
+            if (cantidad == 0) {
+                suma = 0.0;
+                minimo = Double.POSITIVE_INFINITY;
+                maximo = Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        private void combinar(Acumulado otro) {
+            for (int i = 0; i < CUBETAS; i++) {
+                conteos[i] += otro.conteos[i];
+            }
+            cantidad += otro.cantidad;
+            suma += otro.suma;
+            minimo = Math.min(minimo, otro.minimo);
+            maximo = Math.max(maximo, otro.maximo);
+        }
+
+        private Resumen resumen() {
+            if (cantidad == 0) {
+                return new Resumen(0, 0.0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+            }
+            double menor = minimo();
+            double mayor = maximo();
+            return new Resumen(cantidad, suma, suma / cantidad, menor, mayor,
+                    percentil(50, menor, mayor), percentil(90, menor, mayor), percentil(99, menor, mayor));
+        }
+
+        /**
+         * El mínimo registrado nunca supera al real; la cubeta ocupada más baja tampoco.
+         */
+        private double minimo() {
+            int cubeta = 0;
+            while (conteos[cubeta] == 0) {
+                cubeta++;
+            }
+            return Math.max(minimo, cubeta);
+        }
+
+        private double maximo() {
+            int cubeta = CUBETAS - 1;
+            while (conteos[cubeta] == 0) {
+                cubeta--;
+            }
+            return Math.min(maximo, cubeta == CUBETAS - 1 ? 100.0 : cubeta + 1.0);
+        }
+
+        /**
+         * Interpola dentro de la cubeta que contiene el percentil y lo acota a los extremos.
+         */
+        private double percentil(double percentil, double menor, double mayor) {
+            double rango = percentil / 100.0 * cantidad;
+            long acumulado = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                long conteo = conteos[i];
+                if (conteo > 0 && acumulado + conteo >= rango) {
+                    double fraccion = (rango - acumulado) / conteo;
+                    double ancho = i == CUBETAS - 1 ? 0.0 : 1.0;
+                    return Math.min(mayor, Math.max(menor, i + fraccion * ancho));
+                }
+                acumulado += conteo;
+            }
+            return mayor;
+        }
+    }
+
+    private static int cubeta(double puntaje) {
+        return (int) Math.min(CUBETAS - 1, Math.max(0.0, puntaje));
+    }
+}
@@ -1,5 +1,7 @@
 package com.caso5;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -10,26 +12,50 @@ import java.util.UUID;
  */
 public class Evaluacion<T> {
 
+    // Acceso atómico al puntaje para leer el anterior y escribir el nuevo en un solo paso
+    private static final VarHandle PUNTAJE;
+
+    static {
+        try {
+            PUNTAJE = MethodHandles.lookup().findVarHandle(Evaluacion.class, "puntaje", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // Identificador único de la evaluación
     private final UUID id;
     // Nombre del estudiante que presenta la evaluación
     private final String estudiante;
     // Tipo de evaluación (OM, VF o ABIERTA)
     private final TipoEvaluacion tipo;
-    // Respuesta entregada, puede ser lista, booleanos o texto
+    // Respuesta entregada: RespuestasOpcionMultiple (OM) o RespuestasVerdaderoFalso (VF), ambas en bits, o texto (ABIERTA)
     private final T respuesta;
     // Posición en la que llegó la evaluación, útil para desempatar
     private final long ordenLlegada;
-    // Puntaje calculado tras la corrección
-    private double puntaje;
+    // Índice de la clave en el CatalogoClaves, o CatalogoClaves.SIN_CLAVE si la clave se registró aparte
+    private final int indiceClave;
+    // Puntaje calculado tras la corrección; NaN mientras no se haya calificado.
+    // Es volatile porque lo escriben los hilos calificadores
+    private volatile double puntaje;
 
     public Evaluacion(UUID id, String estudiante, TipoEvaluacion tipo, T respuesta, long ordenLlegada) {
+        this(id, estudiante, tipo, respuesta, ordenLlegada, CatalogoClaves.SIN_CLAVE);
+    }
+
+    /**
+     * Crea una evaluación que se califica con una clave compartida del catálogo.
+     *
+     * @param indiceClave índice devuelto por {@link CatalogoClaves#registrar(Object)}.
+     */
+    public Evaluacion(UUID id, String estudiante, TipoEvaluacion tipo, T respuesta, long ordenLlegada, int indiceClave) {
         this.id = Objects.requireNonNull(id);
         this.estudiante = Objects.requireNonNull(estudiante);
         this.tipo = Objects.requireNonNull(tipo);
         this.respuesta = Objects.requireNonNull(respuesta);
         this.ordenLlegada = ordenLlegada;
-        this.puntaje = 0.0;
+        this.indiceClave = indiceClave;
+        this.puntaje = Double.NaN;
     }
 
     public UUID getId() {
@@ -48,20 +74,33 @@ public class Evaluacion<T> {
         return respuesta;
     }
 
+    /**
+     * @return puntaje obtenido, o 0 si aún no se ha calificado.
+     */
     public double getPuntaje() {
-        return puntaje;
+        double actual = puntaje;
+        return Double.isNaN(actual) ? 0.0 : actual;
+    }
+
+    public boolean estaCalificada() {
+        return !Double.isNaN(puntaje);
     }
 
     public long getOrdenLlegada() {
         return ordenLlegada;
     }
 
+    public int getIndiceClave() {
+        return indiceClave;
+    }
+
     /**
      * Registra el puntaje obtenido tras la corrección.
      *
      * @param puntaje valor entre 0 y 100.
+     * @return puntaje anterior, o {@link Double#NaN} si es la primera calificación.
      */
-    public void actualizarPuntaje(double puntaje) {
-        this.puntaje = puntaje;
+    public double actualizarPuntaje(double puntaje) {
+        return (double) PUNTAJE.getAndSet(this, puntaje);
     }
 }
\ No newline at end of file
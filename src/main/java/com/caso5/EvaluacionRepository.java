@@ -3,22 +3,25 @@ package com.caso5;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 /**
  * Repositorio en memoria para almacenar y consultar evaluaciones.
+ * El registro y la búsqueda están sincronizados para admitir varios hilos de ingesta.
  */
-public class EvaluacionRepository {
+public class EvaluacionRepository implements AlmacenEvaluaciones {
 
-    // Almacena las evaluaciones con acceso O(1) conservando orden de inserción
-    private final Map<UUID, Evaluacion<?>> mapaEvaluaciones = new LinkedHashMap<>();
-    // Registra los identificadores para impedir duplicados
-    private final Set<UUID> registroIdentificadores = new HashSet<>();
+    // Bytes aproximados por entrada: nodo de HashMap (32) + casilla de la tabla con carga 0.75 (~6)
+    // + casilla de la lista con crecimiento de 1.5 (~6)
+    private static final long BYTES_POR_ENTRADA = 44L;
+
+    // Almacena las evaluaciones con acceso O(1); sus claves también sirven para impedir duplicados
+    private final Map<UUID, Evaluacion<?>> mapaEvaluaciones = new HashMap<>();
+    // Orden de inserción con acceso por posición, para paginar sin recorrer desde el inicio
+    private final List<Evaluacion<?>> listaEvaluaciones = new ArrayList<>();
 
     /**
      * Registra una nueva evaluación. Ignora duplicados.
@@ -26,33 +29,56 @@ public class EvaluacionRepository {
      * @param evaluacion evaluación a registrar.
      * @return {@code true} si la evaluación fue agregada; {@code false} si el identificador ya existía.
      */
-    public boolean registrar(Evaluacion<?> evaluacion) {
-        UUID identificador = evaluacion.getId();
-        if (registroIdentificadores.contains(identificador)) {
+    @Override
+    public synchronized boolean registrar(Evaluacion<?> evaluacion) {
+        // Una sola operación detecta el duplicado e inserta
+        if (mapaEvaluaciones.putIfAbsent(evaluacion.getId(), evaluacion) != null) {
             return false;
         }
-        registroIdentificadores.add(identificador);
-        mapaEvaluaciones.put(identificador, evaluacion);
+        listaEvaluaciones.add(evaluacion);
         return true;
     }
 
+    /**
+     * En este repositorio la instancia almacenada es la misma que se recibe.
+     */
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        return registrar(evaluacion) ? evaluacion : null;
+    }
+
     /**
      * Busca una evaluación por su identificador.
      *
      * @param identificador identificador único.
      * @return evaluación encontrada o {@code null} si no existe.
      */
-    public Evaluacion<?> buscar(UUID identificador) {
+    @Override
+    public synchronized Evaluacion<?> buscar(UUID identificador) {
         return mapaEvaluaciones.get(identificador);
     }
 
     /**
      * Devuelve una copia inmutable de todas las evaluaciones registradas.
+     * La vista no debe recorrerse mientras otros hilos siguen registrando.
      *
      * @return colección inmutable de evaluaciones.
      */
+    @Override
     public Collection<Evaluacion<?>> listarTodas() {
-        return Collections.unmodifiableCollection(mapaEvaluaciones.values());
+        return Collections.unmodifiableList(listaEvaluaciones);
+    }
+
+    /**
+     * La página se copia de la lista en orden de inserción con acceso directo a la posición.
+     */
+    @Override
+    public synchronized PaginaEvaluaciones paginar(String cursor, int tamano) {
+        int desde = Math.min(PaginaEvaluaciones.leerPosicion(cursor), listaEvaluaciones.size());
+        PaginaEvaluaciones.validarTamano(tamano);
+        int hasta = (int) Math.min(listaEvaluaciones.size(), (long) desde + tamano);
+        return PaginaEvaluaciones.porPosicion(
+                new ArrayList<>(listaEvaluaciones.subList(desde, hasta)), hasta, listaEvaluaciones.size());
     }
 
     /**
@@ -60,8 +86,28 @@ public class EvaluacionRepository {
      *
      * @return lista con las evaluaciones almacenadas.
      */
-    public List<Evaluacion<?>> copiarComoLista() {
-        return new ArrayList<>(mapaEvaluaciones.values());
+    @Override
+    public synchronized List<Evaluacion<?>> copiarComoLista() {
+        return new ArrayList<>(listaEvaluaciones);
+    }
+
+    @Override
+    public synchronized int cantidad() {
+        return mapaEvaluaciones.size();
+    }
+
+    /**
+     * Estima los bytes que ocupa el índice de identificadores, sin contar los UUID ni las evaluaciones.
+     * Antes cada identificador también vivía en un {@code HashSet}, que sumaba otro nodo
+     * de {@code HashMap} (32 bytes) y otra casilla de tabla (~6 bytes) por evaluación.
+     * El orden de inserción se guarda en una lista aparte en lugar de los enlaces de un
+     * {@code LinkedHashMap}, que costaban 8 bytes más por nodo.
+     *
+     * @return bytes aproximados del mapa principal.
+     */
+    @Override
+    public synchronized long estimarBytes() {
+        return mapaEvaluaciones.size() * BYTES_POR_ENTRADA;
     }
 }
 
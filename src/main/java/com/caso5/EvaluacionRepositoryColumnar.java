@@ -0,0 +1,359 @@
+package com.caso5;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Repositorio en memoria que guarda las evaluaciones por columnas de arreglos primitivos.
+ * <p>
+ * En lugar de un objeto {@link Evaluacion} por fila, cada atributo vive en su propio arreglo:
+ * el UUID como dos {@code long}, el puntaje como {@code double}, el tipo como {@code byte}, el
+ * estudiante como código de un {@link DiccionarioEstudiantes} y la clave como índice al
+ * {@link CatalogoClaves}. Las columnas se reservan por segmentos de tamaño fijo que nunca se
+ * copian al crecer, así los hilos calificadores pueden escribir puntajes mientras se siguen
+ * registrando filas. Un índice de direccionamiento abierto resuelve {@link #buscar(UUID)} sin
+ * objetos por entrada.
+ * <p>
+ * {@link #buscar(UUID)} y {@link #listarTodas()} devuelven vistas livianas: leer o actualizar el
+ * puntaje de una vista lee o escribe directamente la columna. Las vistas y los recorridos leen los
+ * arreglos externos tomados bajo el candado junto con la cantidad de filas, nunca los campos.
+ */
+public class EvaluacionRepositoryColumnar implements AlmacenEvaluaciones {
+
+    // Filas por segmento (2^14)
+    private static final int BITS_SEGMENTO = 14;
+    private static final int FILAS_POR_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = FILAS_POR_SEGMENTO - 1;
+    // Tipos indexados por su código en la columna de tipos
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+    // Acceso atómico a una casilla de puntaje, igual que el campo de Evaluacion
+    private static final VarHandle PUNTAJE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // Columnas segmentadas; el arreglo externo crece, los segmentos no se mueven.
+    // Los campos solo se leen con el candado; fuera de él se usa una captura de Columnas
+    private long[][] idsAltos = new long[0][];
+    private long[][] idsBajos = new long[0][];
+    private long[][] ordenesLlegada = new long[0][];
+    private double[][] puntajes = new double[0][];
+    private byte[][] tipos = new byte[0][];
+    private int[][] estudiantes = new int[0][];
+    private Object[][] respuestas = new Object[0][];
+    private int[][] indicesClave = new int[0][];
+    // Filas ocupadas
+    private volatile int cantidad;
+
+    // Tabla de nombres: cada estudiante se guarda una sola vez
+    private final DiccionarioEstudiantes diccionario;
+
+    // Índice hash de identificadores: guarda fila + 1 (0 = casilla libre)
+    private int[] tablaIndice = new int[1 << 10];
+
+    public EvaluacionRepositoryColumnar() {
+        this(new DiccionarioEstudiantes());
+    }
+
+    /**
+     * @param diccionario tabla de nombres, que puede compartirse con otros índices.
+     */
+    public EvaluacionRepositoryColumnar(DiccionarioEstudiantes diccionario) {
+        this.diccionario = diccionario;
+    }
+
+    public DiccionarioEstudiantes getDiccionario() {
+        return diccionario;
+    }
+
+    @Override
+    public synchronized boolean registrar(Evaluacion<?> evaluacion) {
+        return agregarFila(evaluacion) >= 0;
+    }
+
+    @Override
+    public synchronized Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        int fila = agregarFila(evaluacion);
+        return fila < 0 ? null : new Vista(capturar(), fila);
+    }
+
+    /**
+     * Almacena el lote tomando el candado una sola vez.
+     */
+    @Override
+    public synchronized int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        // Las filas nuevas quedan contiguas desde la primera, en el orden del lote
+        int primera = this.cantidad;
+        int almacenadas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (agregarFila(lote[i]) >= 0) {
+                almacenadas++;
+            }
+        }
+        Columnas columnas = capturar();
+        for (int i = 0; i < almacenadas; i++) {
+            lote[i] = new Vista(columnas, primera + i);
+        }
+        return almacenadas;
+    }
+
+    @Override
+    public synchronized Evaluacion<?> buscar(UUID identificador) {
+        int fila = buscarFila(identificador.getMostSignificantBits(), identificador.getLeastSignificantBits());
+        return fila < 0 ? null : new Vista(capturar(), fila);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura que materializa cada fila al recorrerla. Recorre las filas
+     * que había al llamar, aunque el recorrido ocurra en otro hilo mientras se siguen agregando.
+     */
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        Columnas columnas;
+        synchronized (this) {
+            columnas = capturar();
+        }
+        int total = columnas.cantidad();
+        return Collections.unmodifiableCollection(new AbstractCollection<>() {
+            @Override
+            public Iterator<Evaluacion<?>> iterator() {
+                return new Iterator<>() {
+                    private int fila;
+
+                    @Override
+                    public boolean hasNext() {
+                        return fila < total;
+                    }
+
+                    @Override
+                    public Evaluacion<?> next() {
+                        if (fila >= total) {
+                            throw new NoSuchElementException();
+                        }
+                        return new Vista(columnas, fila++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return total;
+            }
+        });
+    }
+
+    /**
+     * Las filas están en orden de inserción: la página materializa solo sus vistas.
+     */
+    @Override
+    public synchronized PaginaEvaluaciones paginar(String cursor, int tamano) {
+        int desde = Math.min(PaginaEvaluaciones.leerPosicion(cursor), cantidad);
+        PaginaEvaluaciones.validarTamano(tamano);
+        int hasta = (int) Math.min(cantidad, (long) desde + tamano);
+        List<Evaluacion<?>> pagina = new ArrayList<>(hasta - desde);
+        Columnas columnas = capturar();
+        for (int fila = desde; fila < hasta; fila++) {
+            pagina.add(new Vista(columnas, fila));
+        }
+        return PaginaEvaluaciones.porPosicion(pagina, hasta, cantidad);
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return new ArrayList<>(listarTodas());
+    }
+
+    @Override
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Estima los bytes ocupados por las columnas y el índice, sin contar las respuestas.
+     */
+    @Override
+    public synchronized long estimarBytes() {
+        // 2 ids + orden + puntaje (8 bytes c/u), tipo (1), estudiante (4), referencia a respuesta (4), clave (4)
+        long porFila = 8L * 4 + 1 + 4 + 4 + 4;
+        return (long) idsAltos.length * FILAS_POR_SEGMENTO * porFila + 4L * tablaIndice.length;
+    }
+
+    // Requiere el candado
+    private Columnas capturar() {
+        return new Columnas(idsAltos, idsBajos, ordenesLlegada, puntajes, tipos, estudiantes, respuestas, indicesClave,
+                cantidad);
+    }
+
+    // Copia la evaluación a las columnas; devuelve la fila o -1 si el id ya existía
+    private int agregarFila(Evaluacion<?> evaluacion) {
+        UUID id = evaluacion.getId();
+        long alto = id.getMostSignificantBits();
+        long bajo = id.getLeastSignificantBits();
+        if (buscarFila(alto, bajo) >= 0) {
+            return -1;
+        }
+        int fila = cantidad;
+        int segmento = fila >>> BITS_SEGMENTO;
+        if (segmento == idsAltos.length) {
+            agregarSegmento();
+        }
+        int posicion = fila & MASCARA_SEGMENTO;
+        idsAltos[segmento][posicion] = alto;
+        idsBajos[segmento][posicion] = bajo;
+        ordenesLlegada[segmento][posicion] = evaluacion.getOrdenLlegada();
+        // NaN marca las filas que aún no se califican
+        puntajes[segmento][posicion] = evaluacion.estaCalificada() ? evaluacion.getPuntaje() : Double.NaN;
+        tipos[segmento][posicion] = (byte) evaluacion.getTipo().ordinal();
+        estudiantes[segmento][posicion] = diccionario.codificar(evaluacion.getEstudiante());
+        respuestas[segmento][posicion] = evaluacion.getRespuesta();
+        indicesClave[segmento][posicion] = evaluacion.getIndiceClave();
+        indexar(alto, bajo, fila);
+        cantidad = fila + 1;
+        return fila;
+    }
+
+    private void agregarSegmento() {
+        int nuevos = idsAltos.length + 1;
+        idsAltos = Arrays.copyOf(idsAltos, nuevos);
+        idsBajos = Arrays.copyOf(idsBajos, nuevos);
+        ordenesLlegada = Arrays.copyOf(ordenesLlegada, nuevos);
+        puntajes = Arrays.copyOf(puntajes, nuevos);
+        tipos = Arrays.copyOf(tipos, nuevos);
+        estudiantes = Arrays.copyOf(estudiantes, nuevos);
+        respuestas = Arrays.copyOf(respuestas, nuevos);
+        indicesClave = Arrays.copyOf(indicesClave, nuevos);
+        int ultimo = nuevos - 1;
+        idsAltos[ultimo] = new long[FILAS_POR_SEGMENTO];
+        idsBajos[ultimo] = new long[FILAS_POR_SEGMENTO];
+        ordenesLlegada[ultimo] = new long[FILAS_POR_SEGMENTO];
+        puntajes[ultimo] = new double[FILAS_POR_SEGMENTO];
+        tipos[ultimo] = new byte[FILAS_POR_SEGMENTO];
+        estudiantes[ultimo] = new int[FILAS_POR_SEGMENTO];
+        respuestas[ultimo] = new Object[FILAS_POR_SEGMENTO];
+        indicesClave[ultimo] = new int[FILAS_POR_SEGMENTO];
+    }
+
+    // Sondeo lineal sobre la tabla de filas
+    private int buscarFila(long alto, long bajo) {
+        int mascara = tablaIndice.length - 1;
+        int casilla = dispersar(alto, bajo) & mascara;
+        while (true) {
+            int entrada = tablaIndice[casilla];
+            if (entrada == 0) {
+                return -1;
+            }
+            int fila = entrada - 1;
+            if (idsAltos[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO] == alto
+                    && idsBajos[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO] == bajo) {
+                return fila;
+            }
+            casilla = (casilla + 1) & mascara;
+        }
+    }
+
+    private void indexar(long alto, long bajo, int fila) {
+        // Se mantiene la carga por debajo de 1/2 para sondeos cortos
+        if ((fila + 1) * 2 > tablaIndice.length) {
+            redimensionarIndice();
+        }
+        insertarEnTabla(tablaIndice, dispersar(alto, bajo), fila);
+    }
+
+    private void redimensionarIndice() {
+        int[] nueva = new int[tablaIndice.length * 2];
+        for (int entrada : tablaIndice) {
+            if (entrada != 0) {
+                int fila = entrada - 1;
+                int segmento = fila >>> BITS_SEGMENTO;
+                int posicion = fila & MASCARA_SEGMENTO;
+                insertarEnTabla(nueva, dispersar(idsAltos[segmento][posicion], idsBajos[segmento][posicion]), fila);
+            }
+        }
+        tablaIndice = nueva;
+    }
+
+    private static void insertarEnTabla(int[] tabla, int hash, int fila) {
+        int mascara = tabla.length - 1;
+        int casilla = hash & mascara;
+        while (tabla[casilla] != 0) {
+            casilla = (casilla + 1) & mascara;
+        }
+        tabla[casilla] = fila + 1;
+    }
+
+    private static int dispersar(long alto, long bajo) {
+        long mezcla = (alto ^ bajo) * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32));
+    }
+
+    /**
+     * Arreglos externos de las columnas y filas ocupadas, tomados juntos bajo el candado. Las filas
+     * por debajo de {@code cantidad} ya están escritas y sus segmentos no se mueven, así que se
+     * pueden leer sin el candado aunque el repositorio siga creciendo.
+     */
+    private record Columnas(
+            long[][] idsAltos,
+            long[][] idsBajos,
+            long[][] ordenesLlegada,
+            double[][] puntajes,
+            byte[][] tipos,
+            int[][] estudiantes,
+            Object[][] respuestas,
+            int[][] indicesClave,
+            int cantidad
+    ) {
+    }
+
+    /**
+     * Evaluación materializada desde una fila; su puntaje se lee y escribe en la columna.
+     */
+    private final class Vista extends Evaluacion<Object> {
+
+        // Segmento de la columna de puntajes; no cambia aunque el repositorio crezca
+        private final double[] segmentoPuntajes;
+        private final int posicion;
+
+        private Vista(Columnas columnas, int fila) {
+            super(
+                    new UUID(columnas.idsAltos()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO],
+                            columnas.idsBajos()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO]),
+                    diccionario.nombre(columnas.estudiantes()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO]),
+                    TIPOS[columnas.tipos()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO]],
+                    columnas.respuestas()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO],
+                    columnas.ordenesLlegada()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO],
+                    columnas.indicesClave()[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO]
+            );
+            this.segmentoPuntajes = columnas.puntajes()[fila >>> BITS_SEGMENTO];
+            this.posicion = fila & MASCARA_SEGMENTO;
+        }
+
+        @Override
+        public double getPuntaje() {
+            double actual = (double) PUNTAJE.getVolatile(segmentoPuntajes, posicion);
+            return Double.isNaN(actual) ? 0.0 : actual;
+        }
+
+        @Override
+        public boolean estaCalificada() {
+            return !Double.isNaN((double) PUNTAJE.getVolatile(segmentoPuntajes, posicion));
+        }
+
+        @Override
+        public double actualizarPuntaje(double puntaje) {
+            return (double) PUNTAJE.getAndSet(segmentoPuntajes, posicion, puntaje);
+        }
+    }
+
+    /**
+     * Código en el {@link DiccionarioEstudiantes} del estudiante de la fila.
+     */
+    public synchronized int codigoEstudiante(int fila) {
+        return estudiantes[fila >>> BITS_SEGMENTO][fila & MASCARA_SEGMENTO];
+    }
+}
@@ -1,68 +1,282 @@
 package com.caso5;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.PriorityQueue;
+import java.util.UUID;
 
 /**
  * Genera reportes ordenados por puntaje de manera descendente.
  */
 public class GeneradorReporte {
 
-    // Ordena por puntaje descendente y desempata por orden de llegada
-    private static final Comparator<Evaluacion<?>> COMPARADOR_PUNTAJE = (a, b) -> {
-        int comparacionPuntaje = Double.compare(b.getPuntaje(), a.getPuntaje());
-        if (comparacionPuntaje != 0) {
-            return comparacionPuntaje;
+    // Anchos de las columnas de texto del reporte
+    private static final int ANCHO_ESTUDIANTE = 20;
+    private static final int ANCHO_TIPO = 8;
+    private static final int ANCHO_PUNTAJE = 7;
+    private static final String FIN_DE_LINEA = System.lineSeparator();
+    private static final String ENCABEZADO = String.format("%-36s | %-20s | %-8s | %-7s%n",
+            "ID", "Estudiante", "Tipo", "Puntaje")
+            + "------------------------------------------------------------------------------------------\n";
+    // Id + separadores + columnas + un puntaje de hasta 20 dígitos + fin de línea
+    private static final int LARGO_MAXIMO_LINEA = 36 + 3 * 3 + ANCHO_ESTUDIANTE + ANCHO_TIPO + 24 + FIN_DE_LINEA.length();
+    private static final int TAMANO_BUFER = 1 << 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Último desempate cuando coinciden puntaje y orden de llegada
+    private static final Comparator<Evaluacion<?>> COMPARADOR_ID = Comparator.comparing(Evaluacion::getId);
+    // Orden completo del listado, el mismo que arman el radix y el desempate por id
+    private static final Comparator<Evaluacion<?>> ORDEN_LISTADO = (una, otra) -> {
+        int comparacion = Double.compare(otra.getPuntaje() + 0.0, una.getPuntaje() + 0.0);
+        if (comparacion == 0) {
+            comparacion = Long.compare(una.getOrdenLlegada(), otra.getOrdenLlegada());
         }
-        return Long.compare(a.getOrdenLlegada(), b.getOrdenLlegada());
+        return comparacion != 0 ? comparacion : COMPARADOR_ID.compare(una, otra);
     };
 
+    // Métricas opcionales con la duración de cada reporte; null si no se miden
+    private volatile MetricasCalificacion metricas;
+
     /**
-     * Crea un listado sin duplicados y ordenado por puntaje.
+     * Registra en las métricas la duración de cada reporte escrito.
+     */
+    public void usarMetricas(MetricasCalificacion metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Crea un listado ordenado por puntaje descendente, orden de llegada ascendente e id.
+     * Nunca descarta filas: dos evaluaciones con el mismo puntaje y la misma llegada
+     * aparecen ambas, desempatadas por su identificador.
      *
      * @param evaluaciones colección de evaluaciones procesadas.
      * @return lista ordenada de mayor a menor puntaje.
      */
     public List<Evaluacion<?>> generarListadoOrdenado(Iterable<Evaluacion<?>> evaluaciones) {
-        // TreeSet mantiene ordenado y evita duplicados automáticamente
-        Set<Evaluacion<?>> conjuntoOrdenado = new TreeSet<>(COMPARADOR_PUNTAJE);
+        List<Evaluacion<?>> filas = new ArrayList<>();
         for (Evaluacion<?> evaluacion : evaluaciones) {
-            conjuntoOrdenado.add(evaluacion);
+            filas.add(evaluacion);
+        }
+        int cantidad = filas.size();
+        double[] puntajes = new double[cantidad];
+        long[] ordenes = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            Evaluacion<?> evaluacion = filas.get(i);
+            puntajes[i] = evaluacion.getPuntaje();
+            ordenes[i] = evaluacion.getOrdenLlegada();
+        }
+
+        // Radix sobre claves primitivas en lugar de insertar en un árbol
+        int[] permutacion = OrdenamientoRadix.permutacionPorPuntaje(puntajes, ordenes, cantidad);
+        List<Evaluacion<?>> ordenadas = new ArrayList<>(cantidad);
+        for (int fila : permutacion) {
+            ordenadas.add(filas.get(fila));
+        }
+        desempatarPorId(ordenadas, puntajes, ordenes, permutacion);
+        return ordenadas;
+    }
+
+    /**
+     * Intercala listados que ya salieron de {@link #generarListadoOrdenado} (por ejemplo, uno por
+     * partición) en un solo listado con el mismo orden, sin volver a ordenar las filas.
+     *
+     * @param listados listados ordenados, sin evaluaciones en común.
+     * @return listado combinado de mayor a menor puntaje.
+     */
+    public List<Evaluacion<?>> combinarListados(List<List<Evaluacion<?>>> listados) {
+        int total = 0;
+        for (List<Evaluacion<?>> listado : listados) {
+            total += listado.size();
+        }
+        List<Evaluacion<?>> combinadas = new ArrayList<>(total);
+        // Cada listado entra al montículo por su primera fila aún no combinada
+        int[] posiciones = new int[listados.size()];
+        PriorityQueue<Integer> frentes = new PriorityQueue<>(Math.max(1, listados.size()),
+                (uno, otro) -> ORDEN_LISTADO.compare(listados.get(uno).get(posiciones[uno]), listados.get(otro).get(posiciones[otro])));
+        for (int i = 0; i < listados.size(); i++) {
+            if (!listados.get(i).isEmpty()) {
+                frentes.add(i);
+            }
+        }
+        while (!frentes.isEmpty()) {
+            int indice = frentes.poll();
+            List<Evaluacion<?>> listado = listados.get(indice);
+            combinadas.add(listado.get(posiciones[indice]++));
+            if (posiciones[indice] < listado.size()) {
+                frentes.add(indice);
+            }
+        }
+        return combinadas;
+    }
+
+    // Ordena por id los tramos (normalmente de una sola fila) con puntaje y llegada iguales
+    private void desempatarPorId(List<Evaluacion<?>> ordenadas, double[] puntajes, long[] ordenes, int[] permutacion) {
+        int inicio = 0;
+        while (inicio < permutacion.length) {
+            int fin = inicio + 1;
+            while (fin < permutacion.length
+                    && Double.compare(puntajes[permutacion[fin]] + 0.0, puntajes[permutacion[inicio]] + 0.0) == 0
+                    && ordenes[permutacion[fin]] == ordenes[permutacion[inicio]]) {
+                fin++;
+            }
+            if (fin - inicio > 1) {
+                ordenadas.subList(inicio, fin).sort(COMPARADOR_ID);
+            }
+            inicio = fin;
         }
-        return new ArrayList<>(conjuntoOrdenado);
     }
 
     /**
      * Genera un reporte textual amigable para lectura humana.
+     * Para listados grandes conviene {@link #escribirReporte(Iterable, Writer)}, que no acumula el texto.
      *
      * @param evaluaciones evaluaciones ya ordenadas.
      * @return texto tabular que resume los puntajes.
      */
     public String generarReporteEnTexto(List<Evaluacion<?>> evaluaciones) {
-        StringBuilder reporte = new StringBuilder();
-        reporte.append(String.format("%-36s | %-20s | %-8s | %-7s%n",
-                "ID", "Estudiante", "Tipo", "Puntaje"));
-        reporte.append("------------------------------------------------------------------------------------------\n");
-        for (Evaluacion<?> evaluacion : evaluaciones) {
-            reporte.append(String.format(
-                    "%-36s | %-20s | %-8s | %-7.2f%n",
-                    evaluacion.getId(),
-                    recortar(evaluacion.getEstudiante(), 20),
-                    evaluacion.getTipo(),
-                    evaluacion.getPuntaje()
-            ));
+        StringWriter reporte = new StringWriter();
+        try {
+            escribirReporte(evaluaciones, reporte);
+        } catch (IOException e) {
+            // StringWriter no produce errores de E/S
+            throw new UncheckedIOException(e);
         }
         return reporte.toString();
     }
 
-    private String recortar(String texto, int limite) {
-        if (texto.length() <= limite) {
-            return texto;
+    /**
+     * Escribe el reporte fila por fila sin construirlo completo en memoria.
+     * Las columnas se arman a mano en un búfer reutilizable, sin {@code String.format}.
+     * El destino se vacía al terminar, pero no se cierra.
+     *
+     * @param evaluaciones evaluaciones ya ordenadas.
+     * @param destino      escritor que recibe el texto.
+     */
+    public void escribirReporte(Iterable<Evaluacion<?>> evaluaciones, Writer destino) throws IOException {
+        long inicio = System.nanoTime();
+        char[] linea = new char[LARGO_MAXIMO_LINEA];
+        destino.write(ENCABEZADO);
+        for (Evaluacion<?> evaluacion : evaluaciones) {
+            destino.write(linea, 0, formatearFila(evaluacion, linea));
+        }
+        destino.flush();
+        MetricasCalificacion medicion = metricas;
+        if (medicion != null) {
+            medicion.registrarReporte(System.nanoTime() - inicio);
         }
-        return texto.substring(0, limite - 3) + "...";
     }
-}
 
+    /**
+     * Escribe el reporte en UTF-8 sobre un flujo de bytes, que no se cierra.
+     */
+    public void escribirReporte(Iterable<Evaluacion<?>> evaluaciones, OutputStream destino) throws IOException {
+        escribirReporte(evaluaciones, new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANO_BUFER));
+    }
+
+    /**
+     * Escribe el reporte en UTF-8 sobre un canal (por ejemplo, un {@code FileChannel}), que no se cierra.
+     */
+    public void escribirReporte(Iterable<Evaluacion<?>> evaluaciones, WritableByteChannel destino) throws IOException {
+        Writer escritor = Channels.newWriter(destino, StandardCharsets.UTF_8);
+        escribirReporte(evaluaciones, new BufferedWriter(escritor, TAMANO_BUFER));
+    }
+
+    // Llena el búfer con "%-36s | %-20s | %-8s | %-7.2f%n" y devuelve el largo escrito
+    private int formatearFila(Evaluacion<?> evaluacion, char[] linea) {
+        UUID id = evaluacion.getId();
+        int posicion = escribirUuid(id.getMostSignificantBits(), id.getLeastSignificantBits(), linea, 0);
+        posicion = escribirSeparador(linea, posicion);
+        posicion = escribirRelleno(linea, posicion, evaluacion.getEstudiante(), ANCHO_ESTUDIANTE);
+        posicion = escribirSeparador(linea, posicion);
+        posicion = escribirRelleno(linea, posicion, evaluacion.getTipo().name(), ANCHO_TIPO);
+        posicion = escribirSeparador(linea, posicion);
+        int inicioPuntaje = posicion;
+        posicion = escribirDosDecimales(evaluacion.getPuntaje(), linea, posicion);
+        while (posicion - inicioPuntaje < ANCHO_PUNTAJE) {
+            linea[posicion++] = ' ';
+        }
+        for (int i = 0; i < FIN_DE_LINEA.length(); i++) {
+            linea[posicion++] = FIN_DE_LINEA.charAt(i);
+        }
+        return posicion;
+    }
+
+    private static int escribirSeparador(char[] linea, int posicion) {
+        linea[posicion] = ' ';
+        linea[posicion + 1] = '|';
+        linea[posicion + 2] = ' ';
+        return posicion + 3;
+    }
+
+    // Alinea a la izquierda y recorta con "..." los textos más largos que el ancho
+    private static int escribirRelleno(char[] linea, int posicion, String texto, int ancho) {
+        if (texto.length() <= ancho) {
+            texto.getChars(0, texto.length(), linea, posicion);
+            for (int i = texto.length(); i < ancho; i++) {
+                linea[posicion + i] = ' ';
+            }
+        } else {
+            texto.getChars(0, ancho - 3, linea, posicion);
+            linea[posicion + ancho - 3] = '.';
+            linea[posicion + ancho - 2] = '.';
+            linea[posicion + ancho - 1] = '.';
+        }
+        return posicion + ancho;
+    }
+
+    // Formato canónico 8-4-4-4-12 en hexadecimal, igual que UUID.toString()
+    private static int escribirUuid(long alto, long bajo, char[] linea, int posicion) {
+        posicion = escribirHex(alto >>> 32, 8, linea, posicion);
+        linea[posicion++] = '-';
+        posicion = escribirHex(alto >>> 16, 4, linea, posicion);
+        linea[posicion++] = '-';
+        posicion = escribirHex(alto, 4, linea, posicion);
+        linea[posicion++] = '-';
+        posicion = escribirHex(bajo >>> 48, 4, linea, posicion);
+        linea[posicion++] = '-';
+        return escribirHex(bajo, 12, linea, posicion);
+    }
+
+    private static int escribirHex(long valor, int digitos, char[] linea, int posicion) {
+        for (int i = digitos - 1; i >= 0; i--) {
+            linea[posicion + i] = HEX[(int) valor & 0xF];
+            valor >>>= 4;
+        }
+        return posicion + digitos;
+    }
+
+    // Redondea a centésimas y escribe "entero.dd"
+    private static int escribirDosDecimales(double valor, char[] linea, int posicion) {
+        long centesimas = Math.round(valor * 100);
+        if (centesimas < 0) {
+            linea[posicion++] = '-';
+            centesimas = -centesimas;
+        }
+        long entero = centesimas / 100;
+        int decimales = (int) (centesimas % 100);
+        int digitos = 1;
+        for (long resto = entero / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        for (int i = digitos - 1; i >= 0; i--) {
+            linea[posicion + i] = (char) ('0' + entero % 10);
+            entero /= 10;
+        }
+        posicion += digitos;
+        linea[posicion++] = '.';
+        linea[posicion++] = (char) ('0' + decimales / 10);
+        linea[posicion++] = (char) ('0' + decimales % 10);
+        return posicion;
+    }
+}
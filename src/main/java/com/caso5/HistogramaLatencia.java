@@ -0,0 +1,133 @@
+package com.caso5;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas logarítmicas-lineales (al estilo HdrHistogram).
+ * <p>
+ * Los valores menores a 32 tienen cubeta propia; por encima, cada potencia de dos se divide en 32
+ * cubetas iguales, así el error relativo de cualquier percentil es menor a 1/32 (~3 %). Registrar
+ * un valor es un incremento atómico sin candados, apto para varios hilos calificadores a la vez.
+ */
+public class HistogramaLatencia implements HistogramaLatenciaMBean {
+
+    // Cubetas lineales por cada potencia de dos (2^5)
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    // Valores exactos 0..31 más 32 cubetas por cada exponente de 5 a 62
+    private static final int CUBETAS = SUBCUBETAS + (63 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Registra una medición; los valores negativos se cuentan como cero.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0L, nanos);
+        conteos.getAndIncrement(cubeta(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Suma los conteos de otro histograma a este.
+     */
+    public void combinar(HistogramaLatencia otro) {
+        for (int i = 0; i < CUBETAS; i++) {
+            long conteo = otro.conteos.get(i);
+            if (conteo != 0) {
+                conteos.getAndAdd(i, conteo);
+            }
+        }
+        cantidad.add(otro.cantidad.sum());
+        suma.add(otro.suma.sum());
+        maximo.accumulate(otro.maximo.get());
+    }
+
+    /**
+     * Calcula el valor bajo el cual queda el porcentaje indicado de las mediciones.
+     *
+     * @param percentil valor entre 0 y 100.
+     * @return límite superior de la cubeta que contiene el percentil, o 0 si no hay mediciones.
+     */
+    public long percentil(double percentil) {
+        long total = 0;
+        long[] copia = new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = conteos.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long objetivo = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentil)) / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    @Override
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    @Override
+    public double getPromedioNanos() {
+        long mediciones = cantidad.sum();
+        return mediciones == 0 ? 0.0 : (double) suma.sum() / mediciones;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return percentil(50.0);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return percentil(90.0);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return percentil(99.0);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return percentil(99.9);
+    }
+
+    @Override
+    public long getMaximoNanos() {
+        return maximo.get();
+    }
+
+    private static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int subcubeta = (int) (valor >>> (exponente - BITS_SUBCUBETA)) - SUBCUBETAS;
+        return SUBCUBETAS + (exponente - BITS_SUBCUBETA) * SUBCUBETAS + subcubeta;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = (indice - SUBCUBETAS) / SUBCUBETAS;
+        long inferior = (long) (SUBCUBETAS + (indice - SUBCUBETAS) % SUBCUBETAS) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+}
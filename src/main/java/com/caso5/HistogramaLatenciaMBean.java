@@ -0,0 +1,21 @@
+package com.caso5;
+
+/**
+ * Vista JMX de un {@link HistogramaLatencia}.
+ */
+public interface HistogramaLatenciaMBean {
+
+    long getCantidad();
+
+    double getPromedioNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaximoNanos();
+}
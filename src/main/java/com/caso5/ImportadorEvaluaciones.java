@@ -0,0 +1,1040 @@
+package com.caso5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Importa claves y evaluaciones desde archivos CSV o JSON-lines.
+ * <p>
+ * El archivo se lee en trozos de hasta {@value #TAMANO_TROZO} bytes cortados en un salto de línea,
+ * y cada trozo lo analiza uno de los hilos directamente sobre los bytes, sin crear una cadena por
+ * línea: solo se decodifican el nombre del estudiante (con un caché por hilo) y el texto de las
+ * respuestas abiertas. Las evaluaciones se juntan en lotes que se almacenan y se encolan de una vez.
+ * Los trozos circulan por un conjunto fijo de búferes, así la lectura espera si los hilos se atrasan.
+ * <p>
+ * Formatos, una fila por línea (en CSV la primera línea puede ser un encabezado y los campos pueden
+ * ir entre comillas; en JSON-lines cada línea es un objeto plano):
+ * <ul>
+ *     <li>claves: {@code clave,tipo,respuesta} o {@code {"clave":"…","tipo":"…","respuesta":"…"}};</li>
+ *     <li>evaluaciones: {@code id,estudiante,tipo,respuesta,clave} o el objeto con esos campos.</li>
+ * </ul>
+ * El tipo es OM, VF o ABIERTA. Las respuestas OM llevan una opción por carácter ({@code 0-3} o
+ * {@code A-D}), las VF un carácter por pregunta ({@code V/F}, {@code T/F} o {@code 1/0}) y las
+ * abiertas el texto. La columna clave nombra una clave importada antes; si un nombre se repite,
+ * vale la última definición. El orden de llegada de cada evaluación es la posición de su línea en
+ * el archivo, desplazada para que cada importación quede después de la anterior.
+ */
+public final class ImportadorEvaluaciones {
+
+    /**
+     * Formato de un archivo de entrada.
+     */
+    public enum Formato {
+        CSV,
+        JSONL;
+
+        /**
+         * Deduce el formato por la extensión: .jsonl, .ndjson y .json son JSON-lines; el resto, CSV.
+         */
+        public static Formato segunArchivo(Path archivo) {
+            String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+            return nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson") || nombre.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    /**
+     * Resumen de una importación.
+     *
+     * @param lineas          filas leídas, sin contar encabezados ni líneas vacías.
+     * @param importadas      filas cargadas.
+     * @param duplicadas      evaluaciones descartadas porque su id ya existía.
+     * @param errores         filas rechazadas por estar mal formadas o referir una clave desconocida.
+     * @param primerosErrores descripción de los primeros errores, en orden del archivo.
+     * @param nanos           duración total.
+     */
+    public record ResultadoImportacion(
+            long lineas,
+            long importadas,
+            long duplicadas,
+            long errores,
+            List<String> primerosErrores,
+            long nanos
+    ) {
+
+        public double milisegundos() {
+            return nanos / 1_000_000.0;
+        }
+
+        public double filasPorSegundo() {
+            return nanos == 0 ? 0.0 : lineas * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    private static final int TAMANO_TROZO = 4 << 20;
+    // Evaluaciones que se almacenan y encolan juntas
+    private static final int TAMANO_LOTE = 1_024;
+    private static final int ERRORES_GUARDADOS = 10;
+
+    // Campos reconocidos en cada fila
+    private static final int ID = 0;
+    private static final int ESTUDIANTE = 1;
+    private static final int TIPO = 2;
+    private static final int RESPUESTA = 3;
+    private static final int CLAVE = 4;
+    private static final String[] NOMBRES_CAMPOS = {"id", "estudiante", "tipo", "respuesta", "clave"};
+    // Campo que ocupa cada columna CSV
+    private static final int[] COLUMNAS_EVALUACION = {ID, ESTUDIANTE, TIPO, RESPUESTA, CLAVE};
+    private static final int[] COLUMNAS_CLAVE = {CLAVE, TIPO, RESPUESTA};
+
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+    // Valor de cada dígito hexadecimal por byte; -1 para el resto
+    private static final byte[] HEXADECIMAL = new byte[256];
+
+    static {
+        Arrays.fill(HEXADECIMAL, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEXADECIMAL[Character.forDigit(i, 16)] = (byte) i;
+            HEXADECIMAL[Character.toUpperCase(Character.forDigit(i, 16))] = (byte) i;
+        }
+    }
+
+    // Marca de fin para los hilos analizadores
+    private static final Trozo FIN = new Trozo(new byte[0], 0, -1, -1);
+
+    private final CalificadorEvaluaciones calificador;
+    private final int hilos;
+    // Claves importadas por nombre (protegido por el candado del importador)
+    private final Map<String, ClaveImportada> clavesPorNombre = new HashMap<>();
+    // Copia inmutable que consultan los hilos al importar evaluaciones
+    private volatile TablaClaves tablaClaves = new TablaClaves(List.of());
+    // Orden de llegada de la primera línea de la próxima importación
+    private long ordenBase;
+    private volatile DiccionarioEstudiantes diccionario;
+
+    /**
+     * @param calificador cuyo catálogo recibe las claves importadas.
+     * @param hilos       hilos que analizan las evaluaciones, mayor a cero.
+     */
+    public ImportadorEvaluaciones(CalificadorEvaluaciones calificador, int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser mayor a 0");
+        }
+        this.calificador = calificador;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Reemplaza los nombres de estudiante importados por la instancia del diccionario, así todas
+     * las evaluaciones de un estudiante comparten la misma cadena con el resto del sistema.
+     */
+    public void usarDiccionario(DiccionarioEstudiantes diccionario) {
+        this.diccionario = diccionario;
+    }
+
+    /**
+     * Registra en el catálogo las claves del archivo para que las evaluaciones las puedan nombrar.
+     */
+    public synchronized ResultadoImportacion importarClaves(Path archivo) throws IOException {
+        Formato formato = Formato.segunArchivo(archivo);
+        // Los archivos de claves son chicos: se analizan en el hilo que llama
+        ResultadoImportacion resultado = recorrer(archivo, 1, () -> new LectorClaves(formato));
+        tablaClaves = new TablaClaves(clavesPorNombre.values());
+        return resultado;
+    }
+
+    /**
+     * Carga las evaluaciones del archivo en el repositorio y las encola para corregirlas.
+     * El repositorio y la cola deben admitir uso concurrente si hay más de un hilo.
+     */
+    public synchronized ResultadoImportacion importarEvaluaciones(
+            Path archivo,
+            AlmacenEvaluaciones repositorio,
+            ColaEvaluaciones colaCorreccion
+    ) throws IOException {
+        Formato formato = Formato.segunArchivo(archivo);
+        TablaClaves claves = tablaClaves;
+        DiccionarioEstudiantes nombres = diccionario;
+        long primerOrden = ordenBase;
+        ordenBase += Files.size(archivo) + 1;
+        return recorrer(archivo, hilos,
+                () -> new LectorEvaluaciones(formato, claves, nombres, primerOrden, repositorio, colaCorreccion));
+    }
+
+    public synchronized int cantidadClaves() {
+        return clavesPorNombre.size();
+    }
+
+    // Reparte los trozos del archivo entre los analizadores y suma sus resultados
+    private ResultadoImportacion recorrer(Path archivo, int cantidadHilos, Supplier<Analizador> fabrica) throws IOException {
+        long inicio = System.nanoTime();
+        List<Analizador> analizadores = new ArrayList<>();
+        for (int i = 0; i < cantidadHilos; i++) {
+            analizadores.add(fabrica.get());
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            LectorTrozos lector = new LectorTrozos(canal);
+            if (cantidadHilos == 1) {
+                Analizador analizador = analizadores.get(0);
+                byte[] bufer = new byte[TAMANO_TROZO];
+                for (Trozo trozo = lector.leer(bufer); trozo != null; trozo = lector.leer(bufer)) {
+                    analizador.analizar(trozo);
+                }
+                analizador.terminar();
+            } else {
+                recorrerEnParalelo(lector, analizadores);
+            }
+        }
+
+        long lineas = 0;
+        long importadas = 0;
+        long duplicadas = 0;
+        long errores = 0;
+        List<ErrorFila> muestras = new ArrayList<>();
+        for (Analizador analizador : analizadores) {
+            lineas += analizador.lineas;
+            importadas += analizador.importadas;
+            duplicadas += analizador.duplicadas;
+            errores += analizador.errores;
+            muestras.addAll(analizador.muestras);
+        }
+        muestras.sort(Comparator.comparingLong(ErrorFila::posicion));
+        List<String> primerosErrores = muestras.stream()
+                .limit(ERRORES_GUARDADOS)
+                .map(error -> "línea " + error.linea() + ": " + error.mensaje())
+                .toList();
+        return new ResultadoImportacion(lineas, importadas, duplicadas, errores, primerosErrores, System.nanoTime() - inicio);
+    }
+
+    private void recorrerEnParalelo(LectorTrozos lector, List<Analizador> analizadores) throws IOException {
+        int cantidadHilos = analizadores.size();
+        BlockingQueue<byte[]> libres = new ArrayBlockingQueue<>(cantidadHilos * 2);
+        BlockingQueue<Trozo> llenos = new ArrayBlockingQueue<>(cantidadHilos * 2);
+        for (int i = 0; i < cantidadHilos * 2; i++) {
+            libres.add(new byte[TAMANO_TROZO]);
+        }
+        AtomicReference<RuntimeException> fallo = new AtomicReference<>();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (Analizador analizador : analizadores) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    // Tras un fallo se siguen devolviendo búferes para que el lector no quede esperando
+                    for (Trozo trozo = llenos.take(); trozo != FIN; trozo = llenos.take()) {
+                        try {
+                            if (fallo.get() == null) {
+                                analizador.analizar(trozo);
+                            }
+                        } catch (RuntimeException e) {
+                            fallo.compareAndSet(null, e);
+                        } finally {
+                            libres.put(trozo.datos());
+                        }
+                    }
+                    if (fallo.get() == null) {
+                        analizador.terminar();
+                    }
+                } catch (RuntimeException e) {
+                    fallo.compareAndSet(null, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "importador");
+            hilo.setDaemon(true);
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+
+        try {
+            try {
+                while (fallo.get() == null) {
+                    Trozo trozo = lector.leer(libres.take());
+                    if (trozo == null) {
+                        break;
+                    }
+                    llenos.put(trozo);
+                }
+            } finally {
+                for (int i = 0; i < cantidadHilos; i++) {
+                    llenos.put(FIN);
+                }
+                for (Thread hilo : trabajadores) {
+                    hilo.join();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La importación fue interrumpida", e);
+        }
+        if (fallo.get() != null) {
+            throw fallo.get();
+        }
+    }
+
+    /**
+     * Bytes de un trozo: líneas completas que empiezan en {@code posicion} del archivo, la primera
+     * con el número {@code linea} (desde 1).
+     */
+    private record Trozo(byte[] datos, int largo, long posicion, long linea) {
+    }
+
+    /**
+     * Error de una fila, con la posición y el número de la línea en el archivo.
+     */
+    private record ErrorFila(long posicion, long linea, String mensaje) {
+    }
+
+    /**
+     * Clave importada: nombre en UTF-8, índice en el catálogo, tipo y cantidad de preguntas.
+     */
+    private record ClaveImportada(byte[] nombre, int indice, TipoEvaluacion tipo, int preguntas) {
+    }
+
+    /**
+     * Lee el archivo en trozos que terminan en un salto de línea. La línea cortada al final de un
+     * trozo se copia aparte y encabeza el siguiente, así el búfer entregado no se vuelve a tocar.
+     */
+    private static final class LectorTrozos {
+
+        private final FileChannel canal;
+        private final byte[] arrastre = new byte[TAMANO_TROZO];
+        private int largoArrastre;
+        // Posición en el archivo del primer byte del próximo trozo
+        private long posicion;
+        // Número de la primera línea del próximo trozo
+        private long linea = 1;
+        private boolean agotado;
+
+        private LectorTrozos(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        // Devuelve null cuando ya no quedan bytes
+        Trozo leer(byte[] bufer) throws IOException {
+            System.arraycopy(arrastre, 0, bufer, 0, largoArrastre);
+            ByteBuffer destino = ByteBuffer.wrap(bufer, largoArrastre, bufer.length - largoArrastre);
+            while (destino.hasRemaining() && !agotado) {
+                agotado = canal.read(destino) < 0;
+            }
+            int ocupados = destino.position();
+            if (ocupados == 0) {
+                return null;
+            }
+            int corte = ocupados;
+            if (!agotado) {
+                corte = ultimoSalto(bufer, ocupados) + 1;
+                if (corte == 0) {
+                    throw new IOException("La línea " + linea + " tiene más de " + TAMANO_TROZO + " bytes");
+                }
+            }
+            largoArrastre = ocupados - corte;
+            System.arraycopy(bufer, corte, arrastre, 0, largoArrastre);
+            Trozo trozo = new Trozo(bufer, corte, posicion, linea);
+            posicion += corte;
+            for (int i = 0; i < corte; i++) {
+                if (bufer[i] == '\n') {
+                    linea++;
+                }
+            }
+            return trozo;
+        }
+
+        private static int ultimoSalto(byte[] datos, int hasta) {
+            for (int i = hasta - 1; i >= 0; i--) {
+                if (datos[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Recorre las líneas de cada trozo y cuenta filas, cargas y errores. Cada hilo usa el suyo.
+     */
+    private abstract static class Analizador {
+
+        final Campos campos;
+        long lineas;
+        long importadas;
+        long duplicadas;
+        long errores;
+        final List<ErrorFila> muestras = new ArrayList<>();
+        // Posición en el archivo de la fila que se está procesando
+        long posicionFila;
+
+        Analizador(Formato formato, int[] columnas) {
+            this.campos = new Campos(formato, columnas);
+        }
+
+        void analizar(Trozo trozo) {
+            byte[] datos = trozo.datos();
+            int desde = 0;
+            if (trozo.posicion() == 0 && tieneMarcaBom(datos, trozo.largo())) {
+                desde = 3;
+            }
+            // Solo la primera línea del archivo puede ser un encabezado
+            int primeraLinea = trozo.posicion() == 0 ? desde : -1;
+            long linea = trozo.linea();
+            while (desde < trozo.largo()) {
+                int hasta = desde;
+                while (hasta < trozo.largo() && datos[hasta] != '\n') {
+                    hasta++;
+                }
+                int finLinea = hasta > desde && datos[hasta - 1] == '\r' ? hasta - 1 : hasta;
+                if (finLinea > desde) {
+                    posicionFila = trozo.posicion() + desde;
+                    boolean encabezado = false;
+                    try {
+                        encabezado = !campos.separar(datos, desde, finLinea, desde == primeraLinea);
+                        if (!encabezado) {
+                            procesarFila(campos);
+                        }
+                    } catch (FilaInvalida e) {
+                        errores++;
+                        if (muestras.size() < ERRORES_GUARDADOS) {
+                            muestras.add(new ErrorFila(posicionFila, linea, e.getMessage()));
+                        }
+                    }
+                    // Las filas rechazadas también cuentan como leídas, aunque no se hayan podido separar
+                    if (!encabezado) {
+                        lineas++;
+                    }
+                }
+                desde = hasta + 1;
+                linea++;
+            }
+        }
+
+        abstract void procesarFila(Campos campos) throws FilaInvalida;
+
+        void terminar() {
+        }
+
+        private static boolean tieneMarcaBom(byte[] datos, int largo) {
+            return largo >= 3 && datos[0] == (byte) 0xEF && datos[1] == (byte) 0xBB && datos[2] == (byte) 0xBF;
+        }
+    }
+
+    /**
+     * Registra cada clave en el catálogo y la anota por nombre.
+     */
+    private final class LectorClaves extends Analizador {
+
+        private LectorClaves(Formato formato) {
+            super(formato, COLUMNAS_CLAVE);
+        }
+
+        @Override
+        void procesarFila(Campos campos) throws FilaInvalida {
+            String nombre = campos.texto(CLAVE);
+            if (nombre.isBlank()) {
+                throw new FilaInvalida("la clave no tiene nombre");
+            }
+            TipoEvaluacion tipo = campos.tipo(TIPO);
+            Object respuesta;
+            int preguntas;
+            switch (tipo) {
+                case OM -> {
+                    RespuestasOpcionMultiple opciones = campos.opciones(RESPUESTA);
+                    respuesta = opciones;
+                    preguntas = opciones.cantidad();
+                }
+                case VF -> {
+                    RespuestasVerdaderoFalso respuestas = campos.verdaderoFalso(RESPUESTA);
+                    respuesta = respuestas;
+                    preguntas = respuestas.cantidad();
+                }
+                default -> {
+                    respuesta = campos.texto(RESPUESTA);
+                    preguntas = 0;
+                }
+            }
+            int indice = calificador.getCatalogo().registrar(respuesta);
+            clavesPorNombre.put(nombre, new ClaveImportada(nombre.getBytes(StandardCharsets.UTF_8), indice, tipo, preguntas));
+            importadas++;
+        }
+    }
+
+    /**
+     * Crea las evaluaciones y las carga por lotes en el repositorio y la cola.
+     */
+    private static final class LectorEvaluaciones extends Analizador {
+
+        private final TablaClaves claves;
+        private final long primerOrden;
+        private final AlmacenEvaluaciones repositorio;
+        private final ColaEvaluaciones colaCorreccion;
+        private final Evaluacion<?>[] lote = new Evaluacion<?>[TAMANO_LOTE];
+        private int enLote;
+
+        private LectorEvaluaciones(
+                Formato formato,
+                TablaClaves claves,
+                DiccionarioEstudiantes diccionario,
+                long primerOrden,
+                AlmacenEvaluaciones repositorio,
+                ColaEvaluaciones colaCorreccion
+        ) {
+            super(formato, COLUMNAS_EVALUACION);
+            campos.diccionario = diccionario;
+            this.claves = claves;
+            this.primerOrden = primerOrden;
+            this.repositorio = repositorio;
+            this.colaCorreccion = colaCorreccion;
+        }
+
+        @Override
+        void procesarFila(Campos campos) throws FilaInvalida {
+            UUID id = campos.identificador(ID);
+            TipoEvaluacion tipo = campos.tipo(TIPO);
+            ClaveImportada clave = campos.clave(CLAVE, claves);
+            if (clave == null) {
+                throw new FilaInvalida("clave desconocida \"" + campos.texto(CLAVE) + "\"");
+            }
+            if (clave.tipo() != tipo) {
+                throw new FilaInvalida("la clave \"" + campos.texto(CLAVE) + "\" es de tipo " + clave.tipo());
+            }
+            String estudiante = campos.estudiante(ESTUDIANTE);
+            long orden = primerOrden + posicionFila;
+            Evaluacion<?> evaluacion = switch (tipo) {
+                case OM -> {
+                    RespuestasOpcionMultiple opciones = campos.opciones(RESPUESTA);
+                    verificarPreguntas(opciones.cantidad(), clave);
+                    yield new Evaluacion<>(id, estudiante, tipo, opciones, orden, clave.indice());
+                }
+                case VF -> {
+                    RespuestasVerdaderoFalso respuestas = campos.verdaderoFalso(RESPUESTA);
+                    verificarPreguntas(respuestas.cantidad(), clave);
+                    yield new Evaluacion<>(id, estudiante, tipo, respuestas, orden, clave.indice());
+                }
+                case ABIERTA -> new Evaluacion<>(id, estudiante, tipo, campos.texto(RESPUESTA), orden, clave.indice());
+            };
+            lote[enLote++] = evaluacion;
+            if (enLote == TAMANO_LOTE) {
+                vaciarLote();
+            }
+        }
+
+        @Override
+        void terminar() {
+            if (enLote > 0) {
+                vaciarLote();
+            }
+        }
+
+        private void vaciarLote() {
+            int almacenadas = repositorio.almacenarLote(lote, enLote);
+            colaCorreccion.encolarLote(lote, almacenadas);
+            importadas += almacenadas;
+            duplicadas += enLote - almacenadas;
+            Arrays.fill(lote, 0, enLote, null);
+            enLote = 0;
+        }
+
+        private static void verificarPreguntas(int preguntas, ClaveImportada clave) throws FilaInvalida {
+            if (preguntas != clave.preguntas()) {
+                throw new FilaInvalida("tiene " + preguntas + " respuestas y la clave " + clave.preguntas());
+            }
+        }
+    }
+
+    /**
+     * Tabla de claves por nombre en bytes, de direccionamiento abierto; no cambia una vez creada.
+     */
+    private static final class TablaClaves {
+
+        private final ClaveImportada[] casillas;
+
+        private TablaClaves(Collection<ClaveImportada> claves) {
+            casillas = new ClaveImportada[Integer.highestOneBit(Math.max(1, claves.size()) * 2) << 1];
+            int mascara = casillas.length - 1;
+            for (ClaveImportada clave : claves) {
+                int casilla = dispersar(clave.nombre(), 0, clave.nombre().length) & mascara;
+                while (casillas[casilla] != null) {
+                    casilla = (casilla + 1) & mascara;
+                }
+                casillas[casilla] = clave;
+            }
+        }
+
+        ClaveImportada buscar(byte[] datos, int desde, int hasta) {
+            int mascara = casillas.length - 1;
+            int casilla = dispersar(datos, desde, hasta) & mascara;
+            while (casillas[casilla] != null) {
+                byte[] nombre = casillas[casilla].nombre();
+                if (Arrays.equals(nombre, 0, nombre.length, datos, desde, hasta)) {
+                    return casillas[casilla];
+                }
+                casilla = (casilla + 1) & mascara;
+            }
+            return null;
+        }
+    }
+
+    private static int dispersar(byte[] datos, int desde, int hasta) {
+        int hash = 1;
+        for (int i = desde; i < hasta; i++) {
+            hash = 31 * hash + datos[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Separa una línea en campos sin copiar bytes: cada campo es un rango de la línea. Los campos
+     * con comillas dobladas (CSV) o secuencias de escape (JSON) se decodifican al pedirlos.
+     */
+    private static final class Campos {
+
+        private static final byte SIN_ESCAPES = 0;
+        private static final byte ESCAPES_CSV = 1;
+        private static final byte ESCAPES_JSON = 2;
+        // Nombres de estudiante recientes por hash de sus bytes
+        private static final int TAMANO_CACHE = 1 << 12;
+
+        private final Formato formato;
+        private final int[] columnas;
+        private final byte[][] fuentes = new byte[NOMBRES_CAMPOS.length][];
+        private final int[] inicios = new int[NOMBRES_CAMPOS.length];
+        private final int[] finales = new int[NOMBRES_CAMPOS.length];
+        private final byte[] escapes = new byte[NOMBRES_CAMPOS.length];
+        private final byte[][] bytesCache = new byte[TAMANO_CACHE][];
+        private final String[] nombresCache = new String[TAMANO_CACHE];
+        private final StringBuilder texto = new StringBuilder();
+        private byte[] auxiliar = new byte[256];
+        // Diccionario que da la instancia canónica de cada nombre; null para usar la leída
+        private DiccionarioEstudiantes diccionario;
+
+        private Campos(Formato formato, int[] columnas) {
+            this.formato = formato;
+            this.columnas = columnas;
+        }
+
+        /**
+         * @return {@code false} si la línea es el encabezado CSV.
+         */
+        boolean separar(byte[] datos, int desde, int hasta, boolean primeraLinea) throws FilaInvalida {
+            Arrays.fill(fuentes, null);
+            if (formato == Formato.CSV) {
+                separarCsv(datos, desde, hasta);
+                int primero = columnas[0];
+                return !(primeraLinea && escapes[primero] == SIN_ESCAPES
+                        && igualSinMayusculas(datos, inicios[primero], finales[primero], NOMBRES_CAMPOS[primero]));
+            }
+            separarJson(datos, desde, hasta);
+            for (int campo : columnas) {
+                if (fuentes[campo] == null) {
+                    throw new FilaInvalida("falta el campo \"" + NOMBRES_CAMPOS[campo] + "\"");
+                }
+            }
+            return true;
+        }
+
+        private void separarCsv(byte[] datos, int desde, int hasta) throws FilaInvalida {
+            int columna = 0;
+            int i = desde;
+            while (true) {
+                int inicio;
+                int fin;
+                byte escape = SIN_ESCAPES;
+                if (i < hasta && datos[i] == '"') {
+                    inicio = i + 1;
+                    int j = inicio;
+                    while (true) {
+                        if (j >= hasta) {
+                            throw new FilaInvalida("comillas sin cerrar");
+                        }
+                        if (datos[j] == '"') {
+                            if (j + 1 < hasta && datos[j + 1] == '"') {
+                                escape = ESCAPES_CSV;
+                                j += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        j++;
+                    }
+                    fin = j;
+                    i = j + 1;
+                    if (i < hasta && datos[i] != ',') {
+                        throw new FilaInvalida("se esperaba una coma después de las comillas");
+                    }
+                } else {
+                    inicio = i;
+                    while (i < hasta && datos[i] != ',') {
+                        i++;
+                    }
+                    fin = i;
+                }
+                if (columna < columnas.length) {
+                    asignar(columnas[columna], datos, inicio, fin, escape);
+                }
+                columna++;
+                if (i >= hasta) {
+                    break;
+                }
+                i++;
+            }
+            if (columna != columnas.length) {
+                throw new FilaInvalida("se esperaban " + columnas.length + " columnas y hay " + columna);
+            }
+        }
+
+        private void separarJson(byte[] datos, int desde, int hasta) throws FilaInvalida {
+            int i = saltarEspacios(datos, desde, hasta);
+            if (i >= hasta || datos[i] != '{') {
+                throw new FilaInvalida("se esperaba un objeto JSON");
+            }
+            i = saltarEspacios(datos, i + 1, hasta);
+            if (i < hasta && datos[i] == '}') {
+                i++;
+            } else {
+                while (true) {
+                    if (i >= hasta || datos[i] != '"') {
+                        throw new FilaInvalida("se esperaba el nombre de un campo");
+                    }
+                    int inicioNombre = i + 1;
+                    i = finDeCadena(datos, inicioNombre, hasta);
+                    int campo = campoPorNombre(datos, inicioNombre, i);
+                    i = saltarEspacios(datos, i + 1, hasta);
+                    if (i >= hasta || datos[i] != ':') {
+                        throw new FilaInvalida("se esperaban dos puntos");
+                    }
+                    i = saltarEspacios(datos, i + 1, hasta);
+                    if (i < hasta && datos[i] == '"') {
+                        int inicio = i + 1;
+                        i = finDeCadena(datos, inicio, hasta);
+                        if (campo >= 0) {
+                            asignar(campo, datos, inicio, i, tieneEscapes(datos, inicio, i) ? ESCAPES_JSON : SIN_ESCAPES);
+                        }
+                        i++;
+                    } else {
+                        int inicio = i;
+                        while (i < hasta && datos[i] != ',' && datos[i] != '}' && datos[i] > ' ') {
+                            if (datos[i] == '{' || datos[i] == '[') {
+                                throw new FilaInvalida("solo se admiten valores simples");
+                            }
+                            i++;
+                        }
+                        if (inicio == i) {
+                            throw new FilaInvalida("falta un valor");
+                        }
+                        // null equivale a omitir el campo
+                        if (campo >= 0 && !igualSinMayusculas(datos, inicio, i, "null")) {
+                            asignar(campo, datos, inicio, i, SIN_ESCAPES);
+                        }
+                    }
+                    i = saltarEspacios(datos, i, hasta);
+                    if (i < hasta && datos[i] == ',') {
+                        i = saltarEspacios(datos, i + 1, hasta);
+                    } else if (i < hasta && datos[i] == '}') {
+                        i++;
+                        break;
+                    } else {
+                        throw new FilaInvalida("se esperaba una coma o el cierre del objeto");
+                    }
+                }
+            }
+            if (saltarEspacios(datos, i, hasta) != hasta) {
+                throw new FilaInvalida("hay texto después del objeto JSON");
+            }
+        }
+
+        private void asignar(int campo, byte[] datos, int inicio, int fin, byte escape) {
+            fuentes[campo] = datos;
+            inicios[campo] = inicio;
+            finales[campo] = fin;
+            escapes[campo] = escape;
+        }
+
+        String texto(int campo) throws FilaInvalida {
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            int fin = finales[campo];
+            return switch (escapes[campo]) {
+                case ESCAPES_CSV -> decodificarCsv(datos, inicio, fin);
+                case ESCAPES_JSON -> decodificarJson(datos, inicio, fin);
+                default -> new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+            };
+        }
+
+        /**
+         * Nombre del estudiante; los nombres repetidos reutilizan la misma cadena.
+         */
+        String estudiante(int campo) throws FilaInvalida {
+            if (escapes[campo] != SIN_ESCAPES) {
+                return canonico(noVacio(texto(campo).strip(), campo));
+            }
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            int fin = finales[campo];
+            int casilla = dispersar(datos, inicio, fin) & (TAMANO_CACHE - 1);
+            byte[] guardado = bytesCache[casilla];
+            if (guardado != null && Arrays.equals(guardado, 0, guardado.length, datos, inicio, fin)) {
+                return nombresCache[casilla];
+            }
+            String nombre = canonico(noVacio(new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8).strip(), campo));
+            bytesCache[casilla] = Arrays.copyOfRange(datos, inicio, fin);
+            nombresCache[casilla] = nombre;
+            return nombre;
+        }
+
+        private String canonico(String nombre) {
+            return diccionario == null ? nombre : diccionario.canonico(nombre);
+        }
+
+        UUID identificador(int campo) throws FilaInvalida {
+            sinEscapes(campo);
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            if (finales[campo] - inicio != 36) {
+                throw new FilaInvalida("id inválido \"" + texto(campo) + "\"");
+            }
+            long alto = 0;
+            long bajo = 0;
+            for (int i = 0; i < 36; i++) {
+                byte caracter = datos[inicio + i];
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (caracter != '-') {
+                        throw new FilaInvalida("id inválido \"" + texto(campo) + "\"");
+                    }
+                    continue;
+                }
+                int digito = HEXADECIMAL[caracter & 0xFF];
+                if (digito < 0) {
+                    throw new FilaInvalida("id inválido \"" + texto(campo) + "\"");
+                }
+                if (i < 18) {
+                    alto = (alto << 4) | digito;
+                } else {
+                    bajo = (bajo << 4) | digito;
+                }
+            }
+            return new UUID(alto, bajo);
+        }
+
+        TipoEvaluacion tipo(int campo) throws FilaInvalida {
+            sinEscapes(campo);
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            int fin = finales[campo];
+            for (TipoEvaluacion tipo : TIPOS) {
+                if (igualSinMayusculas(datos, inicio, fin, tipo.name())) {
+                    return tipo;
+                }
+            }
+            throw new FilaInvalida("tipo desconocido \"" + texto(campo) + "\"");
+        }
+
+        ClaveImportada clave(int campo, TablaClaves claves) throws FilaInvalida {
+            sinEscapes(campo);
+            return claves.buscar(fuentes[campo], inicios[campo], finales[campo]);
+        }
+
+        RespuestasOpcionMultiple opciones(int campo) throws FilaInvalida {
+            sinEscapes(campo);
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            int cantidad = noVacio(finales[campo] - inicio, campo);
+            long[] palabras = new long[RespuestasOpcionMultiple.palabrasNecesarias(cantidad)];
+            for (int i = 0; i < cantidad; i++) {
+                int caracter = datos[inicio + i];
+                int opcion;
+                if (caracter >= '0' && caracter <= '3') {
+                    opcion = caracter - '0';
+                } else if (caracter >= 'A' && caracter <= 'D') {
+                    opcion = caracter - 'A';
+                } else if (caracter >= 'a' && caracter <= 'd') {
+                    opcion = caracter - 'a';
+                } else {
+                    throw new FilaInvalida("opción inválida '" + (char) caracter + "' en la pregunta " + (i + 1));
+                }
+                int desplazamiento = (i % RespuestasOpcionMultiple.PREGUNTAS_POR_PALABRA) * 2;
+                palabras[i / RespuestasOpcionMultiple.PREGUNTAS_POR_PALABRA] |= (long) opcion << desplazamiento;
+            }
+            return new RespuestasOpcionMultiple(palabras, cantidad);
+        }
+
+        RespuestasVerdaderoFalso verdaderoFalso(int campo) throws FilaInvalida {
+            sinEscapes(campo);
+            byte[] datos = fuentes[campo];
+            int inicio = inicios[campo];
+            int cantidad = noVacio(finales[campo] - inicio, campo);
+            long[] bits = new long[RespuestasVerdaderoFalso.palabrasNecesarias(cantidad)];
+            for (int i = 0; i < cantidad; i++) {
+                switch (datos[inicio + i]) {
+                    case 'V', 'v', 'T', 't', '1' -> bits[i >>> 6] |= 1L << i;
+                    case 'F', 'f', '0' -> {
+                    }
+                    default -> throw new FilaInvalida(
+                            "respuesta inválida '" + (char) datos[inicio + i] + "' en la pregunta " + (i + 1));
+                }
+            }
+            return new RespuestasVerdaderoFalso(bits, cantidad);
+        }
+
+        // Reemplaza un campo con escapes por su versión decodificada, para leerlo byte a byte
+        private void sinEscapes(int campo) throws FilaInvalida {
+            if (escapes[campo] != SIN_ESCAPES) {
+                byte[] decodificado = texto(campo).getBytes(StandardCharsets.UTF_8);
+                asignar(campo, decodificado, 0, decodificado.length, SIN_ESCAPES);
+            }
+        }
+
+        // Quita una de cada par de comillas dobladas
+        private String decodificarCsv(byte[] datos, int inicio, int fin) {
+            if (auxiliar.length < fin - inicio) {
+                auxiliar = new byte[Math.max(fin - inicio, auxiliar.length * 2)];
+            }
+            int largo = 0;
+            for (int i = inicio; i < fin; i++) {
+                auxiliar[largo++] = datos[i];
+                if (datos[i] == '"') {
+                    i++;
+                }
+            }
+            return new String(auxiliar, 0, largo, StandardCharsets.UTF_8);
+        }
+
+        private String decodificarJson(byte[] datos, int inicio, int fin) throws FilaInvalida {
+            texto.setLength(0);
+            int tramo = inicio;
+            int i = inicio;
+            while (i < fin) {
+                if (datos[i] != '\\') {
+                    i++;
+                    continue;
+                }
+                texto.append(new String(datos, tramo, i - tramo, StandardCharsets.UTF_8));
+                if (i + 1 >= fin) {
+                    throw new FilaInvalida("secuencia de escape incompleta");
+                }
+                byte escape = datos[i + 1];
+                i += 2;
+                switch (escape) {
+                    case '"', '\\', '/' -> texto.append((char) escape);
+                    case 'b' -> texto.append('\b');
+                    case 'f' -> texto.append('\f');
+                    case 'n' -> texto.append('\n');
+                    case 'r' -> texto.append('\r');
+                    case 't' -> texto.append('\t');
+                    case 'u' -> {
+                        if (i + 4 > fin) {
+                            throw new FilaInvalida("secuencia \\u incompleta");
+                        }
+                        int codigo = 0;
+                        for (int j = 0; j < 4; j++) {
+                            int digito = Character.digit(datos[i + j], 16);
+                            if (digito < 0) {
+                                throw new FilaInvalida("secuencia \\u inválida");
+                            }
+                            codigo = (codigo << 4) | digito;
+                        }
+                        texto.append((char) codigo);
+                        i += 4;
+                    }
+                    default -> throw new FilaInvalida("secuencia de escape desconocida \\" + (char) escape);
+                }
+                tramo = i;
+            }
+            texto.append(new String(datos, tramo, fin - tramo, StandardCharsets.UTF_8));
+            return texto.toString();
+        }
+
+        private static int campoPorNombre(byte[] datos, int inicio, int fin) {
+            for (int campo = 0; campo < NOMBRES_CAMPOS.length; campo++) {
+                if (igualSinMayusculas(datos, inicio, fin, NOMBRES_CAMPOS[campo])) {
+                    return campo;
+                }
+            }
+            return -1;
+        }
+
+        // Devuelve la posición de las comillas que cierran la cadena iniciada en "inicio"
+        private static int finDeCadena(byte[] datos, int inicio, int hasta) throws FilaInvalida {
+            for (int i = inicio; i < hasta; i++) {
+                if (datos[i] == '\\') {
+                    i++;
+                } else if (datos[i] == '"') {
+                    return i;
+                }
+            }
+            throw new FilaInvalida("cadena sin cerrar");
+        }
+
+        private static boolean tieneEscapes(byte[] datos, int inicio, int fin) {
+            for (int i = inicio; i < fin; i++) {
+                if (datos[i] == '\\') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int saltarEspacios(byte[] datos, int desde, int hasta) {
+            while (desde < hasta && (datos[desde] == ' ' || datos[desde] == '\t')) {
+                desde++;
+            }
+            return desde;
+        }
+
+        // Compara con un texto ASCII sin distinguir mayúsculas
+        private static boolean igualSinMayusculas(byte[] datos, int inicio, int fin, String texto) {
+            if (fin - inicio != texto.length()) {
+                return false;
+            }
+            for (int i = 0; i < texto.length(); i++) {
+                int caracter = datos[inicio + i];
+                if (caracter >= 'A' && caracter <= 'Z') {
+                    caracter += 'a' - 'A';
+                }
+                if (caracter != Character.toLowerCase(texto.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String noVacio(String valor, int campo) throws FilaInvalida {
+            if (valor.isEmpty()) {
+                throw new FilaInvalida("el campo \"" + NOMBRES_CAMPOS[campo] + "\" está vacío");
+            }
+            return valor;
+        }
+
+        private static int noVacio(int largo, int campo) throws FilaInvalida {
+            if (largo == 0) {
+                throw new FilaInvalida("el campo \"" + NOMBRES_CAMPOS[campo] + "\" está vacío");
+            }
+            return largo;
+        }
+    }
+
+    /**
+     * Fila rechazada; se cuenta y se sigue con la siguiente, por eso no guarda la traza.
+     */
+    private static final class FilaInvalida extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private FilaInvalida(String mensaje) {
+            super(mensaje, null, false, false);
+        }
+    }
+}
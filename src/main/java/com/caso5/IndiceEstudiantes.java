@@ -0,0 +1,182 @@
+package com.caso5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Índice secundario de estudiante a identificadores de evaluación.
+ * <p>
+ * Cada estudiante guarda sus ids en un arreglo de {@code long} (dos por id, en orden de registro),
+ * así una página de sus evaluaciones se arma con acceso directo y búsquedas por id en el
+ * repositorio. Los estudiantes se ubican por su código del {@link DiccionarioEstudiantes}, así
+ * registrar una evaluación indexa un arreglo en lugar de dispersar el nombre en un mapa propio.
+ * Los nombres además están en un árbol por nombre en minúsculas para buscar por prefijo sin
+ * distinguir mayúsculas; el árbol se toca únicamente con estudiantes nuevos.
+ * <p>
+ * Se mantiene al día envolviendo el repositorio con {@link #envolver}: cada evaluación aceptada
+ * por {@code registrar}, {@code almacenar} o {@code almacenarLote} se agrega al índice.
+ */
+public final class IndiceEstudiantes {
+
+    // Separa el nombre en minúsculas del exacto en las claves del árbol
+    private static final char SEPARADOR = '\u0000';
+
+    private final DiccionarioEstudiantes diccionario;
+    // Ids por código de estudiante; null para los códigos sin evaluaciones en este índice
+    private Identificadores[] porCodigo = new Identificadores[64];
+    private int estudiantes;
+    private final NavigableMap<String, Identificadores> porPrefijo = new TreeMap<>();
+    private AlmacenEvaluaciones almacen;
+
+    public IndiceEstudiantes() {
+        this(new DiccionarioEstudiantes());
+    }
+
+    /**
+     * @param diccionario diccionario que asigna los códigos; puede compartirse con el repositorio.
+     */
+    public IndiceEstudiantes(DiccionarioEstudiantes diccionario) {
+        this.diccionario = diccionario;
+    }
+
+    /**
+     * Indexa lo que el repositorio ya contiene y devuelve una vista que indexa lo que se registre
+     * a través de ella. Las consultas resuelven los ids contra el repositorio envuelto.
+     */
+    public synchronized AlmacenEvaluaciones envolver(AlmacenEvaluaciones almacen) {
+        if (this.almacen != null) {
+            throw new IllegalStateException("El índice ya envuelve un repositorio");
+        }
+        this.almacen = almacen;
+        for (Evaluacion<?> evaluacion : almacen.listarTodas()) {
+            agregar(evaluacion);
+        }
+        return new AlmacenConIndice(almacen, this);
+    }
+
+    synchronized void agregar(Evaluacion<?> evaluacion) {
+        int codigo = diccionario.codificar(evaluacion.getEstudiante());
+        if (codigo >= porCodigo.length) {
+            porCodigo = Arrays.copyOf(porCodigo, Math.max(porCodigo.length * 2, codigo + 1));
+        }
+        Identificadores identificadores = porCodigo[codigo];
+        if (identificadores == null) {
+            String estudiante = diccionario.nombre(codigo);
+            identificadores = new Identificadores(estudiante);
+            porCodigo[codigo] = identificadores;
+            porPrefijo.put(clave(estudiante), identificadores);
+            estudiantes++;
+        }
+        identificadores.agregar(evaluacion.getId());
+    }
+
+    synchronized void agregarLote(Evaluacion<?>[] lote, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            agregar(lote[i]);
+        }
+    }
+
+    public synchronized int cantidadEstudiantes() {
+        return estudiantes;
+    }
+
+    /**
+     * @return evaluaciones registradas del estudiante; cero si no existe.
+     */
+    public synchronized int cantidadEvaluaciones(String estudiante) {
+        Identificadores identificadores = identificadores(estudiante);
+        return identificadores == null ? 0 : identificadores.cantidad;
+    }
+
+    /**
+     * Página de evaluaciones del estudiante en orden de registro.
+     *
+     * @param desde  posición de la primera evaluación, desde cero.
+     * @param maximo tamaño de la página.
+     * @return evaluaciones de la página; vacía si el estudiante no existe o {@code desde} pasa el final.
+     */
+    public List<Evaluacion<?>> evaluacionesDe(String estudiante, int desde, int maximo) {
+        if (desde < 0 || maximo < 0) {
+            throw new IllegalArgumentException("Página inválida: desde " + desde + ", máximo " + maximo);
+        }
+        long[] pagina;
+        AlmacenEvaluaciones repositorio;
+        synchronized (this) {
+            Identificadores identificadores = identificadores(estudiante);
+            if (identificadores == null || desde >= identificadores.cantidad) {
+                return List.of();
+            }
+            int hasta = (int) Math.min(identificadores.cantidad, (long) desde + maximo);
+            pagina = Arrays.copyOfRange(identificadores.ids, 2 * desde, 2 * hasta);
+            repositorio = almacen;
+        }
+        // Las búsquedas en el repositorio quedan fuera del candado del índice
+        List<Evaluacion<?>> evaluaciones = new ArrayList<>(pagina.length / 2);
+        for (int i = 0; i < pagina.length; i += 2) {
+            Evaluacion<?> evaluacion = repositorio.buscar(new UUID(pagina[i], pagina[i + 1]));
+            if (evaluacion != null) {
+                evaluaciones.add(evaluacion);
+            }
+        }
+        return evaluaciones;
+    }
+
+    /**
+     * Nombres que empiezan con el prefijo, sin distinguir mayúsculas, en orden alfabético.
+     *
+     * @param despuesDe último nombre de la página anterior, o {@code null} para empezar.
+     * @param maximo    tamaño de la página.
+     */
+    public synchronized List<String> buscarEstudiantes(String prefijo, String despuesDe, int maximo) {
+        String inicio = prefijo.toLowerCase(Locale.ROOT);
+        NavigableMap<String, Identificadores> coincidencias = porPrefijo.subMap(inicio, true, inicio + Character.MAX_VALUE, false);
+        if (despuesDe != null) {
+            coincidencias = coincidencias.tailMap(clave(despuesDe), false);
+        }
+        List<String> nombres = new ArrayList<>(Math.min(maximo, coincidencias.size()));
+        for (Identificadores identificadores : coincidencias.values()) {
+            if (nombres.size() == maximo) {
+                break;
+            }
+            nombres.add(identificadores.estudiante);
+        }
+        return nombres;
+    }
+
+    private Identificadores identificadores(String estudiante) {
+        int codigo = diccionario.buscar(estudiante);
+        return codigo >= 0 && codigo < porCodigo.length ? porCodigo[codigo] : null;
+    }
+
+    private static String clave(String estudiante) {
+        return estudiante.toLowerCase(Locale.ROOT) + SEPARADOR + estudiante;
+    }
+
+    /**
+     * Ids de un estudiante como pares (bits altos, bits bajos) en un arreglo que crece al doble.
+     */
+    private static final class Identificadores {
+
+        private final String estudiante;
+        private long[] ids = new long[8];
+        private int cantidad;
+
+        private Identificadores(String estudiante) {
+            this.estudiante = estudiante;
+        }
+
+        private void agregar(UUID id) {
+            if (2 * cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[2 * cantidad] = id.getMostSignificantBits();
+            ids[2 * cantidad + 1] = id.getLeastSignificantBits();
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package com.caso5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * Instantánea binaria del repositorio que se lee proyectada en memoria con {@link MappedByteBuffer}.
+ * <p>
+ * El archivo tiene un encabezado y cinco secciones alineadas a 8 bytes:
+ * <ul>
+ *     <li>filas de ancho fijo ({@value #TAMANO_FILA} bytes): id, llegada, puntaje (NaN si no se
+ *     calificó), posición de la respuesta, código de estudiante, índice de clave y tipo;</li>
+ *     <li>índice hash de direccionamiento abierto con fila + 1 por casilla, para {@link #buscar(UUID)};</li>
+ *     <li>permutación de filas en el orden del reporte (puntaje desc, llegada asc, id);</li>
+ *     <li>respuestas de largo variable;</li>
+ *     <li>tabla de nombres de estudiante sin repetir.</li>
+ * </ul>
+ * Al abrirla solo se cargan los nombres; cada fila se lee del archivo cuando se pide, y la
+ * respuesta recién cuando se llama a {@code getRespuesta()}. Es de solo lectura: registrar o
+ * cambiar puntajes lanza {@link UnsupportedOperationException}. Cada sección debe medir menos de 2 GB.
+ */
+public final class InstantaneaEvaluaciones implements AlmacenEvaluaciones {
+
+    private static final byte[] MAGICO = "CASO5IN1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int TAMANO_ENCABEZADO = 80;
+    private static final int TAMANO_FILA = 56;
+    private static final int TAMANO_ESCRITURA = 1 << 20;
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+
+    // Desplazamientos de cada campo dentro de una fila
+    private static final int CAMPO_ID_ALTO = 0;
+    private static final int CAMPO_ID_BAJO = 8;
+    private static final int CAMPO_ORDEN = 16;
+    private static final int CAMPO_PUNTAJE = 24;
+    private static final int CAMPO_RESPUESTA = 32;
+    private static final int CAMPO_ESTUDIANTE = 40;
+    private static final int CAMPO_CLAVE = 44;
+    private static final int CAMPO_TIPO = 48;
+
+    // Marcador para las filas cuya respuesta se decodifica al pedirla
+    private static final Object RESPUESTA_DIFERIDA = new Object();
+
+    private final int cantidad;
+    private final ByteBuffer filas;
+    private final ByteBuffer indice;
+    private final ByteBuffer orden;
+    private final ByteBuffer respuestas;
+    private final String[] nombres;
+    private final int mascaraIndice;
+
+    private InstantaneaEvaluaciones(int cantidad, ByteBuffer filas, ByteBuffer indice, ByteBuffer orden,
+                                    ByteBuffer respuestas, String[] nombres) {
+        this.cantidad = cantidad;
+        this.filas = filas;
+        this.indice = indice;
+        this.orden = orden;
+        this.respuestas = respuestas;
+        this.nombres = nombres;
+        this.mascaraIndice = indice.capacity() / 4 - 1;
+    }
+
+    /**
+     * Escribe una instantánea de todas las evaluaciones del repositorio.
+     */
+    public static void escribir(AlmacenEvaluaciones almacen, Path archivo) throws IOException {
+        List<Evaluacion<?>> evaluaciones = almacen.copiarComoLista();
+        int total = evaluaciones.size();
+        long[] idsAltos = new long[total];
+        long[] idsBajos = new long[total];
+        long[] ordenes = new long[total];
+        double[] puntajes = new double[total];
+        long[] posicionesRespuesta = new long[total];
+        int[] codigosEstudiante = new int[total];
+        Object[] respuestasSerializables = new Object[total];
+        Map<String, Integer> codigosPorNombre = new HashMap<>();
+        List<byte[]> nombresCodificados = new ArrayList<>();
+
+        long largoRespuestas = 0;
+        for (int fila = 0; fila < total; fila++) {
+            Evaluacion<?> evaluacion = evaluaciones.get(fila);
+            idsAltos[fila] = evaluacion.getId().getMostSignificantBits();
+            idsBajos[fila] = evaluacion.getId().getLeastSignificantBits();
+            ordenes[fila] = evaluacion.getOrdenLlegada();
+            puntajes[fila] = evaluacion.estaCalificada() ? evaluacion.getPuntaje() : Double.NaN;
+            codigosEstudiante[fila] = codigosPorNombre.computeIfAbsent(evaluacion.getEstudiante(), nombre -> {
+                nombresCodificados.add(nombre.getBytes(StandardCharsets.UTF_8));
+                return nombresCodificados.size() - 1;
+            });
+            Object respuesta = evaluacion.getRespuesta();
+            respuestasSerializables[fila] = respuesta instanceof String texto ? texto.getBytes(StandardCharsets.UTF_8) : respuesta;
+            posicionesRespuesta[fila] = largoRespuestas;
+            largoRespuestas += alinear(largoRespuesta(respuestasSerializables[fila]));
+        }
+
+        // Orden del reporte: los puntajes sin calificar cuentan como 0, igual que getPuntaje()
+        double[] puntajesReporte = new double[total];
+        for (int fila = 0; fila < total; fila++) {
+            puntajesReporte[fila] = Double.isNaN(puntajes[fila]) ? 0.0 : puntajes[fila];
+        }
+        int[] permutacion = OrdenamientoRadix.permutacionPorPuntaje(puntajesReporte, ordenes, total);
+        desempatarPorId(permutacion, puntajesReporte, ordenes, idsAltos, idsBajos);
+
+        int capacidadIndice = Integer.highestOneBit(Math.max(2, total) * 2 - 1) << 1;
+        int[] tablaIndice = new int[capacidadIndice];
+        for (int fila = 0; fila < total; fila++) {
+            int casilla = dispersar(idsAltos[fila], idsBajos[fila]) & (capacidadIndice - 1);
+            while (tablaIndice[casilla] != 0) {
+                casilla = (casilla + 1) & (capacidadIndice - 1);
+            }
+            tablaIndice[casilla] = fila + 1;
+        }
+
+        long largoNombres = 4L + 4L * (nombresCodificados.size() + 1);
+        for (byte[] nombre : nombresCodificados) {
+            largoNombres += nombre.length;
+        }
+        long offsetFilas = TAMANO_ENCABEZADO;
+        long offsetIndice = alinear(offsetFilas + (long) TAMANO_FILA * total);
+        long offsetOrden = alinear(offsetIndice + 4L * capacidadIndice);
+        long offsetRespuestas = alinear(offsetOrden + 4L * total);
+        long offsetNombres = alinear(offsetRespuestas + largoRespuestas);
+        long tamanoTotal = offsetNombres + largoNombres;
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.bytes(MAGICO);
+            escritor.entero(VERSION);
+            escritor.entero(TAMANO_FILA);
+            escritor.largo(total);
+            escritor.entero(capacidadIndice);
+            escritor.entero(nombresCodificados.size());
+            escritor.largo(offsetFilas);
+            escritor.largo(offsetIndice);
+            escritor.largo(offsetOrden);
+            escritor.largo(offsetRespuestas);
+            escritor.largo(offsetNombres);
+            escritor.largo(tamanoTotal);
+
+            for (int fila = 0; fila < total; fila++) {
+                Evaluacion<?> evaluacion = evaluaciones.get(fila);
+                escritor.largo(idsAltos[fila]);
+                escritor.largo(idsBajos[fila]);
+                escritor.largo(ordenes[fila]);
+                escritor.doble(puntajes[fila]);
+                escritor.largo(posicionesRespuesta[fila]);
+                escritor.entero(codigosEstudiante[fila]);
+                escritor.entero(evaluacion.getIndiceClave());
+                escritor.relleno(TAMANO_FILA - CAMPO_TIPO, (byte) evaluacion.getTipo().ordinal());
+            }
+            escritor.rellenarHasta(offsetIndice);
+            for (int entrada : tablaIndice) {
+                escritor.entero(entrada);
+            }
+            escritor.rellenarHasta(offsetOrden);
+            for (int fila : permutacion) {
+                escritor.entero(fila);
+            }
+            escritor.rellenarHasta(offsetRespuestas);
+            for (Object respuesta : respuestasSerializables) {
+                escribirRespuesta(escritor, respuesta);
+                escritor.rellenarHasta(alinear(escritor.posicion()));
+            }
+            escritor.rellenarHasta(offsetNombres);
+            escritor.entero(nombresCodificados.size());
+            int acumulado = 0;
+            escritor.entero(acumulado);
+            for (byte[] nombre : nombresCodificados) {
+                acumulado += nombre.length;
+                escritor.entero(acumulado);
+            }
+            for (byte[] nombre : nombresCodificados) {
+                escritor.bytes(nombre);
+            }
+            escritor.vaciar();
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Proyecta una instantánea en memoria. Solo se leen al heap los nombres de estudiante.
+     */
+    public static InstantaneaEvaluaciones abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANO_ENCABEZADO).order(ByteOrder.LITTLE_ENDIAN);
+            while (encabezado.hasRemaining()) {
+                if (canal.read(encabezado) < 0) {
+                    throw new IOException("La instantánea está incompleta");
+                }
+            }
+            encabezado.flip();
+            byte[] magico = new byte[MAGICO.length];
+            encabezado.get(magico);
+            if (!Arrays.equals(magico, MAGICO) || encabezado.getInt() != VERSION || encabezado.getInt() != TAMANO_FILA) {
+                throw new IOException("El archivo no es una instantánea de evaluaciones compatible");
+            }
+            long total = encabezado.getLong();
+            int capacidadIndice = encabezado.getInt();
+            int cantidadNombres = encabezado.getInt();
+            long offsetFilas = encabezado.getLong();
+            long offsetIndice = encabezado.getLong();
+            long offsetOrden = encabezado.getLong();
+            long offsetRespuestas = encabezado.getLong();
+            long offsetNombres = encabezado.getLong();
+            long tamanoTotal = encabezado.getLong();
+            if (canal.size() < tamanoTotal || total > Integer.MAX_VALUE) {
+                throw new IOException("La instantánea está incompleta");
+            }
+
+            ByteBuffer filas = proyectar(canal, offsetFilas, TAMANO_FILA * total);
+            ByteBuffer indice = proyectar(canal, offsetIndice, 4L * capacidadIndice);
+            ByteBuffer orden = proyectar(canal, offsetOrden, 4L * total);
+            ByteBuffer respuestas = proyectar(canal, offsetRespuestas, offsetNombres - offsetRespuestas);
+            ByteBuffer tablaNombres = proyectar(canal, offsetNombres, tamanoTotal - offsetNombres);
+
+            String[] nombres = new String[cantidadNombres];
+            int inicioTextos = 4 + 4 * (cantidadNombres + 1);
+            byte[] texto = new byte[0];
+            for (int i = 0; i < cantidadNombres; i++) {
+                int desde = tablaNombres.getInt(4 + 4 * i);
+                int largo = tablaNombres.getInt(8 + 4 * i) - desde;
+                if (texto.length < largo) {
+                    texto = new byte[largo];
+                }
+                tablaNombres.get(inicioTextos + desde, texto, 0, largo);
+                nombres[i] = new String(texto, 0, largo, StandardCharsets.UTF_8);
+            }
+            // La proyección sigue vigente aunque el canal se cierre
+            return new InstantaneaEvaluaciones((int) total, filas, indice, orden, respuestas, nombres);
+        }
+    }
+
+    private static ByteBuffer proyectar(FileChannel canal, long posicion, long largo) throws IOException {
+        if (largo > Integer.MAX_VALUE) {
+            throw new IOException("Una sección de la instantánea supera los 2 GB");
+        }
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public boolean registrar(Evaluacion<?> evaluacion) {
+        throw new UnsupportedOperationException("La instantánea es de solo lectura");
+    }
+
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        throw new UnsupportedOperationException("La instantánea es de solo lectura");
+    }
+
+    @Override
+    public Evaluacion<?> buscar(UUID identificador) {
+        long alto = identificador.getMostSignificantBits();
+        long bajo = identificador.getLeastSignificantBits();
+        int casilla = dispersar(alto, bajo) & mascaraIndice;
+        while (true) {
+            int entrada = indice.getInt(casilla * 4);
+            if (entrada == 0) {
+                return null;
+            }
+            int base = (entrada - 1) * TAMANO_FILA;
+            if (filas.getLong(base + CAMPO_ID_ALTO) == alto && filas.getLong(base + CAMPO_ID_BAJO) == bajo) {
+                return new Fila(entrada - 1);
+            }
+            casilla = (casilla + 1) & mascaraIndice;
+        }
+    }
+
+    /**
+     * Vista en orden de inserción que lee cada fila del archivo al recorrerla.
+     */
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        return Collections.unmodifiableList(new ListaFilas(false));
+    }
+
+    /**
+     * Vista en el orden del reporte, precalculado al escribir la instantánea. Se puede pasar
+     * directamente a {@link GeneradorReporte#escribirReporte(Iterable, java.io.Writer)}.
+     */
+    public List<Evaluacion<?>> listarOrdenadas() {
+        return Collections.unmodifiableList(new ListaFilas(true));
+    }
+
+    @Override
+    public PaginaEvaluaciones paginar(String cursor, int tamano) {
+        return paginar(new ListaFilas(false), cursor, tamano);
+    }
+
+    /**
+     * Página en el orden del reporte; el cursor guarda la posición en ese orden.
+     */
+    public PaginaEvaluaciones paginarOrdenadas(String cursor, int tamano) {
+        return paginar(new ListaFilas(true), cursor, tamano);
+    }
+
+    private PaginaEvaluaciones paginar(ListaFilas filas, String cursor, int tamano) {
+        int desde = Math.min(PaginaEvaluaciones.leerPosicion(cursor), cantidad);
+        PaginaEvaluaciones.validarTamano(tamano);
+        int hasta = (int) Math.min(cantidad, (long) desde + tamano);
+        return PaginaEvaluaciones.porPosicion(new ArrayList<>(filas.subList(desde, hasta)), hasta, cantidad);
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return new ArrayList<>(listarTodas());
+    }
+
+    @Override
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Filas materializadas a pedido, en orden de inserción o de reporte.
+     */
+    private final class ListaFilas extends AbstractList<Evaluacion<?>> implements RandomAccess {
+
+        private final boolean ordenada;
+
+        private ListaFilas(boolean ordenada) {
+            this.ordenada = ordenada;
+        }
+
+        @Override
+        public Evaluacion<?> get(int posicion) {
+            Objects.checkIndex(posicion, cantidad);
+            return new Fila(ordenada ? orden.getInt(posicion * 4) : posicion);
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+    }
+
+    /**
+     * Evaluación leída de una fila de la instantánea.
+     */
+    private final class Fila extends Evaluacion<Object> {
+
+        private final int base;
+
+        private Fila(int fila) {
+            super(
+                    new UUID(filas.getLong(fila * TAMANO_FILA + CAMPO_ID_ALTO), filas.getLong(fila * TAMANO_FILA + CAMPO_ID_BAJO)),
+                    nombres[filas.getInt(fila * TAMANO_FILA + CAMPO_ESTUDIANTE)],
+                    TIPOS[filas.get(fila * TAMANO_FILA + CAMPO_TIPO)],
+                    RESPUESTA_DIFERIDA,
+                    filas.getLong(fila * TAMANO_FILA + CAMPO_ORDEN),
+                    filas.getInt(fila * TAMANO_FILA + CAMPO_CLAVE)
+            );
+            this.base = fila * TAMANO_FILA;
+        }
+
+        @Override
+        public Object getRespuesta() {
+            return leerRespuesta((int) filas.getLong(base + CAMPO_RESPUESTA), getTipo());
+        }
+
+        @Override
+        public double getPuntaje() {
+            double puntaje = filas.getDouble(base + CAMPO_PUNTAJE);
+            return Double.isNaN(puntaje) ? 0.0 : puntaje;
+        }
+
+        @Override
+        public boolean estaCalificada() {
+            return !Double.isNaN(filas.getDouble(base + CAMPO_PUNTAJE));
+        }
+
+        @Override
+        public double actualizarPuntaje(double puntaje) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura");
+        }
+    }
+
+    private Object leerRespuesta(int posicion, TipoEvaluacion tipo) {
+        if (tipo == TipoEvaluacion.ABIERTA) {
+            int largo = respuestas.getInt(posicion);
+            byte[] texto = new byte[largo];
+            respuestas.get(posicion + 4, texto);
+            return new String(texto, StandardCharsets.UTF_8);
+        }
+        int preguntas = respuestas.getInt(posicion);
+        long[] palabras = new long[respuestas.getInt(posicion + 4)];
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] = respuestas.getLong(posicion + 8 + 8 * i);
+        }
+        return tipo == TipoEvaluacion.OM
+                ? new RespuestasOpcionMultiple(palabras, preguntas)
+                : new RespuestasVerdaderoFalso(palabras, preguntas);
+    }
+
+    private static int largoRespuesta(Object respuesta) {
+        if (respuesta instanceof RespuestasOpcionMultiple opciones) {
+            return 8 + 8 * opciones.palabras().length;
+        }
+        if (respuesta instanceof RespuestasVerdaderoFalso respuestas) {
+            return 8 + 8 * respuestas.bits().length;
+        }
+        return 4 + ((byte[]) respuesta).length;
+    }
+
+    private static void escribirRespuesta(Escritor escritor, Object respuesta) throws IOException {
+        if (respuesta instanceof RespuestasOpcionMultiple opciones) {
+            escribirPalabras(escritor, opciones.cantidad(), opciones.palabras());
+        } else if (respuesta instanceof RespuestasVerdaderoFalso respuestas) {
+            escribirPalabras(escritor, respuestas.cantidad(), respuestas.bits());
+        } else {
+            byte[] texto = (byte[]) respuesta;
+            escritor.entero(texto.length);
+            escritor.bytes(texto);
+        }
+    }
+
+    private static void escribirPalabras(Escritor escritor, int preguntas, long[] palabras) throws IOException {
+        escritor.entero(preguntas);
+        escritor.entero(palabras.length);
+        for (long palabra : palabras) {
+            escritor.largo(palabra);
+        }
+    }
+
+    // Ordena por id los tramos con puntaje y llegada iguales, como GeneradorReporte
+    private static void desempatarPorId(int[] permutacion, double[] puntajes, long[] ordenes, long[] altos, long[] bajos) {
+        int inicio = 0;
+        while (inicio < permutacion.length) {
+            int fin = inicio + 1;
+            while (fin < permutacion.length
+                    && Double.compare(puntajes[permutacion[fin]] + 0.0, puntajes[permutacion[inicio]] + 0.0) == 0
+                    && ordenes[permutacion[fin]] == ordenes[permutacion[inicio]]) {
+                fin++;
+            }
+            // Los tramos suelen ser de una fila: basta una inserción
+            for (int i = inicio + 1; i < fin; i++) {
+                int fila = permutacion[i];
+                int j = i - 1;
+                while (j >= inicio && compararIds(altos, bajos, permutacion[j], fila) > 0) {
+                    permutacion[j + 1] = permutacion[j];
+                    j--;
+                }
+                permutacion[j + 1] = fila;
+            }
+            inicio = fin;
+        }
+    }
+
+    // Mismo orden que UUID.compareTo
+    private static int compararIds(long[] altos, long[] bajos, int a, int b) {
+        int porAlto = Long.compare(altos[a], altos[b]);
+        return porAlto != 0 ? porAlto : Long.compare(bajos[a], bajos[b]);
+    }
+
+    private static long alinear(long posicion) {
+        return (posicion + 7) & ~7L;
+    }
+
+    private static int dispersar(long alto, long bajo) {
+        long mezcla = (alto ^ bajo) * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32));
+    }
+
+    /**
+     * Escritura secuencial con un búfer directo, en little-endian.
+     */
+    private static final class Escritor {
+
+        private final FileChannel canal;
+        private final ByteBuffer bufer = ByteBuffer.allocateDirect(TAMANO_ESCRITURA).order(ByteOrder.LITTLE_ENDIAN);
+        private long escritos;
+
+        private Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        long posicion() {
+            return escritos + bufer.position();
+        }
+
+        void entero(int valor) throws IOException {
+            asegurar(4);
+            bufer.putInt(valor);
+        }
+
+        void largo(long valor) throws IOException {
+            asegurar(8);
+            bufer.putLong(valor);
+        }
+
+        void doble(double valor) throws IOException {
+            asegurar(8);
+            bufer.putDouble(valor);
+        }
+
+        void bytes(byte[] valor) throws IOException {
+            int escrito = 0;
+            while (escrito < valor.length) {
+                asegurar(1);
+                int parte = Math.min(bufer.remaining(), valor.length - escrito);
+                bufer.put(valor, escrito, parte);
+                escrito += parte;
+            }
+        }
+
+        // Escribe un byte seguido de ceros hasta completar "largo"
+        void relleno(int largo, byte primero) throws IOException {
+            asegurar(largo);
+            bufer.put(primero);
+            for (int i = 1; i < largo; i++) {
+                bufer.put((byte) 0);
+            }
+        }
+
+        void rellenarHasta(long posicion) throws IOException {
+            while (posicion() < posicion) {
+                asegurar(1);
+                bufer.put((byte) 0);
+            }
+        }
+
+        void vaciar() throws IOException {
+            bufer.flip();
+            while (bufer.hasRemaining()) {
+                escritos += canal.write(bufer);
+            }
+            bufer.clear();
+        }
+
+        private void asegurar(int bytes) throws IOException {
+            if (bufer.remaining() < bytes) {
+                vaciar();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.caso5;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas del proceso de corrección: profundidad y tránsito de la cola, registros y duplicados
+ * del repositorio, latencia de calificación por tipo y tiempo de generación de reportes.
+ * <p>
+ * Los contadores son {@link LongAdder}, que reparten las escrituras concurrentes entre celdas y
+ * solo las suman al leer. La cola y el repositorio se miden envolviéndolos con
+ * {@link #instrumentar(ColaEvaluaciones)} y {@link #instrumentar(AlmacenEvaluaciones)}; el motor
+ * y el generador de reportes registran sus tiempos cuando se les asignan estas métricas.
+ */
+public class MetricasCalificacion implements MetricasCalificacionMBean {
+
+    // Dominio JMX bajo el que se publican los MBeans
+    private static final String DOMINIO_JMX = "com.caso5";
+
+    private final LongAdder encoladas = new LongAdder();
+    private final LongAdder desencoladas = new LongAdder();
+    private final LongAdder registradas = new LongAdder();
+    private final LongAdder duplicadas = new LongAdder();
+    private final LongAdder reportes = new LongAdder();
+    private final LongAdder nanosReportes = new LongAdder();
+    private final Map<TipoEvaluacion, HistogramaLatencia> latenciasPorTipo = new EnumMap<>(TipoEvaluacion.class);
+
+    // Cola y repositorio observados para leer su tamaño actual
+    private volatile ColaEvaluaciones colaObservada;
+    private volatile AlmacenEvaluaciones almacenObservado;
+
+    public MetricasCalificacion() {
+        for (TipoEvaluacion tipo : TipoEvaluacion.values()) {
+            latenciasPorTipo.put(tipo, new HistogramaLatencia());
+        }
+    }
+
+    /**
+     * Envuelve la cola para contar lo que entra y sale; la profundidad se lee de ella.
+     */
+    public ColaEvaluaciones instrumentar(ColaEvaluaciones cola) {
+        colaObservada = cola;
+        return new ColaInstrumentada(cola, this);
+    }
+
+    /**
+     * Envuelve el repositorio para contar registros y rechazos por identificador repetido.
+     */
+    public AlmacenEvaluaciones instrumentar(AlmacenEvaluaciones almacen) {
+        almacenObservado = almacen;
+        return new AlmacenInstrumentado(almacen, this);
+    }
+
+    /**
+     * Lee la profundidad y el tamaño de una cola y un repositorio sin envolverlos, cuando ya se
+     * instrumentaron por partes (por ejemplo, cada partición de {@link ParticionesEvaluaciones}).
+     */
+    void observar(ColaEvaluaciones cola, AlmacenEvaluaciones almacen) {
+        colaObservada = cola;
+        almacenObservado = almacen;
+    }
+
+    void contarEncoladas(int cantidad) {
+        encoladas.add(cantidad);
+    }
+
+    void contarDesencoladas(int cantidad) {
+        desencoladas.add(cantidad);
+    }
+
+    void contarRegistro(boolean agregado) {
+        (agregado ? registradas : duplicadas).increment();
+    }
+
+    void contarLote(int agregadas, int repetidas) {
+        registradas.add(agregadas);
+        duplicadas.add(repetidas);
+    }
+
+    /**
+     * Registra cuánto tardó la calificación de una evaluación.
+     */
+    public void registrarCalificacion(TipoEvaluacion tipo, long nanos) {
+        latenciasPorTipo.get(tipo).registrar(nanos);
+    }
+
+    /**
+     * Registra la duración de un reporte completo.
+     */
+    public void registrarReporte(long nanos) {
+        reportes.increment();
+        nanosReportes.add(nanos);
+    }
+
+    public HistogramaLatencia latencia(TipoEvaluacion tipo) {
+        return latenciasPorTipo.get(tipo);
+    }
+
+    @Override
+    public long getEncoladas() {
+        return encoladas.sum();
+    }
+
+    @Override
+    public long getDesencoladas() {
+        return desencoladas.sum();
+    }
+
+    @Override
+    public int getPendientes() {
+        ColaEvaluaciones cola = colaObservada;
+        return cola == null ? 0 : cola.pendientes();
+    }
+
+    @Override
+    public long getRegistradas() {
+        return registradas.sum();
+    }
+
+    @Override
+    public long getDuplicadasRechazadas() {
+        return duplicadas.sum();
+    }
+
+    @Override
+    public int getAlmacenadas() {
+        AlmacenEvaluaciones almacen = almacenObservado;
+        return almacen == null ? 0 : almacen.cantidad();
+    }
+
+    /**
+     * @return bytes estimados de la estructura del almacén observado, o {@code -1} si no se conocen.
+     */
+    @Override
+    public long getBytesAlmacenEstimados() {
+        AlmacenEvaluaciones almacen = almacenObservado;
+        return almacen == null ? -1 : almacen.estimarBytes();
+    }
+
+    @Override
+    public long getCalificadas() {
+        long total = 0;
+        for (HistogramaLatencia histograma : latenciasPorTipo.values()) {
+            total += histograma.getCantidad();
+        }
+        return total;
+    }
+
+    @Override
+    public long getReportesGenerados() {
+        return reportes.sum();
+    }
+
+    @Override
+    public double getMilisegundosReportes() {
+        return nanosReportes.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Publica estas métricas y un histograma por tipo en el servidor de MBeans de la plataforma.
+     *
+     * @throws IllegalStateException si ya había métricas publicadas con el mismo nombre.
+     */
+    public void registrarEnJmx() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            servidor.registerMBean(this, new ObjectName(DOMINIO_JMX + ":type=MetricasCalificacion"));
+            for (Map.Entry<TipoEvaluacion, HistogramaLatencia> entrada : latenciasPorTipo.entrySet()) {
+                servidor.registerMBean(entrada.getValue(),
+                        new ObjectName(DOMINIO_JMX + ":type=LatenciaCalificacion,tipo=" + entrada.getKey()));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudieron publicar las métricas por JMX", e);
+        }
+    }
+
+    /**
+     * Resumen legible de todas las métricas, una sección por línea.
+     */
+    public String resumen() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format(Locale.ROOT, "  cola: %d pendientes, %d encoladas, %d desencoladas%n",
+                getPendientes(), getEncoladas(), getDesencoladas()));
+        texto.append(String.format(Locale.ROOT, "  repositorio: %d almacenadas, %d registradas, %d duplicadas rechazadas%n",
+                getAlmacenadas(), getRegistradas(), getDuplicadasRechazadas()));
+        long bytes = getBytesAlmacenEstimados();
+        if (bytes >= 0) {
+            texto.append(String.format(Locale.ROOT, "  almacén: ~%.1f MB estimados%n",
+                    bytes / (1024.0 * 1024.0)));
+        }
+        for (Map.Entry<TipoEvaluacion, HistogramaLatencia> entrada : latenciasPorTipo.entrySet()) {
+            HistogramaLatencia histograma = entrada.getValue();
+            texto.append(String.format(Locale.ROOT, "  calificación %-7s: %d, p50 %.2f µs, p99 %.2f µs, máx %.2f µs%n",
+                    entrada.getKey(), histograma.getCantidad(), histograma.getP50Nanos() / 1_000.0,
+                    histograma.getP99Nanos() / 1_000.0, histograma.getMaximoNanos() / 1_000.0));
+        }
+        // Con carriles, la espera de cada uno muestra si las baratas quedan detrás de las abiertas
+        if (colaObservada instanceof PlanificadorCorreccion planificador) {
+            texto.append(planificador.resumen());
+        }
+        texto.append(String.format(Locale.ROOT, "  reportes: %d en %.2f ms%n", getReportesGenerados(), getMilisegundosReportes()));
+        return texto.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.caso5;
+
+/**
+ * Contadores del proceso de corrección publicados por JMX.
+ */
+public interface MetricasCalificacionMBean {
+
+    long getEncoladas();
+
+    long getDesencoladas();
+
+    int getPendientes();
+
+    long getRegistradas();
+
+    long getDuplicadasRechazadas();
+
+    int getAlmacenadas();
+
+    long getBytesAlmacenEstimados();
+
+    long getCalificadas();
+
+    long getReportesGenerados();
+
+    double getMilisegundosReportes();
+}
@@ -0,0 +1,380 @@
+package com.caso5;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecución sin menú: simula o importa, corrige y escribe el reporte en un solo paso, y al final
+ * muestra la duración de cada fase. Se usa cuando {@link Aplicacion} recibe argumentos. Con
+ * {@code --desde-instantanea} el reporte sale de una instantánea ya escrita, proyectada en memoria.
+ * <p>
+ * Opciones (cada una como {@code --opcion valor} o {@code --opcion=valor}):
+ * <pre>
+ *   --cantidad N        evaluaciones a simular (5000 si no se importa)
+ *   --hilos N           hilos del simulador, el importador y el motor (núcleos disponibles)
+ *   --semilla N         semilla del simulador, para repetir una corrida
+ *   --claves ARCHIVO    claves a importar antes de las evaluaciones
+ *   --entrada ARCHIVO   evaluaciones a importar en lugar de simularlas (CSV o JSONL)
+ *   --reporte ARCHIVO   archivo del reporte ordenado; "-" para la salida estándar
+ *   --top N             filas del reporte (todas)
+ *   --almacen MODO      "mapa" o "columnar" (columnar)
+ *   --cola MODO         "fifo" o "carriles", con un carril ponderado por tipo (fifo)
+ *   --instantanea ARCH  escribe una instantánea del repositorio al terminar
+ *   --tuberia N         simula y corrige a la vez con hasta N evaluaciones en vuelo
+ *   --particiones N     reparte por UUID entre N repositorios y colas, cada uno con su hilo
+ *   --desde-instantanea ARCH
+ *                       escribe el reporte desde una instantánea, sin simular ni importar
+ *   --ayuda             muestra estas opciones
+ * </pre>
+ */
+final class ModoLote {
+
+    private static final int CANTIDAD_POR_DEFECTO = 5_000;
+    private static final String SALIDA_ESTANDAR = "-";
+
+    // Código de salida para argumentos inválidos y para fallos de la corrida
+    static final int ERROR_ARGUMENTOS = 2;
+    static final int ERROR_EJECUCION = 1;
+
+    private ModoLote() {
+    }
+
+    /**
+     * Opciones leídas de la línea de comandos.
+     */
+    record Opciones(
+            int cantidad,
+            int hilos,
+            Long semilla,
+            Path claves,
+            Path entrada,
+            String reporte,
+            int top,
+            String almacen,
+            String cola,
+            Path instantanea,
+            int tuberia,
+            int particiones,
+            Path desdeInstantanea
+    ) {
+
+        static Opciones leer(String[] args) {
+            int cantidad = -1;
+            int hilos = Runtime.getRuntime().availableProcessors();
+            Long semilla = null;
+            Path claves = null;
+            Path entrada = null;
+            String reporte = null;
+            int top = Integer.MAX_VALUE;
+            String almacen = "columnar";
+            String cola = "fifo";
+            Path instantanea = null;
+            int tuberia = 0;
+            int particiones = 0;
+            Path desdeInstantanea = null;
+            for (int i = 0; i < args.length; i++) {
+                String nombre = args[i];
+                String valor;
+                int igual = nombre.indexOf('=');
+                if (igual >= 0) {
+                    valor = nombre.substring(igual + 1);
+                    nombre = nombre.substring(0, igual);
+                } else if (i + 1 < args.length) {
+                    valor = args[++i];
+                } else {
+                    throw new IllegalArgumentException("Falta el valor de " + nombre);
+                }
+                switch (nombre) {
+                    case "--cantidad" -> cantidad = positivo(nombre, valor);
+                    case "--hilos" -> hilos = positivo(nombre, valor);
+                    case "--semilla" -> semilla = numero(nombre, valor);
+                    case "--claves" -> claves = Path.of(valor);
+                    case "--entrada" -> entrada = Path.of(valor);
+                    case "--reporte" -> reporte = valor;
+                    case "--top" -> top = positivo(nombre, valor);
+                    case "--almacen" -> almacen = valor;
+                    case "--cola" -> cola = valor;
+                    case "--instantanea" -> instantanea = Path.of(valor);
+                    case "--tuberia" -> tuberia = positivo(nombre, valor);
+                    case "--particiones" -> particiones = positivo(nombre, valor);
+                    case "--desde-instantanea" -> desdeInstantanea = Path.of(valor);
+                    default -> throw new IllegalArgumentException("Opción desconocida: " + nombre);
+                }
+            }
+            if (entrada != null && cantidad >= 0) {
+                throw new IllegalArgumentException("--cantidad y --entrada no se pueden usar juntas");
+            }
+            if (entrada != null && tuberia > 0) {
+                throw new IllegalArgumentException("--tuberia solo se usa al simular");
+            }
+            if (entrada == null && claves != null) {
+                throw new IllegalArgumentException("--claves requiere --entrada");
+            }
+            if (!almacen.equals("mapa") && !almacen.equals("columnar")) {
+                throw new IllegalArgumentException("Modo de repositorio desconocido: " + almacen);
+            }
+            if (!cola.equals("fifo") && !cola.equals("carriles")) {
+                throw new IllegalArgumentException("Modo de cola desconocido: " + cola);
+            }
+            if (cola.equals("carriles") && tuberia > 0) {
+                throw new IllegalArgumentException("--tuberia usa su propia cola acotada; no admite --cola carriles");
+            }
+            if (particiones > 0 && tuberia > 0) {
+                throw new IllegalArgumentException("--tuberia usa una sola cola acotada; no admite --particiones");
+            }
+            // El resumen de espera por carril solo se arma con una única cola
+            if (particiones > 0 && cola.equals("carriles")) {
+                throw new IllegalArgumentException("--particiones usa una cola FIFO por partición; no admite --cola carriles");
+            }
+            if (desdeInstantanea != null) {
+                if (entrada != null || cantidad >= 0 || tuberia > 0 || particiones > 0 || instantanea != null) {
+                    throw new IllegalArgumentException("--desde-instantanea no simula ni importa; solo admite --reporte y --top");
+                }
+                if (reporte == null) {
+                    throw new IllegalArgumentException("--desde-instantanea requiere --reporte");
+                }
+            } else if (entrada == null && cantidad < 0) {
+                cantidad = CANTIDAD_POR_DEFECTO;
+            }
+            return new Opciones(cantidad, hilos, semilla, claves, entrada, reporte, top, almacen, cola, instantanea, tuberia,
+                    particiones, desdeInstantanea);
+        }
+
+        private static int positivo(String nombre, String valor) {
+            long numero = numero(nombre, valor);
+            if (numero < 1 || numero > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(nombre + " debe ser un entero mayor a 0: " + valor);
+            }
+            return (int) numero;
+        }
+
+        private static long numero(String nombre, String valor) {
+            try {
+                return Long.parseLong(valor.replace("_", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(nombre + " debe ser un número: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Corre la tubería completa y devuelve el código de salida del proceso.
+     */
+    static int ejecutar(String[] args) {
+        if (args.length == 1 && (args[0].equals("--ayuda") || args[0].equals("-h"))) {
+            mostrarUso(System.out);
+            return 0;
+        }
+        Opciones opciones;
+        try {
+            opciones = Opciones.leer(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            mostrarUso(System.err);
+            return ERROR_ARGUMENTOS;
+        }
+        // Si el reporte sale por la salida estándar, los tiempos van a la de errores
+        PrintStream salida = SALIDA_ESTANDAR.equals(opciones.reporte()) ? System.err : System.out;
+        try {
+            ejecutar(opciones, salida);
+            return 0;
+        } catch (NoSuchFileException e) {
+            System.err.println("✗ No existe el archivo " + e.getFile());
+            return ERROR_EJECUCION;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("✗ La corrida falló: " + e.getMessage());
+            return ERROR_EJECUCION;
+        }
+    }
+
+    private static void ejecutar(Opciones opciones, PrintStream salida) throws IOException {
+        if (opciones.desdeInstantanea() != null) {
+            reportarDesdeInstantanea(opciones, salida);
+            return;
+        }
+        long inicioTotal = System.nanoTime();
+        MetricasCalificacion metricas = new MetricasCalificacion();
+        DiccionarioEstudiantes diccionario = new DiccionarioEstudiantes();
+        AlmacenEvaluaciones repositorio;
+        ColaEvaluaciones colaCorreccion;
+        ParticionesEvaluaciones particiones = null;
+        if (opciones.particiones() == 0) {
+            repositorio = metricas.instrumentar(crearAlmacen(opciones, diccionario));
+            colaCorreccion = metricas.instrumentar(crearCola(opciones));
+        } else {
+            // Cada partición se instrumenta por separado, sin contadores compartidos entre ellas y el enrutador
+            particiones = new ParticionesEvaluaciones(opciones.particiones(),
+                    () -> new AlmacenInstrumentado(crearAlmacen(opciones, diccionario), metricas),
+                    () -> new ColaInstrumentada(crearCola(opciones), metricas));
+            repositorio = particiones;
+            colaCorreccion = particiones.getCola();
+            metricas.observar(colaCorreccion, repositorio);
+        }
+        CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
+        GeneradorReporte generadorReporte = new GeneradorReporte();
+        generadorReporte.usarMetricas(metricas);
+        EstadisticasPuntajes estadisticas = new EstadisticasPuntajes(diccionario);
+
+        salida.printf("%-14s %12s %12s %14s%n", "fase", "filas", "ms", "filas/s");
+        try (MotorCalificacion motor = new MotorCalificacion(opciones.hilos())) {
+            motor.usarMetricas(metricas);
+            // Con particiones cada una acumula las suyas sin compartir candado y se combinan al final
+            List<EstadisticasPuntajes> estadisticasParticiones = new ArrayList<>();
+            if (particiones == null) {
+                motor.agregarOyente(estadisticas);
+            } else {
+                for (int i = 0; i < opciones.particiones(); i++) {
+                    estadisticasParticiones.add(new EstadisticasPuntajes(diccionario));
+                }
+            }
+
+            // Fase 1: simular o importar; con tubería, la corrección va en paralelo a la simulación
+            long inicio = System.nanoTime();
+            SimuladorEvaluaciones simulador = opciones.semilla() == null
+                    ? new SimuladorEvaluaciones()
+                    : new SimuladorEvaluaciones(opciones.semilla());
+            if (opciones.tuberia() > 0) {
+                TuberiaCalificacion tuberia = new TuberiaCalificacion(opciones.tuberia());
+                tuberia.usarMetricas(metricas);
+                TuberiaCalificacion.ResultadoTuberia resultado = tuberia.ejecutar(simulador, opciones.cantidad(),
+                        opciones.hilos(), repositorio, calificador, motor);
+                mostrarFase(salida, "tubería", resultado.calificacion().procesadas(), resultado.nanos());
+                HistogramaLatencia latencia = resultado.latencia();
+                salida.printf("  primer puntaje %.2f ms, máximo en vuelo %d, latencia p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                        resultado.milisegundosPrimerPuntaje(), resultado.maximoEnVuelo(), latencia.getP50Nanos() / 1e6,
+                        latencia.getP99Nanos() / 1e6, latencia.getMaximoNanos() / 1e6);
+            } else if (opciones.entrada() == null) {
+                simulador.generarEvaluacionesEnParalelo(
+                        opciones.cantidad(), opciones.hilos(), repositorio, calificador, colaCorreccion);
+                mostrarFase(salida, "generación", repositorio.cantidad(), System.nanoTime() - inicio);
+            } else {
+                ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, opciones.hilos());
+                importador.usarDiccionario(diccionario);
+                if (opciones.claves() != null) {
+                    mostrarImportacion(salida, "claves", importador.importarClaves(opciones.claves()));
+                }
+                mostrarImportacion(salida, "importación",
+                        importador.importarEvaluaciones(opciones.entrada(), repositorio, colaCorreccion));
+            }
+
+            // Fase 2: corregir lo que quedó en la cola
+            if (opciones.tuberia() == 0) {
+                ResultadoCalificacion resultado = particiones == null
+                        ? motor.procesar(colaCorreccion, calificador)
+                        : particiones.procesar(motor, calificador, estadisticasParticiones);
+                mostrarFase(salida, "calificación", resultado.procesadas(), resultado.nanos());
+            }
+            for (EstadisticasPuntajes parcial : estadisticasParticiones) {
+                estadisticas.combinar(parcial);
+            }
+        }
+
+        // Fase 3: ordenar y escribir el reporte
+        long inicio = System.nanoTime();
+        List<Evaluacion<?>> ordenadas = particiones == null
+                ? generadorReporte.generarListadoOrdenado(repositorio.listarTodas())
+                : particiones.generarListadoOrdenado(generadorReporte);
+        mostrarFase(salida, "ordenamiento", ordenadas.size(), System.nanoTime() - inicio);
+        if (opciones.reporte() != null) {
+            List<Evaluacion<?>> filas = ordenadas.subList(0, Math.min(opciones.top(), ordenadas.size()));
+            inicio = System.nanoTime();
+            escribirReporte(generadorReporte, filas, opciones.reporte());
+            mostrarFase(salida, "reporte", filas.size(), System.nanoTime() - inicio);
+        }
+
+        // Fase 4: instantánea opcional
+        if (opciones.instantanea() != null) {
+            inicio = System.nanoTime();
+            InstantaneaEvaluaciones.escribir(repositorio, opciones.instantanea());
+            mostrarFase(salida, "instantánea", repositorio.cantidad(), System.nanoTime() - inicio);
+        }
+        mostrarFase(salida, "total", repositorio.cantidad(), System.nanoTime() - inicioTotal);
+        salida.print(metricas.resumen());
+        for (TipoEvaluacion tipo : TipoEvaluacion.values()) {
+            EstadisticasPuntajes.Resumen resumen = estadisticas.porTipo(tipo);
+            salida.printf("  puntajes %-7s: %d, promedio %.2f, mín %.2f, p50 %.2f, p90 %.2f, máx %.2f%n", tipo,
+                    resumen.cantidad(), resumen.promedio(), resumen.minimo(), resumen.p50(), resumen.p90(), resumen.maximo());
+        }
+        salida.printf("  puntajes por estudiante: %d estudiantes%n", estadisticas.cantidadEstudiantes());
+        if (particiones != null) {
+            particiones.close();
+        }
+    }
+
+    // La instantánea ya trae el orden del reporte: se proyecta y se escribe sin ordenar ni cargar filas
+    private static void reportarDesdeInstantanea(Opciones opciones, PrintStream salida) throws IOException {
+        long inicioTotal = System.nanoTime();
+        salida.printf("%-14s %12s %12s %14s%n", "fase", "filas", "ms", "filas/s");
+        InstantaneaEvaluaciones instantanea = InstantaneaEvaluaciones.abrir(opciones.desdeInstantanea());
+        mostrarFase(salida, "apertura", instantanea.cantidad(), System.nanoTime() - inicioTotal);
+
+        List<Evaluacion<?>> ordenadas = instantanea.listarOrdenadas();
+        List<Evaluacion<?>> filas = ordenadas.subList(0, Math.min(opciones.top(), ordenadas.size()));
+        long inicio = System.nanoTime();
+        escribirReporte(new GeneradorReporte(), filas, opciones.reporte());
+        mostrarFase(salida, "reporte", filas.size(), System.nanoTime() - inicio);
+        mostrarFase(salida, "total", instantanea.cantidad(), System.nanoTime() - inicioTotal);
+    }
+
+    private static AlmacenEvaluaciones crearAlmacen(Opciones opciones, DiccionarioEstudiantes diccionario) {
+        return opciones.almacen().equals("mapa") ? new EvaluacionRepository() : new EvaluacionRepositoryColumnar(diccionario);
+    }
+
+    private static ColaEvaluaciones crearCola(Opciones opciones) {
+        return opciones.cola().equals("carriles") ? new PlanificadorCorreccion() : new ColaCorreccion();
+    }
+
+    private static void escribirReporte(GeneradorReporte generadorReporte, List<Evaluacion<?>> filas, String destino)
+            throws IOException {
+        if (SALIDA_ESTANDAR.equals(destino)) {
+            generadorReporte.escribirReporte(filas, System.out);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(Path.of(destino),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            generadorReporte.escribirReporte(filas, canal);
+        }
+    }
+
+    private static void mostrarImportacion(PrintStream salida, String fase, ImportadorEvaluaciones.ResultadoImportacion resultado) {
+        mostrarFase(salida, fase, resultado.importadas(), resultado.nanos());
+        if (resultado.duplicadas() > 0 || resultado.errores() > 0) {
+            salida.printf("  %d duplicadas, %d con errores%n", resultado.duplicadas(), resultado.errores());
+        }
+        for (String error : resultado.primerosErrores()) {
+            salida.println("  " + error);
+        }
+    }
+
+    private static void mostrarFase(PrintStream salida, String fase, long filas, long nanos) {
+        double porSegundo = nanos == 0 ? 0.0 : filas * 1_000_000_000.0 / nanos;
+        salida.printf("%-14s %12d %12.2f %14.0f%n", fase, filas, nanos / 1_000_000.0, porSegundo);
+    }
+
+    static void mostrarUso(PrintStream salida) {
+        salida.println("""
+                Uso: java -jar caso5-estructuras-1.0-SNAPSHOT.jar [opciones]
+                Sin opciones se abre el menú interactivo.
+                  --cantidad N        evaluaciones a simular (5000 si no se importa)
+                  --hilos N           hilos del simulador, el importador y el motor
+                  --semilla N         semilla del simulador
+                  --claves ARCHIVO    claves a importar antes de las evaluaciones
+                  --entrada ARCHIVO   evaluaciones a importar en lugar de simularlas (CSV o JSONL)
+                  --reporte ARCHIVO   archivo del reporte ordenado; "-" para la salida estándar
+                  --top N             filas del reporte (todas)
+                  --almacen MODO      mapa o columnar (columnar)
+                  --cola MODO         fifo o carriles, con un carril ponderado por tipo (fifo)
+                  --instantanea ARCH  escribe una instantánea del repositorio al terminar
+                  --tuberia N         simula y corrige a la vez con hasta N evaluaciones en vuelo
+                  --particiones N     reparte por UUID entre N repositorios y colas, cada uno con su hilo
+                  --desde-instantanea ARCH
+                                      escribe el reporte desde una instantánea, sin simular ni importar
+                  --ayuda             muestra estas opciones""");
+    }
+}
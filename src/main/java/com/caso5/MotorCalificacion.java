@@ -0,0 +1,215 @@
+package com.caso5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Vacía la cola de corrección en paralelo usando un grupo de hilos calificadores.
+ */
+public class MotorCalificacion implements AutoCloseable {
+
+    // Evaluaciones que cada trabajador toma de la cola en una sola operación
+    static final int TAMANO_LOTE = 256;
+    // Pausa de un trabajador que encuentra la cola vacía mientras se sigue produciendo
+    private static final long ESPERA_PRODUCCION_NANOS = 50_000L;
+
+    // Hilos que corrigen de manera simultánea
+    private final ExecutorService ejecutor;
+    // Cantidad de trabajadores lanzados en cada procesamiento
+    private final int hilos;
+    // Índices y observadores avisados cada vez que cambia un puntaje
+    private final List<OyenteCalificacion> oyentes = new CopyOnWriteArrayList<>();
+    // Métricas opcionales de latencia por tipo; null si no se miden
+    private volatile MetricasCalificacion metricas;
+
+    /**
+     * Crea un motor con hilos de plataforma.
+     *
+     * @param hilos cantidad de trabajadores, mayor a cero.
+     */
+    public MotorCalificacion(int hilos) {
+        this(hilos, fabricaPorDefecto());
+    }
+
+    /**
+     * Crea un motor con la fábrica de hilos indicada (por ejemplo, una fábrica de hilos virtuales).
+     *
+     * @param hilos  cantidad de trabajadores, mayor a cero.
+     * @param fabrica fábrica usada para crear los hilos del motor.
+     */
+    public MotorCalificacion(int hilos, ThreadFactory fabrica) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser mayor a 0");
+        }
+        this.hilos = hilos;
+        this.ejecutor = Executors.newFixedThreadPool(hilos, Objects.requireNonNull(fabrica));
+    }
+
+    public int getHilos() {
+        return hilos;
+    }
+
+    /**
+     * Suscribe un oyente a todas las calificaciones hechas por el motor o con {@link #asignarPuntaje}.
+     */
+    public void agregarOyente(OyenteCalificacion oyente) {
+        oyentes.add(Objects.requireNonNull(oyente));
+    }
+
+    public void quitarOyente(OyenteCalificacion oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Mide la latencia de cada calificación por tipo de evaluación.
+     */
+    public void usarMetricas(MetricasCalificacion metricas) {
+        this.metricas = Objects.requireNonNull(metricas);
+    }
+
+    /**
+     * Asigna un puntaje fuera de la cola (por ejemplo, una nota manual) y avisa a los oyentes.
+     */
+    public void asignarPuntaje(Evaluacion<?> evaluacion, double puntaje) {
+        double anterior = evaluacion.actualizarPuntaje(puntaje);
+        for (OyenteCalificacion oyente : oyentes) {
+            oyente.puntajeActualizado(evaluacion, anterior);
+        }
+    }
+
+    /**
+     * Corrige todas las evaluaciones pendientes y espera a que los trabajadores terminen.
+     *
+     * @param colaCorreccion cola compartida con las evaluaciones por corregir.
+     * @param calificador    calculadora de puntajes.
+     * @return resumen con la cantidad procesada y el tiempo empleado.
+     */
+    public ResultadoCalificacion procesar(ColaEvaluaciones colaCorreccion, CalificadorEvaluaciones calificador) {
+        return procesarHasta(colaCorreccion, calificador, () -> true);
+    }
+
+    /**
+     * Corrige mientras otros hilos siguen encolando: un trabajador que encuentra la cola vacía
+     * espera y vuelve a intentar, y solo termina cuando la producción terminó y no quedan pendientes.
+     *
+     * @param colaCorreccion      cola compartida con los productores.
+     * @param calificador         calculadora de puntajes.
+     * @param produccionTerminada pasa a {@code true} después del último {@code encolar}.
+     * @return resumen con la cantidad procesada y el tiempo empleado.
+     */
+    public ResultadoCalificacion procesarHasta(
+            ColaEvaluaciones colaCorreccion,
+            CalificadorEvaluaciones calificador,
+            BooleanSupplier produccionTerminada
+    ) {
+        List<Callable<Integer>> trabajadores = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            trabajadores.add(() -> drenar(colaCorreccion, calificador, produccionTerminada));
+        }
+
+        long inicio = System.nanoTime();
+        int procesadas = 0;
+        try {
+            for (Future<Integer> resultado : ejecutor.invokeAll(trabajadores)) {
+                procesadas += resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La calificación fue interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException excepcion) {
+                throw excepcion;
+            }
+            throw new IllegalStateException("Falló un hilo calificador", causa);
+        }
+        return new ResultadoCalificacion(procesadas, System.nanoTime() - inicio, hilos);
+    }
+
+    // Cada trabajador toma lotes con un búfer reutilizable hasta que la cola queda vacía
+    // (y la producción terminó) y avisa a los oyentes una vez por lote.
+    int drenar(ColaEvaluaciones colaCorreccion, CalificadorEvaluaciones calificador, BooleanSupplier produccionTerminada) {
+        return drenar(colaCorreccion, calificador, produccionTerminada, null);
+    }
+
+    // Las particiones lo llaman desde sus propios hilos, cada una con su cola y, si lo indican, un
+    // oyente propio que solo ese hilo avisa, además de los oyentes del motor
+    int drenar(
+            ColaEvaluaciones colaCorreccion,
+            CalificadorEvaluaciones calificador,
+            BooleanSupplier produccionTerminada,
+            OyenteCalificacion oyenteParticion
+    ) {
+        Evaluacion<?>[] lote = new Evaluacion<?>[TAMANO_LOTE];
+        double[] anteriores = new double[TAMANO_LOTE];
+        MetricasCalificacion medicion = metricas;
+        int procesadas = 0;
+        while (true) {
+            int tomadas = colaCorreccion.tomarLote(lote, TAMANO_LOTE);
+            if (tomadas == 0) {
+                // Se consulta la marca antes de reintentar: lo encolado antes de ella ya es visible
+                if (!produccionTerminada.getAsBoolean()) {
+                    LockSupport.parkNanos(ESPERA_PRODUCCION_NANOS);
+                    continue;
+                }
+                tomadas = colaCorreccion.tomarLote(lote, TAMANO_LOTE);
+                if (tomadas == 0) {
+                    break;
+                }
+            }
+            if (medicion == null) {
+                for (int i = 0; i < tomadas; i++) {
+                    Evaluacion<?> evaluacion = lote[i];
+                    anteriores[i] = evaluacion.actualizarPuntaje(calificador.calificar(evaluacion));
+                }
+            } else {
+                for (int i = 0; i < tomadas; i++) {
+                    Evaluacion<?> evaluacion = lote[i];
+                    long inicio = System.nanoTime();
+                    double puntaje = calificador.calificar(evaluacion);
+                    medicion.registrarCalificacion(evaluacion.getTipo(), System.nanoTime() - inicio);
+                    anteriores[i] = evaluacion.actualizarPuntaje(puntaje);
+                }
+            }
+            for (OyenteCalificacion oyente : oyentes) {
+                oyente.lotePuntajesActualizados(lote, anteriores, tomadas);
+            }
+            if (oyenteParticion != null) {
+                oyenteParticion.lotePuntajesActualizados(lote, anteriores, tomadas);
+            }
+            Arrays.fill(lote, 0, tomadas, null);
+            procesadas += tomadas;
+        }
+        return procesadas;
+    }
+
+    /**
+     * Detiene los hilos del motor.
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+    }
+
+    // Hilos demonio con nombre para que no impidan la salida de la JVM
+    private static ThreadFactory fabricaPorDefecto() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "calificador-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.caso5;
+
+import java.util.Arrays;
+
+/**
+ * Ordenamiento radix LSD sobre claves primitivas para los listados por puntaje.
+ * <p>
+ * Devuelve una permutación de filas ordenada por (puntaje desc, llegada asc). Es estable, nunca
+ * descarta filas con claves repetidas y se salta las pasadas en las que todos los bytes coinciden,
+ * lo que es habitual en los bytes altos del orden de llegada.
+ */
+final class OrdenamientoRadix {
+
+    private OrdenamientoRadix() {
+    }
+
+    /**
+     * @param puntajes puntaje de cada fila.
+     * @param ordenes  orden de llegada de cada fila.
+     * @param cantidad filas a ordenar (prefijo de ambos arreglos).
+     * @return índices de fila en el orden del reporte; las filas con ambas claves iguales
+     * conservan su posición relativa original.
+     */
+    static int[] permutacionPorPuntaje(double[] puntajes, long[] ordenes, int cantidad) {
+        int[] permutacion = new int[cantidad];
+        int[] permutacionAux = new int[cantidad];
+        long[] claves = new long[cantidad];
+        long[] clavesAux = new long[cantidad];
+
+        // Primero por la clave secundaria (llegada ascendente)...
+        for (int i = 0; i < cantidad; i++) {
+            permutacion[i] = i;
+            claves[i] = ordenes[i] ^ Long.MIN_VALUE;
+        }
+        if (ordenarPorClave(permutacion, claves, permutacionAux, clavesAux)) {
+            int[] temporal = permutacion;
+            permutacion = permutacionAux;
+            permutacionAux = temporal;
+        }
+
+        // ...y luego, de forma estable, por la principal (puntaje descendente)
+        for (int i = 0; i < cantidad; i++) {
+            claves[i] = claveDescendente(puntajes[permutacion[i]]);
+        }
+        if (ordenarPorClave(permutacion, claves, permutacionAux, clavesAux)) {
+            permutacion = permutacionAux;
+        }
+        return permutacion;
+    }
+
+    /**
+     * Convierte un double en un entero sin signo cuyo orden ascendente es el orden descendente del double.
+     */
+    static long claveDescendente(double valor) {
+        // Sumar 0.0 unifica -0.0 y 0.0
+        long bits = Double.doubleToLongBits(valor + 0.0);
+        long ascendente = bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        return ~ascendente;
+    }
+
+    // Ocho pasadas de un byte sobre claves sin signo alineadas con la permutación.
+    // Devuelve true si el resultado quedó en los arreglos auxiliares.
+    private static boolean ordenarPorClave(int[] permutacion, long[] claves, int[] permutacionAux, long[] clavesAux) {
+        int cantidad = permutacion.length;
+        int[] conteo = new int[257];
+        boolean enAuxiliar = false;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 8) {
+            int[] origenPermutacion = enAuxiliar ? permutacionAux : permutacion;
+            long[] origenClaves = enAuxiliar ? clavesAux : claves;
+            int[] destinoPermutacion = enAuxiliar ? permutacion : permutacionAux;
+            long[] destinoClaves = enAuxiliar ? claves : clavesAux;
+
+            Arrays.fill(conteo, 0);
+            for (int i = 0; i < cantidad; i++) {
+                conteo[(int) (origenClaves[i] >>> desplazamiento) & 0xFF]++;
+            }
+            if (cantidad == 0 || conteo[(int) (origenClaves[0] >>> desplazamiento) & 0xFF] == cantidad) {
+                continue; // Todas las claves comparten este byte
+            }
+            int acumulado = 0;
+            for (int b = 0; b < 256; b++) {
+                int actual = conteo[b];
+                conteo[b] = acumulado;
+                acumulado += actual;
+            }
+            for (int i = 0; i < cantidad; i++) {
+                long clave = origenClaves[i];
+                int destino = conteo[(int) (clave >>> desplazamiento) & 0xFF]++;
+                destinoPermutacion[destino] = origenPermutacion[i];
+                destinoClaves[destino] = clave;
+            }
+            enAuxiliar = !enAuxiliar;
+        }
+        return enAuxiliar;
+    }
+}
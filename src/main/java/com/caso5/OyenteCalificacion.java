@@ -0,0 +1,47 @@
+package com.caso5;
+
+/**
+ * Recibe aviso cada vez que una evaluación obtiene o cambia su puntaje.
+ */
+@FunctionalInterface
+public interface OyenteCalificacion {
+
+    /**
+     * @param evaluacion      evaluación con el puntaje ya actualizado.
+     * @param puntajeAnterior puntaje previo, o {@link Double#NaN} si es la primera calificación.
+     */
+    void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior);
+
+    /**
+     * Avisa de un lote completo; los oyentes pueden sobrescribirlo para procesarlo de una vez.
+     *
+     * @param lote       evaluaciones calificadas en las primeras {@code cantidad} posiciones.
+     * @param anteriores puntajes previos en las mismas posiciones.
+     * @param cantidad   elementos válidos del lote.
+     */
+    default void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            puntajeActualizado(lote[i], anteriores[i]);
+        }
+    }
+
+    /**
+     * Oyente que avisa primero a este y después a {@code otro}, con los lotes completos.
+     */
+    default OyenteCalificacion y(OyenteCalificacion otro) {
+        OyenteCalificacion primero = this;
+        return new OyenteCalificacion() {
+            @Override
+            public void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+                primero.puntajeActualizado(evaluacion, puntajeAnterior);
+                otro.puntajeActualizado(evaluacion, puntajeAnterior);
+            }
+
+            @Override
+            public void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+                primero.lotePuntajesActualizados(lote, anteriores, cantidad);
+                otro.lotePuntajesActualizados(lote, anteriores, cantidad);
+            }
+        };
+    }
+}
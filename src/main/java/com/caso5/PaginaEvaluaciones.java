@@ -0,0 +1,68 @@
+package com.caso5;
+
+import java.util.List;
+
+/**
+ * Una página de evaluaciones y el cursor para pedir la siguiente.
+ * <p>
+ * El cursor es un texto opaco que identifica dónde quedó la página, no una copia de lo recorrido:
+ * se puede guardar y usar más tarde, y la siguiente página empieza justo después aunque entretanto
+ * se hayan registrado evaluaciones nuevas.
+ *
+ * @param evaluaciones evaluaciones de la página, en el orden del recorrido.
+ * @param siguiente    cursor de la página siguiente, o {@code null} si esta es la última.
+ */
+public record PaginaEvaluaciones(List<Evaluacion<?>> evaluaciones, String siguiente) {
+
+    // Prefijo de los cursores que guardan una posición en orden de inserción
+    private static final char PREFIJO_POSICION = 'p';
+
+    public boolean hayMas() {
+        return siguiente != null;
+    }
+
+    /**
+     * Arma la página de un recorrido por posiciones que llegó hasta {@code hasta} de {@code total}.
+     */
+    static PaginaEvaluaciones porPosicion(List<Evaluacion<?>> evaluaciones, int hasta, int total) {
+        return new PaginaEvaluaciones(evaluaciones, hasta < total ? cursorPosicion(hasta) : null);
+    }
+
+    /**
+     * Cursor que retoma un recorrido por posiciones en {@code posicion}.
+     */
+    static String cursorPosicion(int posicion) {
+        return PREFIJO_POSICION + Integer.toString(posicion, 36);
+    }
+
+    /**
+     * Lee un cursor por posición.
+     *
+     * @param cursor texto devuelto en una página anterior, o {@code null} para empezar.
+     * @return posición de la primera evaluación de la página.
+     * @throws IllegalArgumentException si el cursor no es de este tipo de recorrido.
+     */
+    static int leerPosicion(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        if (cursor.length() < 2 || cursor.charAt(0) != PREFIJO_POSICION) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        try {
+            int posicion = Integer.parseInt(cursor, 1, cursor.length(), 36);
+            if (posicion < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return posicion;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    static void validarTamano(int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamano);
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.caso5;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Reparte las evaluaciones por UUID entre particiones independientes, cada una con su propio
+ * repositorio, su propia cola de corrección y un hilo dueño que la califica.
+ * <p>
+ * No hay candado global: registrar, encolar y calificar solo toman el de la partición de la
+ * evaluación, así la ingesta desde varios hilos y la calificación escalan con los núcleos mientras
+ * los identificadores se repartan parejo (los UUID aleatorios lo hacen). Como
+ * {@link AlmacenEvaluaciones} funciona de enrutador: las operaciones por id van a su partición, y
+ * {@link #listarTodas()} y {@link #paginar} intercalan las particiones por orden de llegada.
+ * {@link #getCola()} enruta igual las evaluaciones que encolan el simulador o el importador.
+ * <p>
+ * {@link #procesar} vacía cada cola en el hilo de su partición con el {@link MotorCalificacion}
+ * indicado, que aporta las métricas y los oyentes compartidos. Los oyentes con candado propio,
+ * como {@link EstadisticasPuntajes}, conviene pasarlos uno por partición y combinarlos al final:
+ * registrados en el motor, todas las particiones se turnarían su candado. El listado del reporte se ordena por partición
+ * en esos mismos hilos y se combina con {@link GeneradorReporte#combinarListados}.
+ */
+public final class ParticionesEvaluaciones implements AlmacenEvaluaciones, AutoCloseable {
+
+    // Prefijo de los cursores con una posición por partición, separadas por punto
+    private static final char PREFIJO_CURSOR = 's';
+    private static final String SEPARADOR_CURSOR = ".";
+
+    private final AlmacenEvaluaciones[] almacenes;
+    private final ColaEvaluaciones[] colas;
+    // Un hilo por partición: solo él califica y ordena lo de su partición
+    private final ExecutorService[] duenos;
+    private final ColaEvaluaciones colaEnrutada = new ColaEnrutada();
+
+    /**
+     * Crea particiones con {@link EvaluacionRepository} y {@link ColaCorreccion}.
+     *
+     * @param particiones cantidad de particiones, mayor a cero.
+     */
+    public ParticionesEvaluaciones(int particiones) {
+        this(particiones, EvaluacionRepository::new, ColaCorreccion::new);
+    }
+
+    /**
+     * @param particiones      cantidad de particiones, mayor a cero.
+     * @param fabricaAlmacenes crea el repositorio vacío de cada partición.
+     * @param fabricaColas     crea la cola vacía de cada partición.
+     */
+    public ParticionesEvaluaciones(
+            int particiones,
+            Supplier<? extends AlmacenEvaluaciones> fabricaAlmacenes,
+            Supplier<? extends ColaEvaluaciones> fabricaColas
+    ) {
+        if (particiones < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser mayor a 0");
+        }
+        almacenes = new AlmacenEvaluaciones[particiones];
+        colas = new ColaEvaluaciones[particiones];
+        duenos = new ExecutorService[particiones];
+        for (int i = 0; i < particiones; i++) {
+            almacenes[i] = Objects.requireNonNull(fabricaAlmacenes.get());
+            colas[i] = Objects.requireNonNull(fabricaColas.get());
+            String nombre = "particion-" + (i + 1);
+            // Hilos demonio con nombre para que no impidan la salida de la JVM
+            duenos[i] = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, nombre);
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+    }
+
+    public int cantidadParticiones() {
+        return almacenes.length;
+    }
+
+    /**
+     * Partición a la que pertenece el identificador; siempre la misma para el mismo id.
+     */
+    public int particionDe(UUID identificador) {
+        int dispersion = identificador.hashCode();
+        dispersion ^= dispersion >>> 16;
+        return (dispersion & Integer.MAX_VALUE) % almacenes.length;
+    }
+
+    /**
+     * Repositorio de una partición, para consultarla o recorrerla por separado.
+     */
+    public AlmacenEvaluaciones almacen(int particion) {
+        return almacenes[particion];
+    }
+
+    public ColaEvaluaciones cola(int particion) {
+        return colas[particion];
+    }
+
+    /**
+     * Cola que encola cada evaluación en su partición y toma de las particiones por turnos.
+     */
+    public ColaEvaluaciones getCola() {
+        return colaEnrutada;
+    }
+
+    /**
+     * Almacena la evaluación en su partición y encola la instancia almacenada en la misma.
+     *
+     * @return {@code false} si el identificador ya existía.
+     */
+    public boolean encaminar(Evaluacion<?> evaluacion) {
+        int particion = particionDe(evaluacion.getId());
+        Evaluacion<?> almacenada = almacenes[particion].almacenar(evaluacion);
+        if (almacenada == null) {
+            return false;
+        }
+        colas[particion].encolar(almacenada);
+        return true;
+    }
+
+    /**
+     * Agrupa el lote por partición y almacena y encola cada grupo de una vez.
+     *
+     * @return cantidad de evaluaciones almacenadas.
+     */
+    public int encaminarLote(Evaluacion<?>[] lote, int cantidad) {
+        int[] tamanos = new int[almacenes.length];
+        Evaluacion<?>[][] grupos = agrupar(lote, cantidad, new int[cantidad], tamanos);
+        int almacenadas = 0;
+        for (int particion = 0; particion < grupos.length; particion++) {
+            if (tamanos[particion] > 0) {
+                int enGrupo = almacenes[particion].almacenarLote(grupos[particion], tamanos[particion]);
+                colas[particion].encolarLote(grupos[particion], enGrupo);
+                almacenadas += enGrupo;
+            }
+        }
+        return almacenadas;
+    }
+
+    // Reparte el lote por partición conservando el orden; deja la partición de cada posición
+    // en particiones y el largo de cada grupo en tamanos
+    private Evaluacion<?>[][] agrupar(Evaluacion<?>[] lote, int cantidad, int[] particiones, int[] tamanos) {
+        for (int i = 0; i < cantidad; i++) {
+            particiones[i] = particionDe(lote[i].getId());
+            tamanos[particiones[i]]++;
+        }
+        Evaluacion<?>[][] grupos = new Evaluacion<?>[almacenes.length][];
+        for (int particion = 0; particion < grupos.length; particion++) {
+            grupos[particion] = new Evaluacion<?>[tamanos[particion]];
+            tamanos[particion] = 0;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            grupos[particiones[i]][tamanos[particiones[i]]++] = lote[i];
+        }
+        return grupos;
+    }
+
+    @Override
+    public boolean registrar(Evaluacion<?> evaluacion) {
+        return almacenes[particionDe(evaluacion.getId())].registrar(evaluacion);
+    }
+
+    @Override
+    public Evaluacion<?> almacenar(Evaluacion<?> evaluacion) {
+        return almacenes[particionDe(evaluacion.getId())].almacenar(evaluacion);
+    }
+
+    /**
+     * Almacena cada grupo en su partición y vuelve a intercalar las almacenadas en el orden del lote.
+     */
+    @Override
+    public int almacenarLote(Evaluacion<?>[] lote, int cantidad) {
+        int[] particiones = new int[cantidad];
+        int[] tamanos = new int[almacenes.length];
+        Evaluacion<?>[][] grupos = agrupar(lote, cantidad, particiones, tamanos);
+        int[] almacenadas = new int[almacenes.length];
+        for (int particion = 0; particion < grupos.length; particion++) {
+            if (tamanos[particion] > 0) {
+                almacenadas[particion] = almacenes[particion].almacenarLote(grupos[particion], tamanos[particion]);
+            }
+        }
+        // Cada grupo conserva sus almacenadas en orden: una posición del lote quedó almacenada si
+        // la siguiente almacenada de su grupo tiene su mismo id (los duplicados se saltan)
+        int[] siguientes = new int[almacenes.length];
+        int total = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int particion = particiones[i];
+            int siguiente = siguientes[particion];
+            if (siguiente < almacenadas[particion] && grupos[particion][siguiente].getId().equals(lote[i].getId())) {
+                lote[total++] = grupos[particion][siguiente];
+                siguientes[particion]++;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Evaluacion<?> buscar(UUID identificador) {
+        return almacenes[particionDe(identificador)].buscar(identificador);
+    }
+
+    /**
+     * Vista de todas las particiones intercaladas por orden de llegada; dentro de cada partición
+     * se respeta su orden de inserción.
+     */
+    @Override
+    public Collection<Evaluacion<?>> listarTodas() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Evaluacion<?>> iterator() {
+                return new Intercalado();
+            }
+
+            @Override
+            public int size() {
+                return cantidad();
+            }
+        };
+    }
+
+    /**
+     * Página en el orden de {@link #listarTodas()}. El cursor guarda la posición alcanzada en cada
+     * partición, así sigue siendo válido mientras se registran evaluaciones.
+     */
+    @Override
+    public PaginaEvaluaciones paginar(String cursor, int tamano) {
+        PaginaEvaluaciones.validarTamano(tamano);
+        int[] posiciones = leerCursor(cursor);
+        int particiones = almacenes.length;
+        // Cada partición aporta a lo sumo una página desde su posición
+        List<List<Evaluacion<?>>> tramos = new ArrayList<>(particiones);
+        boolean quedan = false;
+        Evaluacion<?>[] frentes = new Evaluacion<?>[particiones];
+        int[] usadas = new int[particiones];
+        for (int particion = 0; particion < particiones; particion++) {
+            PaginaEvaluaciones pagina = almacenes[particion].paginar(
+                    PaginaEvaluaciones.cursorPosicion(posiciones[particion]), tamano);
+            tramos.add(pagina.evaluaciones());
+            quedan |= pagina.hayMas();
+            frentes[particion] = pagina.evaluaciones().isEmpty() ? null : pagina.evaluaciones().get(0);
+        }
+        List<Evaluacion<?>> evaluaciones = new ArrayList<>(tamano);
+        while (evaluaciones.size() < tamano) {
+            int particion = elegir(frentes);
+            if (particion < 0) {
+                break;
+            }
+            evaluaciones.add(frentes[particion]);
+            posiciones[particion]++;
+            List<Evaluacion<?>> tramo = tramos.get(particion);
+            int usada = ++usadas[particion];
+            frentes[particion] = usada < tramo.size() ? tramo.get(usada) : null;
+        }
+        for (Evaluacion<?> frente : frentes) {
+            quedan |= frente != null;
+        }
+        return new PaginaEvaluaciones(evaluaciones, quedan ? escribirCursor(posiciones) : null);
+    }
+
+    private String escribirCursor(int[] posiciones) {
+        StringBuilder cursor = new StringBuilder().append(PREFIJO_CURSOR);
+        for (int i = 0; i < posiciones.length; i++) {
+            if (i > 0) {
+                cursor.append(SEPARADOR_CURSOR);
+            }
+            cursor.append(Integer.toString(posiciones[i], 36));
+        }
+        return cursor.toString();
+    }
+
+    private int[] leerCursor(String cursor) {
+        int[] posiciones = new int[almacenes.length];
+        if (cursor == null) {
+            return posiciones;
+        }
+        if (cursor.length() < 2 || cursor.charAt(0) != PREFIJO_CURSOR) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        String[] partes = cursor.substring(1).split("\\" + SEPARADOR_CURSOR, -1);
+        if (partes.length != posiciones.length) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        try {
+            for (int i = 0; i < partes.length; i++) {
+                posiciones[i] = Integer.parseInt(partes[i], 36);
+                if (posiciones[i] < 0) {
+                    throw new IllegalArgumentException("Cursor inválido: " + cursor);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+        return posiciones;
+    }
+
+    // Partición cuyo frente llegó primero; ante empate, la de menor índice. -1 si no queda ninguno
+    private static int elegir(Evaluacion<?>[] frentes) {
+        int elegida = -1;
+        for (int particion = 0; particion < frentes.length; particion++) {
+            Evaluacion<?> frente = frentes[particion];
+            if (frente != null && (elegida < 0 || frente.getOrdenLlegada() < frentes[elegida].getOrdenLlegada())) {
+                elegida = particion;
+            }
+        }
+        return elegida;
+    }
+
+    @Override
+    public List<Evaluacion<?>> copiarComoLista() {
+        return new ArrayList<>(listarTodas());
+    }
+
+    @Override
+    public int cantidad() {
+        int total = 0;
+        for (AlmacenEvaluaciones almacen : almacenes) {
+            total += almacen.cantidad();
+        }
+        return total;
+    }
+
+    /**
+     * Suma las estimaciones de las particiones; {@code -1} si alguna no sabe estimarse.
+     */
+    @Override
+    public long estimarBytes() {
+        long total = 0;
+        for (AlmacenEvaluaciones almacen : almacenes) {
+            long bytes = almacen.estimarBytes();
+            if (bytes < 0) {
+                return -1;
+            }
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Corrige todo lo pendiente: cada partición vacía su propia cola en su hilo.
+     *
+     * @param motor       aporta los oyentes y las métricas de calificación.
+     * @param calificador calculadora de puntajes.
+     * @return resumen con un trabajador por partición.
+     */
+    public ResultadoCalificacion procesar(MotorCalificacion motor, CalificadorEvaluaciones calificador) {
+        return procesarHasta(motor, calificador, () -> true);
+    }
+
+    /**
+     * Como {@link #procesar(MotorCalificacion, CalificadorEvaluaciones)}, y además avisa cada lote
+     * al oyente de su partición. Cada oyente solo recibe avisos del hilo de su partición, así puede
+     * acumular sin competir con los demás y combinarse al terminar.
+     *
+     * @param oyentes un oyente por partición, en orden.
+     */
+    public ResultadoCalificacion procesar(
+            MotorCalificacion motor,
+            CalificadorEvaluaciones calificador,
+            List<? extends OyenteCalificacion> oyentes
+    ) {
+        return procesarHasta(motor, calificador, () -> true, oyentes);
+    }
+
+    /**
+     * Corrige mientras otros hilos siguen encaminando; cada partición termina cuando la producción
+     * terminó y su cola quedó vacía.
+     *
+     * @param produccionTerminada pasa a {@code true} después del último encolado.
+     */
+    public ResultadoCalificacion procesarHasta(
+            MotorCalificacion motor,
+            CalificadorEvaluaciones calificador,
+            BooleanSupplier produccionTerminada
+    ) {
+        return procesarHasta(motor, calificador, produccionTerminada, null);
+    }
+
+    /**
+     * @param oyentes un oyente por partición, en orden, o {@code null} para usar solo los del motor.
+     * @throws IllegalArgumentException si no hay exactamente un oyente por partición.
+     */
+    public ResultadoCalificacion procesarHasta(
+            MotorCalificacion motor,
+            CalificadorEvaluaciones calificador,
+            BooleanSupplier produccionTerminada,
+            List<? extends OyenteCalificacion> oyentes
+    ) {
+        if (oyentes != null && oyentes.size() != colas.length) {
+            throw new IllegalArgumentException("Se esperaba un oyente por partición (" + colas.length + ")");
+        }
+        long inicio = System.nanoTime();
+        List<Future<Integer>> trabajos = new ArrayList<>(colas.length);
+        for (int particion = 0; particion < colas.length; particion++) {
+            ColaEvaluaciones cola = colas[particion];
+            OyenteCalificacion oyente = oyentes == null ? null : oyentes.get(particion);
+            trabajos.add(duenos[particion].submit(() -> motor.drenar(cola, calificador, produccionTerminada, oyente)));
+        }
+        int procesadas = 0;
+        for (Future<Integer> trabajo : trabajos) {
+            procesadas += esperar(trabajo);
+        }
+        return new ResultadoCalificacion(procesadas, System.nanoTime() - inicio, colas.length);
+    }
+
+    /**
+     * Ordena cada partición en su hilo y combina los listados en el orden del reporte.
+     */
+    public List<Evaluacion<?>> generarListadoOrdenado(GeneradorReporte generador) {
+        List<Future<List<Evaluacion<?>>>> trabajos = new ArrayList<>(almacenes.length);
+        for (int particion = 0; particion < almacenes.length; particion++) {
+            AlmacenEvaluaciones almacen = almacenes[particion];
+            Callable<List<Evaluacion<?>>> ordenar = () -> generador.generarListadoOrdenado(almacen.listarTodas());
+            trabajos.add(duenos[particion].submit(ordenar));
+        }
+        List<List<Evaluacion<?>>> listados = new ArrayList<>(trabajos.size());
+        for (Future<List<Evaluacion<?>>> trabajo : trabajos) {
+            listados.add(esperar(trabajo));
+        }
+        return generador.combinarListados(listados);
+    }
+
+    private static <T> T esperar(Future<T> trabajo) {
+        try {
+            return trabajo.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("El trabajo de la partición fue interrumpido", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException excepcion) {
+                throw excepcion;
+            }
+            throw new IllegalStateException("Falló el hilo de una partición", causa);
+        }
+    }
+
+    /**
+     * Detiene los hilos de las particiones.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService dueno : duenos) {
+            dueno.shutdown();
+        }
+    }
+
+    /**
+     * Recorre las particiones a la vez tomando siempre el frente que llegó primero.
+     */
+    private final class Intercalado implements Iterator<Evaluacion<?>> {
+
+        private final List<Iterator<Evaluacion<?>>> fuentes = new ArrayList<>(almacenes.length);
+        private final Evaluacion<?>[] frentes = new Evaluacion<?>[almacenes.length];
+
+        private Intercalado() {
+            for (int particion = 0; particion < almacenes.length; particion++) {
+                Iterator<Evaluacion<?>> fuente = almacenes[particion].listarTodas().iterator();
+                fuentes.add(fuente);
+                frentes[particion] = fuente.hasNext() ? fuente.next() : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return elegir(frentes) >= 0;
+        }
+
+        @Override
+        public Evaluacion<?> next() {
+            int particion = elegir(frentes);
+            if (particion < 0) {
+                throw new NoSuchElementException();
+            }
+            Evaluacion<?> siguiente = frentes[particion];
+            Iterator<Evaluacion<?>> fuente = fuentes.get(particion);
+            frentes[particion] = fuente.hasNext() ? fuente.next() : null;
+            return siguiente;
+        }
+    }
+
+    /**
+     * Encola en la partición de cada evaluación y toma de las particiones por turnos, empezando
+     * cada vez por la siguiente para no vaciar siempre la misma.
+     */
+    private final class ColaEnrutada implements ColaEvaluaciones {
+
+        private final AtomicInteger turno = new AtomicInteger();
+
+        @Override
+        public void encolar(Evaluacion<?> evaluacion) {
+            colas[particionDe(evaluacion.getId())].encolar(evaluacion);
+        }
+
+        @Override
+        public void encolarLote(Evaluacion<?>[] lote, int cantidad) {
+            int[] tamanos = new int[colas.length];
+            Evaluacion<?>[][] grupos = agrupar(lote, cantidad, new int[cantidad], tamanos);
+            for (int particion = 0; particion < grupos.length; particion++) {
+                if (tamanos[particion] > 0) {
+                    colas[particion].encolarLote(grupos[particion], tamanos[particion]);
+                }
+            }
+        }
+
+        @Override
+        public Optional<Evaluacion<?>> tomarSiguiente() {
+            int inicio = turno.getAndIncrement();
+            for (int i = 0; i < colas.length; i++) {
+                Optional<Evaluacion<?>> siguiente = colas[Math.floorMod(inicio + i, colas.length)].tomarSiguiente();
+                if (siguiente.isPresent()) {
+                    return siguiente;
+                }
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Toma el lote de la primera partición con pendientes, sin completarlo con las demás.
+         */
+        @Override
+        public int tomarLote(Evaluacion<?>[] destino, int maximo) {
+            Objects.checkFromIndexSize(0, maximo, destino.length);
+            int inicio = turno.getAndIncrement();
+            for (int i = 0; i < colas.length; i++) {
+                int tomadas = colas[Math.floorMod(inicio + i, colas.length)].tomarLote(destino, maximo);
+                if (tomadas > 0) {
+                    return tomadas;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public List<Evaluacion<?>> tomarLote(int maximo) {
+            int inicio = turno.getAndIncrement();
+            for (int i = 0; i < colas.length; i++) {
+                List<Evaluacion<?>> lote = colas[Math.floorMod(inicio + i, colas.length)].tomarLote(maximo);
+                if (!lote.isEmpty()) {
+                    return lote;
+                }
+            }
+            return List.of();
+        }
+
+        @Override
+        public int pendientes() {
+            int total = 0;
+            for (ColaEvaluaciones cola : colas) {
+                total += cola.pendientes();
+            }
+            return total;
+        }
+
+        @Override
+        public boolean estaVacia() {
+            for (ColaEvaluaciones cola : colas) {
+                if (!cola.estaVacia()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
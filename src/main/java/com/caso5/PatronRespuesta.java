@@ -0,0 +1,93 @@
+package com.caso5;
+
+import java.util.Arrays;
+
+/**
+ * Respuesta modelo de una pregunta abierta, normalizada una sola vez para compararla sin
+ * distinguir mayúsculas y sin crear cadenas nuevas.
+ * <p>
+ * La búsqueda dentro de la respuesta del estudiante usa Boyer-Moore-Horspool: la tabla de saltos
+ * se indexa por el byte bajo del carácter ya normalizado y guarda el menor salto entre los
+ * caracteres que comparten ese byte, lo que mantiene la búsqueda correcta fuera de ASCII. Cada
+ * carácter se normaliza como lo hace {@link String#equalsIgnoreCase(String)}.
+ */
+final class PatronRespuesta {
+
+    private static final int TAMANO_TABLA = 256;
+
+    // Texto original de la clave
+    private final String texto;
+    // Clave normalizada carácter por carácter
+    private final char[] patron;
+    // Desplazamiento seguro según el último carácter de la ventana
+    private final int[] saltos;
+
+    PatronRespuesta(String texto) {
+        this.texto = texto;
+        this.patron = new char[texto.length()];
+        for (int i = 0; i < patron.length; i++) {
+            patron[i] = normalizar(texto.charAt(i));
+        }
+        this.saltos = new int[TAMANO_TABLA];
+        Arrays.fill(saltos, Math.max(1, patron.length));
+        for (int i = 0; i < patron.length - 1; i++) {
+            int indice = patron[i] & (TAMANO_TABLA - 1);
+            saltos[indice] = Math.min(saltos[indice], patron.length - 1 - i);
+        }
+    }
+
+    String texto() {
+        return texto;
+    }
+
+    /**
+     * Compara la respuesta completa sin distinguir mayúsculas.
+     */
+    boolean coincideCon(String respuesta) {
+        if (respuesta.length() != patron.length) {
+            return false;
+        }
+        return coincideDesde(respuesta, 0, patron.length);
+    }
+
+    /**
+     * Indica si la clave aparece dentro de la respuesta sin distinguir mayúsculas.
+     */
+    boolean estaContenidoEn(String respuesta) {
+        int largo = patron.length;
+        if (largo == 0) {
+            return true;
+        }
+        int ultimo = largo - 1;
+        char cierre = patron[ultimo];
+        int limite = respuesta.length() - largo;
+        int inicio = 0;
+        while (inicio <= limite) {
+            char actual = normalizar(respuesta.charAt(inicio + ultimo));
+            if (actual == cierre && coincideDesde(respuesta, inicio, ultimo)) {
+                return true;
+            }
+            inicio += saltos[actual & (TAMANO_TABLA - 1)];
+        }
+        return false;
+    }
+
+    // Compara los primeros "cantidad" caracteres de la ventana que empieza en "inicio"
+    private boolean coincideDesde(String respuesta, int inicio, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            char caracter = respuesta.charAt(inicio + i);
+            // La mayoría de los caracteres ya vienen en minúscula y no necesitan normalizarse
+            if (caracter != patron[i] && normalizar(caracter) != patron[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char normalizar(char caracter) {
+        if (caracter < 0x80) {
+            return caracter >= 'A' && caracter <= 'Z' ? (char) (caracter + ('a' - 'A')) : caracter;
+        }
+        return Character.toLowerCase(Character.toUpperCase(caracter));
+    }
+}
@@ -0,0 +1,532 @@
+package com.caso5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cola de corrección con un carril por {@link TipoEvaluacion}, alternativa a la FIFO de
+ * {@link ColaCorreccion}.
+ * <p>
+ * Dentro de cada carril las evaluaciones salen por prioridad (mayor primero), luego por plazo
+ * (el más cercano primero) y, a igualdad, por orden de llegada. Las que tienen prioridad o plazo
+ * van a un montículo indexado por id, así {@link #reprogramar} y {@link #retirar} cuestan
+ * O(log n); las demás esperan en un anillo en orden de llegada que no paga ni el montículo ni el
+ * índice. Entre carriles se reparte por turnos ponderados: en cada vuelta un carril entrega hasta
+ * {@code peso} evaluaciones, de modo que una fila larga de abiertas no retiene a las OM y VF. Si la
+ * cabeza de algún carril ya venció su plazo, sale antes que el turno.
+ * <p>
+ * Cada carril mide la espera en cola (de encolar a tomar) y cuenta las evaluaciones tomadas después
+ * de su plazo. Las operaciones están sincronizadas, igual que en {@link ColaCorreccion}.
+ */
+public class PlanificadorCorreccion implements ColaEvaluaciones {
+
+    // Plazo de las evaluaciones encoladas sin fecha límite
+    public static final long SIN_PLAZO = Long.MAX_VALUE;
+
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+
+    private final Carril[] carriles = new Carril[TIPOS.length];
+    private final int[] pesos = new int[TIPOS.length];
+    private int actual;
+    private int restantesTurno;
+    private long secuencia;
+    private int pendientes;
+
+    /**
+     * Pesos por omisión: 4 para OM y VF, 1 para ABIERTA.
+     */
+    public PlanificadorCorreccion() {
+        this(Map.of(TipoEvaluacion.OM, 4, TipoEvaluacion.VF, 4, TipoEvaluacion.ABIERTA, 1));
+    }
+
+    /**
+     * @param pesos evaluaciones que entrega cada carril por vuelta; los tipos ausentes valen 1.
+     */
+    public PlanificadorCorreccion(Map<TipoEvaluacion, Integer> pesos) {
+        for (TipoEvaluacion tipo : TIPOS) {
+            int peso = pesos.getOrDefault(tipo, 1);
+            if (peso < 1) {
+                throw new IllegalArgumentException("El peso del carril " + tipo + " debe ser positivo: " + peso);
+            }
+            this.pesos[tipo.ordinal()] = peso;
+            carriles[tipo.ordinal()] = new Carril();
+        }
+        restantesTurno = this.pesos[0];
+    }
+
+    /**
+     * Encola sin prioridad ni plazo: dentro de su carril sale en orden de llegada.
+     */
+    @Override
+    public void encolar(Evaluacion<?> evaluacion) {
+        encolar(evaluacion, 0, SIN_PLAZO);
+    }
+
+    /**
+     * Encola en el carril de su tipo.
+     *
+     * @param prioridad   las mayores salen primero dentro del carril.
+     * @param plazoMillis fecha límite en milisegundos de época, o {@link #SIN_PLAZO}.
+     * @throws IllegalStateException si ya estaba pendiente con prioridad o plazo.
+     */
+    public synchronized void encolar(Evaluacion<?> evaluacion, int prioridad, long plazoMillis) {
+        carriles[evaluacion.getTipo().ordinal()].insertar(evaluacion, prioridad, plazoMillis, secuencia++, System.nanoTime());
+        pendientes++;
+    }
+
+    @Override
+    public synchronized void encolarLote(Evaluacion<?>[] lote, int cantidad) {
+        long ahora = System.nanoTime();
+        for (int i = 0; i < cantidad; i++) {
+            carriles[lote[i].getTipo().ordinal()].insertar(lote[i], 0, SIN_PLAZO, secuencia++, ahora);
+            pendientes++;
+        }
+    }
+
+    /**
+     * Cambia la prioridad y el plazo de una evaluación pendiente.
+     *
+     * @return {@code false} si no estaba en la cola.
+     */
+    public synchronized boolean reprogramar(UUID id, int prioridad, long plazoMillis) {
+        for (Carril carril : carriles) {
+            if (carril.actualizar(id, prioridad, plazoMillis)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quita una evaluación pendiente sin corregirla.
+     *
+     * @return {@code false} si no estaba en la cola.
+     */
+    public synchronized boolean retirar(UUID id) {
+        for (Carril carril : carriles) {
+            if (carril.quitar(id)) {
+                pendientes--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Optional<Evaluacion<?>> tomarSiguiente() {
+        return Optional.ofNullable(siguiente(System.currentTimeMillis(), System.nanoTime()));
+    }
+
+    @Override
+    public synchronized int tomarLote(Evaluacion<?>[] destino, int maximo) {
+        Objects.checkFromIndexSize(0, maximo, destino.length);
+        long ahoraMillis = System.currentTimeMillis();
+        long ahoraNanos = System.nanoTime();
+        int tomadas = 0;
+        Evaluacion<?> evaluacion;
+        while (tomadas < maximo && (evaluacion = siguiente(ahoraMillis, ahoraNanos)) != null) {
+            destino[tomadas++] = evaluacion;
+        }
+        return tomadas;
+    }
+
+    @Override
+    public synchronized List<Evaluacion<?>> tomarLote(int maximo) {
+        long ahoraMillis = System.currentTimeMillis();
+        long ahoraNanos = System.nanoTime();
+        List<Evaluacion<?>> lote = new ArrayList<>(Math.min(maximo, pendientes));
+        Evaluacion<?> evaluacion;
+        while (lote.size() < maximo && (evaluacion = siguiente(ahoraMillis, ahoraNanos)) != null) {
+            lote.add(evaluacion);
+        }
+        return lote;
+    }
+
+    /**
+     * Elige el carril: primero el de la cabeza vencida con el plazo más antiguo; si no hay, el del
+     * turno mientras le queden evaluaciones y peso.
+     */
+    private Evaluacion<?> siguiente(long ahoraMillis, long ahoraNanos) {
+        if (pendientes == 0) {
+            return null;
+        }
+        int elegido = -1;
+        long plazoElegido = ahoraMillis;
+        for (int i = 0; i < carriles.length; i++) {
+            Carril carril = carriles[i];
+            long plazo = carril.plazoCabeza();
+            if (plazo != SIN_PLAZO && plazo < plazoElegido) {
+                elegido = i;
+                plazoElegido = plazo;
+            }
+        }
+        if (elegido < 0) {
+            while (restantesTurno == 0 || carriles[actual].tamano() == 0) {
+                actual = actual + 1 == carriles.length ? 0 : actual + 1;
+                restantesTurno = pesos[actual];
+            }
+            restantesTurno--;
+            elegido = actual;
+        }
+        pendientes--;
+        return carriles[elegido].extraer(ahoraMillis, ahoraNanos);
+    }
+
+    @Override
+    public synchronized int pendientes() {
+        return pendientes;
+    }
+
+    @Override
+    public synchronized boolean estaVacia() {
+        return pendientes == 0;
+    }
+
+    public synchronized int pendientes(TipoEvaluacion tipo) {
+        return carriles[tipo.ordinal()].tamano();
+    }
+
+    public int getPeso(TipoEvaluacion tipo) {
+        return pesos[tipo.ordinal()];
+    }
+
+    /**
+     * Espera en cola de las evaluaciones ya tomadas del carril.
+     */
+    public HistogramaLatencia getEspera(TipoEvaluacion tipo) {
+        return carriles[tipo.ordinal()].espera;
+    }
+
+    /**
+     * Evaluaciones del carril tomadas después de su plazo.
+     */
+    public synchronized long getVencidas(TipoEvaluacion tipo) {
+        return carriles[tipo.ordinal()].vencidas;
+    }
+
+    public String resumen() {
+        Map<TipoEvaluacion, Integer> pendientesPorTipo = new EnumMap<>(TipoEvaluacion.class);
+        Map<TipoEvaluacion, Long> vencidasPorTipo = new EnumMap<>(TipoEvaluacion.class);
+        synchronized (this) {
+            for (TipoEvaluacion tipo : TIPOS) {
+                pendientesPorTipo.put(tipo, carriles[tipo.ordinal()].tamano());
+                vencidasPorTipo.put(tipo, carriles[tipo.ordinal()].vencidas);
+            }
+        }
+        StringBuilder texto = new StringBuilder();
+        for (TipoEvaluacion tipo : TIPOS) {
+            HistogramaLatencia espera = getEspera(tipo);
+            texto.append(String.format(Locale.ROOT,
+                    "  carril %-7s (peso %d): %d tomadas, %d pendientes, %d vencidas, espera p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                    tipo, getPeso(tipo), espera.getCantidad(), pendientesPorTipo.get(tipo), vencidasPorTipo.get(tipo),
+                    espera.getP50Nanos() / 1_000_000.0, espera.getP99Nanos() / 1_000_000.0,
+                    espera.getMaximoNanos() / 1_000_000.0));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Evaluaciones pendientes de un tipo. Las que llegan sin prioridad ni plazo, casi todas, van a
+     * un anillo que ya está en orden de llegada; el resto va a un montículo binario en arreglos
+     * paralelos, indexado: el mapa va de id a manija y {@code posiciones[manija]} sigue al elemento
+     * mientras se reacomoda, así subir y bajar solo escriben arreglos primitivos. Se toma la cabeza
+     * que va antes de las dos. El anillo no tiene índice: reprogramar o retirar una de sus
+     * evaluaciones lo recorre y la pasa al montículo o la marca como retirada.
+     */
+    private static final class Carril {
+
+        private Evaluacion<?>[] elementos = new Evaluacion<?>[16];
+        private int[] prioridades = new int[16];
+        private long[] plazos = new long[16];
+        private long[] secuencias = new long[16];
+        private long[] encoladas = new long[16];
+        private int[] manijas = new int[16];
+        private int tamanoMonticulo;
+
+        // Posición en el montículo de cada manija y manijas libres para reutilizar
+        private int[] posiciones = new int[16];
+        private int[] libres = new int[16];
+        private int cantidadLibres;
+        private int siguienteManija;
+        private final Map<UUID, Integer> manijaPorId = new HashMap<>();
+
+        // Anillo de las encoladas sin prioridad ni plazo; las retiradas quedan en null hasta llegar a la cabeza
+        private Evaluacion<?>[] fila = new Evaluacion<?>[16];
+        private long[] secuenciasFila = new long[16];
+        private long[] encoladasFila = new long[16];
+        private int inicioFila;
+        private int ocupadasFila;
+        private int retiradasFila;
+
+        private final HistogramaLatencia espera = new HistogramaLatencia();
+        private long vencidas;
+
+        private int tamano() {
+            return tamanoMonticulo + ocupadasFila - retiradasFila;
+        }
+
+        /**
+         * Plazo de la siguiente evaluación que saldría del carril.
+         */
+        private long plazoCabeza() {
+            return cabezaEnMonticulo() ? plazos[0] : SIN_PLAZO;
+        }
+
+        private boolean cabezaEnMonticulo() {
+            return tamanoMonticulo > 0 && (ocupadasFila == 0
+                    || antes(prioridades[0], plazos[0], secuencias[0], 0, SIN_PLAZO, secuenciasFila[inicioFila]));
+        }
+
+        private void insertar(Evaluacion<?> evaluacion, int prioridad, long plazo, long secuencia, long ahoraNanos) {
+            if (prioridad == 0 && plazo == SIN_PLAZO) {
+                anexarFila(evaluacion, secuencia, ahoraNanos);
+            } else {
+                insertarMonticulo(evaluacion, prioridad, plazo, secuencia, ahoraNanos);
+            }
+        }
+
+        private void anexarFila(Evaluacion<?> evaluacion, long secuencia, long ahoraNanos) {
+            if (ocupadasFila == fila.length) {
+                crecerFila();
+            }
+            int casilla = (inicioFila + ocupadasFila++) & (fila.length - 1);
+            fila[casilla] = evaluacion;
+            secuenciasFila[casilla] = secuencia;
+            encoladasFila[casilla] = ahoraNanos;
+        }
+
+        private void insertarMonticulo(Evaluacion<?> evaluacion, int prioridad, long plazo, long secuencia, long encolada) {
+            int manija = cantidadLibres > 0 ? libres[cantidadLibres - 1] : siguienteManija;
+            if (manijaPorId.putIfAbsent(evaluacion.getId(), manija) != null) {
+                throw new IllegalStateException("La evaluación ya está pendiente: " + evaluacion.getId());
+            }
+            if (cantidadLibres > 0) {
+                cantidadLibres--;
+            } else {
+                siguienteManija++;
+            }
+            if (tamanoMonticulo == elementos.length) {
+                crecerMonticulo();
+            }
+            int i = tamanoMonticulo++;
+            colocar(i, evaluacion, prioridad, plazo, secuencia, encolada, manija);
+            subir(i);
+        }
+
+        private Evaluacion<?> extraer(long ahoraMillis, long ahoraNanos) {
+            if (!cabezaEnMonticulo()) {
+                Evaluacion<?> evaluacion = fila[inicioFila];
+                espera.registrar(ahoraNanos - encoladasFila[inicioFila]);
+                fila[inicioFila] = null;
+                inicioFila = (inicioFila + 1) & (fila.length - 1);
+                ocupadasFila--;
+                saltarRetiradas();
+                return evaluacion;
+            }
+            Evaluacion<?> evaluacion = elementos[0];
+            espera.registrar(ahoraNanos - encoladas[0]);
+            if (plazos[0] != SIN_PLAZO && plazos[0] < ahoraMillis) {
+                vencidas++;
+            }
+            quitarEn(0);
+            return evaluacion;
+        }
+
+        private boolean actualizar(UUID id, int prioridad, long plazo) {
+            Integer manija = manijaPorId.get(id);
+            if (manija != null) {
+                int i = posiciones[manija];
+                prioridades[i] = prioridad;
+                plazos[i] = plazo;
+                bajar(subir(i));
+                return true;
+            }
+            int casilla = buscarEnFila(id);
+            if (casilla < 0) {
+                return false;
+            }
+            // Conserva la llegada y el instante de encolado al pasar al montículo
+            Evaluacion<?> evaluacion = fila[casilla];
+            long secuencia = secuenciasFila[casilla];
+            long encolada = encoladasFila[casilla];
+            marcarRetirada(casilla);
+            insertarMonticulo(evaluacion, prioridad, plazo, secuencia, encolada);
+            return true;
+        }
+
+        private boolean quitar(UUID id) {
+            Integer manija = manijaPorId.get(id);
+            if (manija != null) {
+                quitarEn(posiciones[manija]);
+                return true;
+            }
+            int casilla = buscarEnFila(id);
+            if (casilla < 0) {
+                return false;
+            }
+            marcarRetirada(casilla);
+            return true;
+        }
+
+        private int buscarEnFila(UUID id) {
+            int mascara = fila.length - 1;
+            for (int i = 0; i < ocupadasFila; i++) {
+                int casilla = (inicioFila + i) & mascara;
+                if (fila[casilla] != null && fila[casilla].getId().equals(id)) {
+                    return casilla;
+                }
+            }
+            return -1;
+        }
+
+        private void marcarRetirada(int casilla) {
+            fila[casilla] = null;
+            retiradasFila++;
+            saltarRetiradas();
+        }
+
+        private void saltarRetiradas() {
+            while (ocupadasFila > 0 && fila[inicioFila] == null) {
+                inicioFila = (inicioFila + 1) & (fila.length - 1);
+                ocupadasFila--;
+                retiradasFila--;
+            }
+        }
+
+        private void quitarEn(int i) {
+            manijaPorId.remove(elementos[i].getId());
+            libres[cantidadLibres++] = manijas[i];
+            int ultimo = --tamanoMonticulo;
+            if (i != ultimo) {
+                colocar(i, elementos[ultimo], prioridades[ultimo], plazos[ultimo], secuencias[ultimo],
+                        encoladas[ultimo], manijas[ultimo]);
+                bajar(subir(i));
+            }
+            elementos[ultimo] = null;
+        }
+
+        /**
+         * Sube el elemento de {@code i} corriendo a los padres hacia el hueco.
+         *
+         * @return posición final del elemento.
+         */
+        private int subir(int i) {
+            Evaluacion<?> evaluacion = elementos[i];
+            int prioridad = prioridades[i];
+            long plazo = plazos[i];
+            long secuencia = secuencias[i];
+            long encolada = encoladas[i];
+            int manija = manijas[i];
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (!antes(prioridad, plazo, secuencia, prioridades[padre], plazos[padre], secuencias[padre])) {
+                    break;
+                }
+                colocar(i, elementos[padre], prioridades[padre], plazos[padre], secuencias[padre],
+                        encoladas[padre], manijas[padre]);
+                i = padre;
+            }
+            colocar(i, evaluacion, prioridad, plazo, secuencia, encolada, manija);
+            return i;
+        }
+
+        private void bajar(int i) {
+            Evaluacion<?> evaluacion = elementos[i];
+            int prioridad = prioridades[i];
+            long plazo = plazos[i];
+            long secuencia = secuencias[i];
+            long encolada = encoladas[i];
+            int manija = manijas[i];
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= tamanoMonticulo) {
+                    break;
+                }
+                int derecho = hijo + 1;
+                if (derecho < tamanoMonticulo && antes(prioridades[derecho], plazos[derecho], secuencias[derecho],
+                        prioridades[hijo], plazos[hijo], secuencias[hijo])) {
+                    hijo = derecho;
+                }
+                if (!antes(prioridades[hijo], plazos[hijo], secuencias[hijo], prioridad, plazo, secuencia)) {
+                    break;
+                }
+                colocar(i, elementos[hijo], prioridades[hijo], plazos[hijo], secuencias[hijo],
+                        encoladas[hijo], manijas[hijo]);
+                i = hijo;
+            }
+            colocar(i, evaluacion, prioridad, plazo, secuencia, encolada, manija);
+        }
+
+        /**
+         * Mayor prioridad, luego plazo más cercano, luego llegada más antigua.
+         */
+        private static boolean antes(int prioridadA, long plazoA, long secuenciaA,
+                                     int prioridadB, long plazoB, long secuenciaB) {
+            if (prioridadA != prioridadB) {
+                return prioridadA > prioridadB;
+            }
+            if (plazoA != plazoB) {
+                return plazoA < plazoB;
+            }
+            return secuenciaA < secuenciaB;
+        }
+
+        private void colocar(int i, Evaluacion<?> evaluacion, int prioridad, long plazo, long secuencia,
+                             long encolada, int manija) {
+            elementos[i] = evaluacion;
+            prioridades[i] = prioridad;
+            plazos[i] = plazo;
+            secuencias[i] = secuencia;
+            encoladas[i] = encolada;
+            manijas[i] = manija;
+            posiciones[manija] = i;
+        }
+
+        private void crecerMonticulo() {
+            int capacidad = elementos.length * 2;
+            elementos = Arrays.copyOf(elementos, capacidad);
+            prioridades = Arrays.copyOf(prioridades, capacidad);
+            plazos = Arrays.copyOf(plazos, capacidad);
+            secuencias = Arrays.copyOf(secuencias, capacidad);
+            encoladas = Arrays.copyOf(encoladas, capacidad);
+            manijas = Arrays.copyOf(manijas, capacidad);
+            posiciones = Arrays.copyOf(posiciones, capacidad);
+            libres = Arrays.copyOf(libres, capacidad);
+        }
+
+        /**
+         * Duplica el anillo dejando la cabeza en la casilla 0 y descartando las retiradas.
+         */
+        private void crecerFila() {
+            int capacidad = fila.length * 2;
+            Evaluacion<?>[] nuevaFila = new Evaluacion<?>[capacidad];
+            long[] nuevasSecuencias = new long[capacidad];
+            long[] nuevasEncoladas = new long[capacidad];
+            int mascara = fila.length - 1;
+            int copiadas = 0;
+            for (int i = 0; i < ocupadasFila; i++) {
+                int casilla = (inicioFila + i) & mascara;
+                if (fila[casilla] != null) {
+                    nuevaFila[copiadas] = fila[casilla];
+                    nuevasSecuencias[copiadas] = secuenciasFila[casilla];
+                    nuevasEncoladas[copiadas] = encoladasFila[casilla];
+                    copiadas++;
+                }
+            }
+            fila = nuevaFila;
+            secuenciasFila = nuevasSecuencias;
+            encoladasFila = nuevasEncoladas;
+            inicioFila = 0;
+            ocupadasFila = copiadas;
+            retiradasFila = 0;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.caso5;
+
+/**
+ * Define qué hace un productor cuando la cola acotada no tiene espacio.
+ */
+public enum PoliticaColaLlena {
+    BLOQUEAR,        // Espera estacionando el hilo con pausas crecientes
+    ESPERA_ACTIVA,   // Reintenta sin ceder el núcleo (latencia mínima)
+    FALLAR           // Lanza una excepción inmediatamente
+}
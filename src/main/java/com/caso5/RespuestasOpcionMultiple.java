@@ -0,0 +1,112 @@
+package com.caso5;
+
+import java.util.Arrays;
+
+/**
+ * Respuestas de opción múltiple empaquetadas a dos bits por pregunta (opciones 0 a 3).
+ * <p>
+ * Treinta y dos preguntas caben en un {@code long}, de modo que comparar dos hojas de respuestas
+ * se reduce a un XOR y un conteo de bits por palabra, sin objetos {@code Integer}.
+ */
+public final class RespuestasOpcionMultiple {
+
+    // Preguntas que caben en cada palabra de 64 bits
+    static final int PREGUNTAS_POR_PALABRA = 32;
+    // Bit bajo de cada par: 0101...01
+    private static final long BITS_BAJOS = 0x5555_5555_5555_5555L;
+
+    // Opciones elegidas, dos bits por pregunta empezando por los bits menos significativos
+    private final long[] palabras;
+    // Cantidad de preguntas almacenadas
+    private final int cantidad;
+
+    RespuestasOpcionMultiple(long[] palabras, int cantidad) {
+        this.palabras = palabras;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Empaqueta las opciones indicadas.
+     *
+     * @param opciones opción elegida por pregunta, cada una entre 0 y 3.
+     * @return respuestas empaquetadas.
+     */
+    public static RespuestasOpcionMultiple de(int... opciones) {
+        long[] palabras = new long[palabrasNecesarias(opciones.length)];
+        for (int i = 0; i < opciones.length; i++) {
+            int opcion = opciones[i];
+            if (opcion < 0 || opcion > 3) {
+                throw new IllegalArgumentException("La opción debe estar entre 0 y 3: " + opcion);
+            }
+            palabras[i / PREGUNTAS_POR_PALABRA] |= (long) opcion << ((i % PREGUNTAS_POR_PALABRA) * 2);
+        }
+        return new RespuestasOpcionMultiple(palabras, opciones.length);
+    }
+
+    static int palabrasNecesarias(int cantidad) {
+        return (cantidad + PREGUNTAS_POR_PALABRA - 1) / PREGUNTAS_POR_PALABRA;
+    }
+
+    // Palabras empaquetadas sin copiar, para serializarlas
+    long[] palabras() {
+        return palabras;
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    public int opcion(int pregunta) {
+        if (pregunta < 0 || pregunta >= cantidad) {
+            throw new IndexOutOfBoundsException(pregunta);
+        }
+        return (int) (palabras[pregunta / PREGUNTAS_POR_PALABRA] >>> ((pregunta % PREGUNTAS_POR_PALABRA) * 2)) & 0b11;
+    }
+
+    /**
+     * Cuenta las preguntas en las que ambas hojas coinciden, hasta la menor de las dos cantidades.
+     */
+    public int contarAciertos(RespuestasOpcionMultiple clave) {
+        int total = Math.min(cantidad, clave.cantidad);
+        int diferencias = 0;
+        int completas = total / PREGUNTAS_POR_PALABRA;
+        for (int i = 0; i < completas; i++) {
+            diferencias += paresDistintos(palabras[i] ^ clave.palabras[i]);
+        }
+        int resto = total % PREGUNTAS_POR_PALABRA;
+        if (resto > 0) {
+            long mascara = (1L << (resto * 2)) - 1;
+            diferencias += paresDistintos((palabras[completas] ^ clave.palabras[completas]) & mascara);
+        }
+        return total - diferencias;
+    }
+
+    // Un par difiere si cualquiera de sus dos bits es 1
+    private static int paresDistintos(long xor) {
+        return Long.bitCount((xor | (xor >>> 1)) & BITS_BAJOS);
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof RespuestasOpcionMultiple respuestas
+                && cantidad == respuestas.cantidad
+                && Arrays.equals(palabras, respuestas.palabras);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(palabras) + cantidad;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder("[");
+        for (int i = 0; i < cantidad; i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            texto.append(opcion(i));
+        }
+        return texto.append(']').toString();
+    }
+}
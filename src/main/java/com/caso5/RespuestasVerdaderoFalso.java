@@ -0,0 +1,98 @@
+package com.caso5;
+
+import java.util.Arrays;
+
+/**
+ * Respuestas de verdadero/falso guardadas como un conjunto de bits (1 = verdadero).
+ * <p>
+ * Los aciertos se calculan con XOR y {@link Long#bitCount(long)} sobre palabras de 64 preguntas.
+ */
+public final class RespuestasVerdaderoFalso {
+
+    // Respuestas, un bit por pregunta empezando por el menos significativo
+    private final long[] bits;
+    // Cantidad de preguntas almacenadas
+    private final int cantidad;
+
+    RespuestasVerdaderoFalso(long[] bits, int cantidad) {
+        this.bits = bits;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Empaqueta las respuestas indicadas.
+     *
+     * @param respuestas valor de cada pregunta en orden.
+     * @return respuestas empaquetadas.
+     */
+    public static RespuestasVerdaderoFalso de(boolean... respuestas) {
+        long[] bits = new long[palabrasNecesarias(respuestas.length)];
+        for (int i = 0; i < respuestas.length; i++) {
+            if (respuestas[i]) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        return new RespuestasVerdaderoFalso(bits, respuestas.length);
+    }
+
+    static int palabrasNecesarias(int cantidad) {
+        return (cantidad + 63) >>> 6;
+    }
+
+    // Palabras empaquetadas sin copiar, para serializarlas
+    long[] bits() {
+        return bits;
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    public boolean respuesta(int pregunta) {
+        if (pregunta < 0 || pregunta >= cantidad) {
+            throw new IndexOutOfBoundsException(pregunta);
+        }
+        return (bits[pregunta >>> 6] & (1L << pregunta)) != 0;
+    }
+
+    /**
+     * Cuenta las preguntas en las que ambas hojas coinciden, hasta la menor de las dos cantidades.
+     */
+    public int contarAciertos(RespuestasVerdaderoFalso clave) {
+        int total = Math.min(cantidad, clave.cantidad);
+        int diferencias = 0;
+        int completas = total >>> 6;
+        for (int i = 0; i < completas; i++) {
+            diferencias += Long.bitCount(bits[i] ^ clave.bits[i]);
+        }
+        int resto = total & 63;
+        if (resto > 0) {
+            diferencias += Long.bitCount((bits[completas] ^ clave.bits[completas]) & ((1L << resto) - 1));
+        }
+        return total - diferencias;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof RespuestasVerdaderoFalso respuestas
+                && cantidad == respuestas.cantidad
+                && Arrays.equals(bits, respuestas.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(bits) + cantidad;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder("[");
+        for (int i = 0; i < cantidad; i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            texto.append(respuesta(i));
+        }
+        return texto.append(']').toString();
+    }
+}
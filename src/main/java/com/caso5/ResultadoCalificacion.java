@@ -0,0 +1,24 @@
+package com.caso5;
+
+/**
+ * Resumen de una ronda de calificación en paralelo.
+ *
+ * @param procesadas  evaluaciones corregidas.
+ * @param nanos       duración total en nanosegundos.
+ * @param hilos       trabajadores que participaron.
+ */
+public record ResultadoCalificacion(int procesadas, long nanos, int hilos) {
+
+    public double milisegundos() {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Calcula el rendimiento obtenido.
+     *
+     * @return evaluaciones corregidas por segundo.
+     */
+    public double evaluacionesPorSegundo() {
+        return nanos == 0 ? 0.0 : procesadas * 1_000_000_000.0 / nanos;
+    }
+}
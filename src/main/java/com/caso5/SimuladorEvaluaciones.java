@@ -2,11 +2,26 @@ package com.caso5;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Genera evaluaciones simuladas y sus claves de corrección.
+ * <p>
+ * Como en un examen real, muchos estudiantes responden la misma versión: el simulador crea un
+ * número fijo de versiones por tipo, las registra una sola vez en el {@link CatalogoClaves} del
+ * calificador y cada evaluación guarda solo el índice de su versión.
+ * <p>
+ * La generación se divide en bloques de tamaño fijo, cada uno con su propio generador
+ * {@link SplittableRandom} derivado de la semilla. Así el conjunto de datos depende solo de la
+ * semilla y de las cantidades pedidas, no de cuántos hilos lo generen.
  */
 public class SimuladorEvaluaciones {
 
@@ -25,121 +40,255 @@ public class SimuladorEvaluaciones {
             "La biodiversidad mantiene el equilibrio de los ecosistemas"
     };
 
-    // Generador aleatorio utilizado en la simulación
-    private final Random generador = new Random();
+    // Preguntas de cada evaluación de opción múltiple
+    private static final int PREGUNTAS_OM = 5;
+    // Preguntas de cada evaluación de verdadero/falso
+    private static final int PREGUNTAS_VF = 6;
+    // Versiones de examen distintas por tipo de respuestas empaquetadas
+    private static final int VERSIONES_POR_TIPO = 8;
+    // Evaluaciones por bloque; cada bloque usa un generador independiente
+    static final int TAMANO_BLOQUE = 1 << 16;
+    private static final TipoEvaluacion[] TIPOS = TipoEvaluacion.values();
+
+    // Generador raíz del que se separa uno nuevo para cada bloque
+    private final SplittableRandom generadorRaiz;
     // Contador que representa el orden de llegada de cada evaluación
     private long contadorRegistro = 0L;
+    // Claves de cada versión de examen, fijas para toda la vida del simulador
+    private final RespuestasOpcionMultiple[] versionesOpcionMultiple = new RespuestasOpcionMultiple[VERSIONES_POR_TIPO];
+    private final RespuestasVerdaderoFalso[] versionesVerdaderoFalso = new RespuestasVerdaderoFalso[VERSIONES_POR_TIPO];
 
-    public void generarEvaluaciones(
-            int cantidad,
-            EvaluacionRepository repositorio,
-            CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
-    ) {
-        // Se generan evaluaciones hasta alcanzar la cantidad solicitada
-        for (int i = 0; i < cantidad; i++) {
-            TipoEvaluacion tipo = seleccionarTipo();
-            UUID identificador = UUID.randomUUID();
-            String estudiante = seleccionarNombreAleatorio();
-
-            switch (tipo) {
-                case OM -> crearOpcionMultiple(identificador, estudiante, repositorio, calificador, colaCorreccion);
-                case VF -> crearVerdaderoFalso(identificador, estudiante, repositorio, calificador, colaCorreccion);
-                case ABIERTA -> crearPreguntaAbierta(identificador, estudiante, repositorio, calificador, colaCorreccion);
-            }
-        }
-    }
-
-    private TipoEvaluacion seleccionarTipo() {
-        int indice = generador.nextInt(TipoEvaluacion.values().length);
-        return TipoEvaluacion.values()[indice];
+    /**
+     * Crea un simulador con una semilla aleatoria.
+     */
+    public SimuladorEvaluaciones() {
+        this(ThreadLocalRandom.current().nextLong());
     }
 
-    private String seleccionarNombreAleatorio() {
-        return NOMBRES_ESTUDIANTES.get(generador.nextInt(NOMBRES_ESTUDIANTES.size()));
+    /**
+     * Crea un simulador reproducible: la misma semilla y la misma secuencia de llamadas
+     * generan exactamente las mismas evaluaciones.
+     */
+    public SimuladorEvaluaciones(long semilla) {
+        this.generadorRaiz = new SplittableRandom(semilla);
+        // Cada par de bits aleatorios es una opción uniforme entre 0 y 3; cada bit, una respuesta V/F
+        long mascaraOpcionMultiple = (1L << (PREGUNTAS_OM * 2)) - 1;
+        long mascaraVerdaderoFalso = (1L << PREGUNTAS_VF) - 1;
+        for (int i = 0; i < VERSIONES_POR_TIPO; i++) {
+            versionesOpcionMultiple[i] = new RespuestasOpcionMultiple(
+                    new long[]{generadorRaiz.nextLong() & mascaraOpcionMultiple}, PREGUNTAS_OM);
+            versionesVerdaderoFalso[i] = new RespuestasVerdaderoFalso(
+                    new long[]{generadorRaiz.nextLong() & mascaraVerdaderoFalso}, PREGUNTAS_VF);
+        }
     }
 
-    // Crea una evaluación de opción múltiple con cinco preguntas
-    private void crearOpcionMultiple(
-            UUID identificador,
-            String estudiante,
-            EvaluacionRepository repositorio,
+    public void generarEvaluaciones(
+            int cantidad,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
-        List<Integer> clave = new ArrayList<>();
-        List<Integer> respuestas = new ArrayList<>();
-        for (int i = 0; i < 5; i++) {
-            int correcta = generador.nextInt(4);
-            int elegida = generador.nextInt(4);
-            clave.add(correcta);
-            respuestas.add(elegida);
+        // Se generan los bloques uno tras otro en el hilo actual
+        for (Bloque bloque : prepararBloques(cantidad, repositorio, calificador, colaCorreccion)) {
+            bloque.call();
         }
-        registrarEvaluacion(identificador, estudiante, TipoEvaluacion.OM, respuestas, clave, repositorio, calificador, colaCorreccion);
     }
 
-    private void crearVerdaderoFalso(
-            UUID identificador,
-            String estudiante,
-            EvaluacionRepository repositorio,
+    /**
+     * Genera las evaluaciones repartiendo los bloques entre varios hilos.
+     * El repositorio, el calificador y la cola deben admitir uso concurrente.
+     *
+     * @param hilos cantidad de hilos productores, mayor a cero.
+     */
+    public void generarEvaluacionesEnParalelo(
+            int cantidad,
+            int hilos,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
-        List<Boolean> clave = new ArrayList<>();
-        List<Boolean> respuestas = new ArrayList<>();
-        for (int i = 0; i < 6; i++) {
-            boolean correcta = generador.nextBoolean();
-            boolean elegida = generador.nextBoolean();
-            clave.add(correcta);
-            respuestas.add(elegida);
+        if (hilos < 1) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser mayor a 0");
+        }
+        List<Bloque> bloques = prepararBloques(cantidad, repositorio, calificador, colaCorreccion);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(Math.min(hilos, Math.max(1, bloques.size())), tarea -> {
+            Thread hilo = new Thread(tarea, "simulador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            for (Future<Void> resultado : ejecutor.invokeAll(bloques)) {
+                resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La simulación fue interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException excepcion) {
+                throw excepcion;
+            }
+            throw new IllegalStateException("Falló un hilo del simulador", causa);
+        } finally {
+            ejecutor.shutdown();
         }
-        registrarEvaluacion(identificador, estudiante, TipoEvaluacion.VF, respuestas, clave, repositorio, calificador, colaCorreccion);
     }
 
-    // Crea una evaluación abierta reutilizando respuestas modelo
-    private void crearPreguntaAbierta(
-            UUID identificador,
-            String estudiante,
-            EvaluacionRepository repositorio,
+    // Registra las versiones en el catálogo, reserva el rango de orden de llegada y
+    // separa un generador por bloque, en orden
+    private List<Bloque> prepararBloques(
+            int cantidad,
+            AlmacenEvaluaciones repositorio,
             CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
+            ColaEvaluaciones colaCorreccion
     ) {
-        int indice = generador.nextInt(RESPUESTAS_ABIERTAS.length);
-        String clave = RESPUESTAS_ABIERTAS[indice];
-        String respuestaEstudiante = generarRespuestaLibre(clave);
-        registrarEvaluacion(identificador, estudiante, TipoEvaluacion.ABIERTA, respuestaEstudiante, clave, repositorio, calificador, colaCorreccion);
+        // El catálogo devuelve el mismo índice si las versiones ya estaban registradas
+        CatalogoClaves catalogo = calificador.getCatalogo();
+        IndicesVersiones versiones = new IndicesVersiones(
+                registrarVersiones(catalogo, versionesOpcionMultiple),
+                registrarVersiones(catalogo, versionesVerdaderoFalso),
+                registrarVersiones(catalogo, RESPUESTAS_ABIERTAS));
+        List<Bloque> bloques = new ArrayList<>();
+        for (int inicio = 0; inicio < cantidad; inicio += TAMANO_BLOQUE) {
+            int tamano = Math.min(TAMANO_BLOQUE, cantidad - inicio);
+            bloques.add(new Bloque(generadorRaiz.split(), contadorRegistro + inicio, tamano,
+                    versiones, repositorio, colaCorreccion));
+        }
+        contadorRegistro += Math.max(0, cantidad);
+        return bloques;
     }
 
-    private String generarRespuestaLibre(String base) {
-        if (generador.nextBoolean()) {
-            return base;
+    private static int[] registrarVersiones(CatalogoClaves catalogo, Object[] claves) {
+        int[] indices = new int[claves.length];
+        for (int i = 0; i < claves.length; i++) {
+            indices[i] = catalogo.registrar(claves[i]);
         }
-        return base + " con ejemplos simples";
+        return indices;
     }
 
     /**
-     * Registra la evaluación en todas las estructuras si el ID no está repetido.
+     * Índices en el catálogo de las versiones de cada tipo.
      */
-    private <T> void registrarEvaluacion(
-            UUID identificador,
-            String estudiante,
-            TipoEvaluacion tipo,
-            T respuestaEstudiante,
-            T respuestaEsperada,
-            EvaluacionRepository repositorio,
-            CalificadorEvaluaciones calificador,
-            ColaCorreccion colaCorreccion
-    ) {
-        Evaluacion<T> evaluacion = new Evaluacion<>(
-                identificador,
-                estudiante,
-                tipo,
-                respuestaEstudiante,
-                contadorRegistro++
-        );
-        if (repositorio.registrar(evaluacion)) {
-            calificador.registrarClave(new ClaveEvaluacion<>(identificador, respuestaEsperada));
-            colaCorreccion.encolar(evaluacion);
+    private record IndicesVersiones(int[] opcionMultiple, int[] verdaderoFalso, int[] abiertas) {
+    }
+
+    /**
+     * Identificador UUID versión 4 tomado del generador del bloque, sin pasar por {@code SecureRandom}.
+     */
+    private static UUID generarIdentificador(RandomGenerator generador) {
+        long alto = (generador.nextLong() & ~0xF000L) | 0x4000L;
+        long bajo = (generador.nextLong() & ~0xC000_0000_0000_0000L) | 0x8000_0000_0000_0000L;
+        return new UUID(alto, bajo);
+    }
+
+    /**
+     * Tramo contiguo de evaluaciones con su propio generador aleatorio.
+     */
+    private static final class Bloque implements Callable<Void> {
+
+        private final RandomGenerator generador;
+        private final int cantidad;
+        private final IndicesVersiones versiones;
+        private final AlmacenEvaluaciones repositorio;
+        private final ColaEvaluaciones colaCorreccion;
+        // Orden de llegada de la siguiente evaluación del bloque
+        private long siguienteOrden;
+
+        private Bloque(
+                RandomGenerator generador,
+                long primerOrden,
+                int cantidad,
+                IndicesVersiones versiones,
+                AlmacenEvaluaciones repositorio,
+                ColaEvaluaciones colaCorreccion
+        ) {
+            this.generador = generador;
+            this.siguienteOrden = primerOrden;
+            this.cantidad = cantidad;
+            this.versiones = versiones;
+            this.repositorio = repositorio;
+            this.colaCorreccion = colaCorreccion;
+        }
+
+        @Override
+        public Void call() {
+            // Se generan evaluaciones hasta alcanzar la cantidad del bloque
+            for (int i = 0; i < cantidad; i++) {
+                TipoEvaluacion tipo = seleccionarTipo();
+                UUID identificador = generarIdentificador(generador);
+                String estudiante = seleccionarNombreAleatorio();
+
+                switch (tipo) {
+                    case OM -> crearOpcionMultiple(identificador, estudiante);
+                    case VF -> crearVerdaderoFalso(identificador, estudiante);
+                    case ABIERTA -> crearPreguntaAbierta(identificador, estudiante);
+                }
+            }
+            return null;
+        }
+
+        private TipoEvaluacion seleccionarTipo() {
+            return TIPOS[generador.nextInt(TIPOS.length)];
+        }
+
+        private String seleccionarNombreAleatorio() {
+            return NOMBRES_ESTUDIANTES.get(generador.nextInt(NOMBRES_ESTUDIANTES.size()));
+        }
+
+        // Crea una evaluación de opción múltiple con cinco preguntas sobre una versión al azar
+        private void crearOpcionMultiple(UUID identificador, String estudiante) {
+            // Cada par de bits aleatorios es una opción uniforme entre 0 y 3
+            long mascara = (1L << (PREGUNTAS_OM * 2)) - 1;
+            int version = versiones.opcionMultiple()[generador.nextInt(VERSIONES_POR_TIPO)];
+            RespuestasOpcionMultiple respuestas = new RespuestasOpcionMultiple(new long[]{generador.nextLong() & mascara}, PREGUNTAS_OM);
+            registrarEvaluacion(identificador, estudiante, TipoEvaluacion.OM, respuestas, version);
+        }
+
+        private void crearVerdaderoFalso(UUID identificador, String estudiante) {
+            // Cada bit aleatorio es una respuesta verdadero/falso
+            long mascara = (1L << PREGUNTAS_VF) - 1;
+            int version = versiones.verdaderoFalso()[generador.nextInt(VERSIONES_POR_TIPO)];
+            RespuestasVerdaderoFalso respuestas = new RespuestasVerdaderoFalso(new long[]{generador.nextLong() & mascara}, PREGUNTAS_VF);
+            registrarEvaluacion(identificador, estudiante, TipoEvaluacion.VF, respuestas, version);
+        }
+
+        // Crea una evaluación abierta reutilizando respuestas modelo
+        private void crearPreguntaAbierta(UUID identificador, String estudiante) {
+            int indice = generador.nextInt(RESPUESTAS_ABIERTAS.length);
+            String respuestaEstudiante = generarRespuestaLibre(RESPUESTAS_ABIERTAS[indice]);
+            registrarEvaluacion(identificador, estudiante, TipoEvaluacion.ABIERTA, respuestaEstudiante, versiones.abiertas()[indice]);
+        }
+
+        private String generarRespuestaLibre(String base) {
+            if (generador.nextBoolean()) {
+                return base;
+            }
+            return base + " con ejemplos simples";
+        }
+
+        /**
+         * Registra la evaluación en el repositorio y la encola si el ID no está repetido.
+         */
+        private <T> void registrarEvaluacion(
+                UUID identificador,
+                String estudiante,
+                TipoEvaluacion tipo,
+                T respuestaEstudiante,
+                int indiceClave
+        ) {
+            Evaluacion<T> evaluacion = new Evaluacion<>(
+                    identificador,
+                    estudiante,
+                    tipo,
+                    respuestaEstudiante,
+                    siguienteOrden++,
+                    indiceClave
+            );
+            // Se encola la instancia almacenada para que el puntaje quede en el repositorio
+            Evaluacion<?> almacenada = repositorio.almacenar(evaluacion);
+            if (almacenada != null) {
+                colaCorreccion.encolar(almacenada);
+            }
         }
     }
 }
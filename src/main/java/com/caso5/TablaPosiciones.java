@@ -0,0 +1,174 @@
+package com.caso5;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Índice de posiciones que se mantiene al día con cada calificación.
+ * <p>
+ * Un árbol ordenado por (puntaje desc, llegada asc, id) responde las primeras K posiciones en
+ * O(log n + K) sin reordenar el repositorio, y un árbol de Fenwick sobre los puntajes redondeados
+ * a centésimas responde la posición de un puntaje en O(log 10 001). Solo contiene evaluaciones ya
+ * calificadas.
+ * <p>
+ * La memoria crece con las calificadas: cada una suma un nodo del árbol y una {@link Entrada}
+ * (unos 80 bytes) y además mantiene viva la evaluación. Con millones de filas son gigabytes, por
+ * eso el modo por lotes no la usa y el menú no la crea con el repositorio columnar, cuyas vistas
+ * se descartarían si la tabla no las retuviera.
+ */
+public class TablaPosiciones implements OyenteCalificacion {
+
+    // Puntajes posibles con dos decimales entre 0 y 100
+    private static final int CUBETAS = 10_001;
+
+    // Ordena por puntaje descendente, desempata por llegada y, por último, por id
+    private static final Comparator<Entrada> ORDEN = Comparator
+            .comparingDouble(Entrada::puntaje).reversed()
+            .thenComparingLong(Entrada::ordenLlegada)
+            .thenComparing(Entrada::id);
+
+    // Prefijo de los cursores por puntaje
+    private static final char PREFIJO_CURSOR = 't';
+
+    // Entradas ordenadas; guardan una copia del puntaje para no depender del valor mutable
+    private final NavigableSet<Entrada> posiciones = new TreeSet<>(ORDEN);
+    // Árbol de Fenwick con la cantidad de evaluaciones por cubeta de puntaje (índices desde 1)
+    private final int[] conteoPorCubeta = new int[CUBETAS + 1];
+
+    /**
+     * Puntaje con el que una evaluación figura en la tabla y la clave completa de su posición,
+     * que también sirve de cursor para retomar el recorrido.
+     */
+    private record Entrada(double puntaje, long ordenLlegada, UUID id, Evaluacion<?> evaluacion) {
+
+        private Entrada(double puntaje, Evaluacion<?> evaluacion) {
+            this(puntaje, evaluacion.getOrdenLlegada(), evaluacion.getId(), evaluacion);
+        }
+    }
+
+    @Override
+    public synchronized void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+        mover(evaluacion, puntajeAnterior);
+    }
+
+    /**
+     * Aplica todo el lote con una sola adquisición del candado.
+     */
+    @Override
+    public synchronized void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            mover(lote[i], anteriores[i]);
+        }
+    }
+
+    private void mover(Evaluacion<?> evaluacion, double puntajeAnterior) {
+        if (!Double.isNaN(puntajeAnterior) && posiciones.remove(new Entrada(puntajeAnterior, evaluacion))) {
+            sumarEnCubeta(cubeta(puntajeAnterior), -1);
+        }
+        double puntaje = evaluacion.getPuntaje();
+        if (posiciones.add(new Entrada(puntaje, evaluacion))) {
+            sumarEnCubeta(cubeta(puntaje), 1);
+        }
+    }
+
+    /**
+     * Devuelve las mejores evaluaciones sin recorrer el resto.
+     *
+     * @param cantidad máximo de evaluaciones a devolver.
+     * @return lista ordenada de mayor a menor puntaje.
+     */
+    public synchronized List<Evaluacion<?>> primeras(int cantidad) {
+        List<Evaluacion<?>> resultado = new ArrayList<>(Math.min(cantidad, posiciones.size()));
+        Iterator<Entrada> iterador = posiciones.iterator();
+        while (resultado.size() < cantidad && iterador.hasNext()) {
+            resultado.add(iterador.next().evaluacion());
+        }
+        return resultado;
+    }
+
+    /**
+     * Devuelve una página en orden de posiciones sin recorrer las anteriores. El cursor guarda el
+     * puntaje, la llegada y el id de la última evaluación entregada, así la página siguiente empieza
+     * justo después en O(log n) aunque la tabla haya cambiado entretanto.
+     *
+     * @param cursor devuelto en la página anterior, o {@code null} para empezar por la mejor.
+     * @param tamano evaluaciones por página.
+     * @throws IllegalArgumentException si el cursor no salió de esta tabla.
+     */
+    public synchronized PaginaEvaluaciones paginar(String cursor, int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamano);
+        }
+        NavigableSet<Entrada> restantes = cursor == null ? posiciones : posiciones.tailSet(leerCursor(cursor), false);
+        List<Evaluacion<?>> pagina = new ArrayList<>(Math.min(tamano, 1 << 10));
+        Iterator<Entrada> iterador = restantes.iterator();
+        Entrada ultima = null;
+        while (pagina.size() < tamano && iterador.hasNext()) {
+            ultima = iterador.next();
+            pagina.add(ultima.evaluacion());
+        }
+        String siguiente = ultima != null && iterador.hasNext() ? escribirCursor(ultima) : null;
+        return new PaginaEvaluaciones(pagina, siguiente);
+    }
+
+    private static String escribirCursor(Entrada entrada) {
+        return PREFIJO_CURSOR + Long.toHexString(Double.doubleToLongBits(entrada.puntaje()))
+                + ':' + entrada.ordenLlegada() + ':' + entrada.id();
+    }
+
+    // La entrada sonda no tiene evaluación: solo se compara
+    private static Entrada leerCursor(String cursor) {
+        String[] partes = cursor.length() > 1 && cursor.charAt(0) == PREFIJO_CURSOR
+                ? cursor.substring(1).split(":", 3)
+                : new String[0];
+        if (partes.length != 3) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        try {
+            return new Entrada(Double.longBitsToDouble(Long.parseUnsignedLong(partes[0], 16)),
+                    Long.parseLong(partes[1]), UUID.fromString(partes[2]), null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Calcula la posición de un puntaje (1 = mejor). Los empates a dos decimales comparten posición.
+     *
+     * @param puntaje valor entre 0 y 100.
+     * @return 1 más la cantidad de evaluaciones con puntaje mayor.
+     */
+    public synchronized int posicionDe(double puntaje) {
+        return 1 + cantidadHasta(CUBETAS) - cantidadHasta(cubeta(puntaje));
+    }
+
+    public synchronized int cantidad() {
+        return posiciones.size();
+    }
+
+    // Cubeta 1..10 001 para el puntaje redondeado a centésimas
+    private static int cubeta(double puntaje) {
+        long centesimas = Math.round(puntaje * 100);
+        return (int) Math.max(0, Math.min(CUBETAS - 1, centesimas)) + 1;
+    }
+
+    private void sumarEnCubeta(int indice, int delta) {
+        for (int i = indice; i <= CUBETAS; i += i & -i) {
+            conteoPorCubeta[i] += delta;
+        }
+    }
+
+    // Evaluaciones en las cubetas 1..indice
+    private int cantidadHasta(int indice) {
+        int suma = 0;
+        for (int i = indice; i > 0; i -= i & -i) {
+            suma += conteoPorCubeta[i];
+        }
+        return suma;
+    }
+}
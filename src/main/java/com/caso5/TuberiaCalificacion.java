@@ -0,0 +1,207 @@
+package com.caso5;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Genera y corrige a la vez: el simulador encola en una {@link ColaAnilloMPMC} acotada mientras el
+ * motor va calificando, así la memoria en vuelo queda limitada por la capacidad de la cola (los
+ * productores esperan cuando se llena) y los primeros puntajes aparecen sin esperar a que termine
+ * la generación.
+ * <p>
+ * La latencia de punta a punta (de encolar a calificar) se mide con el instante que la propia cola
+ * guarda junto a cada casilla: cada calificador recibe los instantes de su lote al tomarlo y los
+ * descuenta al avisar el lote calificado, así la medición ocupa lo mismo que la cola.
+ */
+public final class TuberiaCalificacion {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 14;
+
+    /**
+     * Resumen de una corrida de la tubería.
+     *
+     * @param calificacion       evaluaciones corregidas y tiempo de los calificadores.
+     * @param nanos              duración total, de la primera generación al último puntaje.
+     * @param nanosPrimerPuntaje tiempo hasta el primer puntaje.
+     * @param maximoEnVuelo      mayor cantidad de evaluaciones pendientes observada.
+     * @param latencia           de encolar a calificar.
+     * @param muestrasPerdidas   calificaciones avisadas de a una, fuera de un lote, sin marca de tiempo.
+     */
+    public record ResultadoTuberia(
+            ResultadoCalificacion calificacion,
+            long nanos,
+            long nanosPrimerPuntaje,
+            long maximoEnVuelo,
+            HistogramaLatencia latencia,
+            long muestrasPerdidas
+    ) {
+
+        public double milisegundos() {
+            return nanos / 1_000_000.0;
+        }
+
+        public double milisegundosPrimerPuntaje() {
+            return nanosPrimerPuntaje / 1_000_000.0;
+        }
+    }
+
+    private final int capacidad;
+    private volatile MetricasCalificacion metricas;
+
+    /**
+     * @param capacidad evaluaciones en vuelo como máximo; se redondea a potencia de dos.
+     */
+    public TuberiaCalificacion(int capacidad) {
+        this.capacidad = new ColaAnilloMPMC(capacidad).capacidad();
+    }
+
+    /**
+     * Cuenta en las métricas las evaluaciones que entran y salen de la cola de la tubería.
+     */
+    public void usarMetricas(MetricasCalificacion metricas) {
+        this.metricas = metricas;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Genera {@code cantidad} evaluaciones con {@code productores} hilos y las corrige con el motor
+     * al mismo tiempo. Vuelve cuando todas quedaron calificadas.
+     */
+    public ResultadoTuberia ejecutar(
+            SimuladorEvaluaciones simulador,
+            int cantidad,
+            int productores,
+            AlmacenEvaluaciones repositorio,
+            CalificadorEvaluaciones calificador,
+            MotorCalificacion motor
+    ) {
+        ColaAnilloMPMC anillo = new ColaAnilloMPMC(capacidad, PoliticaColaLlena.BLOQUEAR, true);
+        MarcasTiempo marcas = new MarcasTiempo(anillo);
+        MetricasCalificacion medicion = metricas;
+        ColaEvaluaciones cola = medicion == null ? marcas : medicion.instrumentar(marcas);
+
+        long inicio = System.nanoTime();
+        AtomicReference<RuntimeException> falloProduccion = new AtomicReference<>();
+        // Se marca al terminar aunque falle, para que los calificadores no esperen para siempre
+        Thread productor = new Thread(() -> {
+            try {
+                simulador.generarEvaluacionesEnParalelo(cantidad, productores, repositorio, calificador, cola);
+            } catch (RuntimeException e) {
+                falloProduccion.set(e);
+            } finally {
+                marcas.produccionTerminada = true;
+            }
+        }, "tuberia-productor");
+        productor.setDaemon(true);
+        productor.start();
+
+        ResultadoCalificacion calificacion;
+        motor.agregarOyente(marcas);
+        try {
+            calificacion = motor.procesarHasta(cola, calificador, () -> marcas.produccionTerminada);
+        } catch (RuntimeException e) {
+            // Sin calificadores el anillo no se vacía: se cierra para que los productores que esperan
+            // espacio fallen y dejen de registrar, y se espera a que terminen antes de propagar
+            anillo.cerrar();
+            esperar(productor);
+            throw e;
+        } finally {
+            motor.quitarOyente(marcas);
+        }
+        esperar(productor);
+        if (falloProduccion.get() != null) {
+            throw falloProduccion.get();
+        }
+        long primerPuntaje = marcas.primerPuntaje.get();
+        return new ResultadoTuberia(calificacion, System.nanoTime() - inicio,
+                primerPuntaje == 0 ? 0 : primerPuntaje - inicio,
+                marcas.maximoEnVuelo.get(), marcas.latencia, marcas.perdidas.sum());
+    }
+
+    private static void esperar(Thread productor) {
+        try {
+            productor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La tubería fue interrumpida", e);
+        }
+    }
+
+    /**
+     * Cola que entrega a cada calificador los instantes de publicación de su lote, y oyente que los
+     * descuenta cuando el motor avisa ese mismo lote, en el mismo hilo y en las mismas posiciones.
+     */
+    private static final class MarcasTiempo implements ColaEvaluaciones, OyenteCalificacion {
+
+        private final ColaAnilloMPMC anillo;
+        // Instantes del último lote que tomó cada hilo calificador
+        private final ThreadLocal<long[]> instantesLote = ThreadLocal.withInitial(() -> new long[MotorCalificacion.TAMANO_LOTE]);
+        private final HistogramaLatencia latencia = new HistogramaLatencia();
+        private final LongAdder perdidas = new LongAdder();
+        private final LongAccumulator maximoEnVuelo = new LongAccumulator(Math::max, 0);
+        private final AtomicLong primerPuntaje = new AtomicLong();
+        private volatile boolean produccionTerminada;
+
+        private MarcasTiempo(ColaAnilloMPMC anillo) {
+            this.anillo = anillo;
+        }
+
+        @Override
+        public void encolar(Evaluacion<?> evaluacion) {
+            anillo.encolar(evaluacion);
+            maximoEnVuelo.accumulate(anillo.pendientes());
+        }
+
+        @Override
+        public void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+            perdidas.increment();
+        }
+
+        @Override
+        public void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+            long ahora = System.nanoTime();
+            primerPuntaje.compareAndSet(0, ahora);
+            long[] instantes = instantesLote.get();
+            for (int i = 0; i < cantidad; i++) {
+                latencia.registrar(ahora - instantes[i]);
+            }
+        }
+
+        @Override
+        public Optional<Evaluacion<?>> tomarSiguiente() {
+            return anillo.tomarSiguiente();
+        }
+
+        @Override
+        public int tomarLote(Evaluacion<?>[] destino, int maximo) {
+            long[] instantes = instantesLote.get();
+            if (instantes.length < maximo) {
+                instantes = new long[maximo];
+                instantesLote.set(instantes);
+            }
+            return anillo.tomarLote(destino, instantes, maximo);
+        }
+
+        @Override
+        public List<Evaluacion<?>> tomarLote(int maximo) {
+            return anillo.tomarLote(maximo);
+        }
+
+        @Override
+        public int pendientes() {
+            return anillo.pendientes();
+        }
+
+        @Override
+        public boolean estaVacia() {
+            return anillo.estaVacia();
+        }
+    }
+}
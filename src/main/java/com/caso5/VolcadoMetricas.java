@@ -0,0 +1,154 @@
+package com.caso5;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe periódicamente una fila CSV con las métricas del proceso de corrección.
+ * <p>
+ * Cada fila incluye los totales acumulados y las tasas de encolado y desencolado desde la fila
+ * anterior, junto con percentiles de latencia por tipo en microsegundos. Al cerrarse escribe una
+ * última fila y cierra el destino, que se vacía tras cada fila.
+ */
+public final class VolcadoMetricas implements AutoCloseable {
+
+    // Espera máxima a que termine una fila en curso al cerrar
+    private static final long ESPERA_CIERRE_MS = 5_000;
+
+    private final MetricasCalificacion metricas;
+    private final Writer destino;
+    private final ScheduledExecutorService planificador;
+
+    // Valores de la fila anterior para calcular tasas
+    private long instanteAnterior;
+    private long encoladasAnteriores;
+    private long desencoladasAnteriores;
+    // Primer error de escritura; detiene el volcado
+    private IOException error;
+
+    /**
+     * Escribe el encabezado y programa una fila cada {@code periodoMilisegundos}. El volcado queda
+     * a cargo de cerrar el destino, aunque el encabezado no se pueda escribir.
+     */
+    public VolcadoMetricas(MetricasCalificacion metricas, Writer destino, long periodoMilisegundos) throws IOException {
+        if (periodoMilisegundos < 1) {
+            throw new IllegalArgumentException("El periodo debe ser mayor a 0");
+        }
+        this.metricas = metricas;
+        this.destino = destino;
+        try {
+            escribirEncabezado();
+        } catch (IOException e) {
+            try {
+                destino.close();
+            } catch (IOException alCerrar) {
+                e.addSuppressed(alCerrar);
+            }
+            throw e;
+        }
+        this.instanteAnterior = System.nanoTime();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "volcado-metricas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.scheduleAtFixedRate(this::volcar, periodoMilisegundos, periodoMilisegundos, TimeUnit.MILLISECONDS);
+    }
+
+    private void escribirEncabezado() throws IOException {
+        StringBuilder encabezado = new StringBuilder(
+                "marca_ms,pendientes,encoladas,desencoladas,encoladas_por_s,desencoladas_por_s,"
+                        + "almacenadas,registradas,duplicadas,reportes,ms_reportes");
+        for (TipoEvaluacion tipo : TipoEvaluacion.values()) {
+            String prefijo = tipo.name().toLowerCase(Locale.ROOT);
+            encabezado.append(',').append(prefijo).append("_calificadas")
+                    .append(',').append(prefijo).append("_p50_us")
+                    .append(',').append(prefijo).append("_p99_us")
+                    .append(',').append(prefijo).append("_max_us");
+        }
+        destino.write(encabezado.append('\n').toString());
+        destino.flush();
+    }
+
+    private synchronized void volcar() {
+        if (error != null) {
+            return;
+        }
+        long instante = System.nanoTime();
+        long encoladas = metricas.getEncoladas();
+        long desencoladas = metricas.getDesencoladas();
+        double segundos = Math.max(1L, instante - instanteAnterior) / 1_000_000_000.0;
+
+        StringBuilder fila = new StringBuilder(256);
+        fila.append(System.currentTimeMillis())
+                .append(',').append(metricas.getPendientes())
+                .append(',').append(encoladas)
+                .append(',').append(desencoladas)
+                .append(',').append(String.format(Locale.ROOT, "%.1f", (encoladas - encoladasAnteriores) / segundos))
+                .append(',').append(String.format(Locale.ROOT, "%.1f", (desencoladas - desencoladasAnteriores) / segundos))
+                .append(',').append(metricas.getAlmacenadas())
+                .append(',').append(metricas.getRegistradas())
+                .append(',').append(metricas.getDuplicadasRechazadas())
+                .append(',').append(metricas.getReportesGenerados())
+                .append(',').append(String.format(Locale.ROOT, "%.3f", metricas.getMilisegundosReportes()));
+        for (TipoEvaluacion tipo : TipoEvaluacion.values()) {
+            HistogramaLatencia latencia = metricas.latencia(tipo);
+            fila.append(',').append(latencia.getCantidad())
+                    .append(',').append(String.format(Locale.ROOT, "%.3f", latencia.getP50Nanos() / 1_000.0))
+                    .append(',').append(String.format(Locale.ROOT, "%.3f", latencia.getP99Nanos() / 1_000.0))
+                    .append(',').append(String.format(Locale.ROOT, "%.3f", latencia.getMaximoNanos() / 1_000.0));
+        }
+        try {
+            destino.write(fila.append('\n').toString());
+            destino.flush();
+        } catch (IOException e) {
+            error = e;
+        }
+        instanteAnterior = instante;
+        encoladasAnteriores = encoladas;
+        desencoladasAnteriores = desencoladas;
+    }
+
+    /**
+     * Detiene el volcado periódico, escribe la fila final y cierra el destino.
+     * <p>
+     * El hilo del volcado no se interrumpe: un destino sobre un canal interrumpible se cerraría
+     * a mitad de una fila. Se espera a que termine la fila en curso, si la hay.
+     *
+     * @throws IOException si alguna escritura o el cierre falló.
+     */
+    @Override
+    public void close() throws IOException {
+        planificador.shutdown();
+        // La interrupción se restaura después de escribir, por el mismo motivo
+        boolean interrumpido = false;
+        try {
+            planificador.awaitTermination(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            interrumpido = true;
+        }
+        try {
+            synchronized (this) {
+                volcar();
+                try {
+                    destino.close();
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+                if (error != null) {
+                    throw error;
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BitacoraEvaluacionesTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reproduceElMismoEstadoQueSeEscribio() throws IOException {
+        Path archivo = directorio.resolve("bitacora.log");
+        Sesion original = new Sesion(0);
+        try (BitacoraEvaluaciones bitacora = original.abrir(archivo)) {
+            original.generar(bitacora, 42, 500);
+            List<Evaluacion<?>> corregidas = original.calificar(bitacora, 200);
+            // Una nota manual posterior: al reproducir gana el último puntaje
+            try (MotorCalificacion motor = new MotorCalificacion(1)) {
+                motor.agregarOyente(bitacora);
+                motor.asignarPuntaje(corregidas.get(0), 77.5);
+            }
+        }
+
+        // Claves previas en el catálogo nuevo para que los índices no coincidan con los escritos
+        Sesion recuperada = new Sesion(3);
+        ContadorOyente oyente = new ContadorOyente();
+        BitacoraEvaluaciones.ResultadoReproduccion resultado = recuperada.reproducir(archivo, oyente);
+
+        assertEquals(500, resultado.evaluaciones());
+        assertEquals(201, resultado.puntajes());
+        assertEquals(300, resultado.pendientes());
+        assertEquals(0, resultado.bytesDescartados());
+        assertEquals(300, recuperada.cola.pendientes());
+        assertEquals(200, oyente.avisadas);
+        assertMismoEstado(original, recuperada);
+    }
+
+    @Test
+    void truncaUnFinalCortadoOConBasura() throws IOException {
+        Path archivo = directorio.resolve("bitacora.log");
+        Sesion original = new Sesion(0);
+        try (BitacoraEvaluaciones bitacora = original.abrir(archivo)) {
+            original.generar(bitacora, 7, 300);
+            original.calificar(bitacora, 100);
+        }
+        long largoValido = Files.size(archivo);
+
+        // Un registro a medias: el marco anuncia 100 bytes y solo llegan 10
+        ByteBuffer cortado = ByteBuffer.allocate(8 + 10).putInt(100).putInt(0x1234_5678);
+        anexar(archivo, cortado.array());
+        assertRecupera(original, archivo, largoValido, 18);
+
+        // Basura que no forma un marco válido
+        byte[] basura = new byte[777];
+        new Random(3).nextBytes(basura);
+        anexar(archivo, basura);
+        assertRecupera(original, archivo, largoValido, 777);
+    }
+
+    @Test
+    void unCrcInvalidoEnElMedioDetieneLaReproduccion() throws IOException {
+        Path archivo = directorio.resolve("bitacora.log");
+        Sesion original = new Sesion(0);
+        try (BitacoraEvaluaciones bitacora = original.abrir(archivo)) {
+            original.generar(bitacora, 11, 200);
+            original.calificar(bitacora, 200);
+        }
+        long finPrimeraSesion = Files.size(archivo);
+        Sesion completa = new Sesion(0);
+        completa.reproducir(archivo, null);
+        try (BitacoraEvaluaciones bitacora = completa.abrir(archivo)) {
+            completa.generar(bitacora, 12, 200);
+        }
+        long largoTotal = Files.size(archivo);
+
+        // El primer registro de la segunda sesión es una clave: se altera el byte bajo de su índice,
+        // que sigue siendo legible, así solo el CRC puede rechazarlo
+        long byteIndice = finPrimeraSesion + 8 + 1 + 3;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer dato = ByteBuffer.allocate(1);
+            canal.read(dato, byteIndice);
+            dato.put(0, (byte) (dato.get(0) ^ 0x01)).rewind();
+            canal.write(dato, byteIndice);
+        }
+
+        Sesion recuperada = new Sesion(0);
+        BitacoraEvaluaciones.ResultadoReproduccion resultado = recuperada.reproducir(archivo, null);
+        assertEquals(200, resultado.evaluaciones());
+        assertEquals(200, resultado.puntajes());
+        assertEquals(largoTotal - finPrimeraSesion, resultado.bytesDescartados());
+        assertEquals(finPrimeraSesion, Files.size(archivo));
+        assertMismoEstado(original, recuperada);
+    }
+
+    @Test
+    void unaSegundaSesionAnexaYSeReproduceConLasMismasNotas() throws IOException {
+        Path archivo = directorio.resolve("bitacora.log");
+        Sesion primera = new Sesion(0);
+        try (BitacoraEvaluaciones bitacora = primera.abrir(archivo)) {
+            primera.generar(bitacora, 21, 300);
+            primera.calificar(bitacora, 120);
+        }
+
+        // La segunda sesión reproduce con otro catálogo, anexa evaluaciones nuevas y corrige todo
+        Sesion segunda = new Sesion(2);
+        assertEquals(180, segunda.reproducir(archivo, null).pendientes());
+        try (BitacoraEvaluaciones bitacora = segunda.abrir(archivo)) {
+            segunda.generar(bitacora, 22, 250);
+            try (MotorCalificacion motor = new MotorCalificacion(1)) {
+                motor.agregarOyente(bitacora);
+                assertEquals(430, motor.procesar(segunda.cola, segunda.calificador).procesadas());
+            }
+        }
+
+        Sesion tercera = new Sesion(5);
+        BitacoraEvaluaciones.ResultadoReproduccion resultado = tercera.reproducir(archivo, null);
+        assertEquals(550, resultado.evaluaciones());
+        assertEquals(0, resultado.pendientes());
+        assertEquals(0, resultado.bytesDescartados());
+        assertMismoEstado(segunda, tercera);
+        // Las claves traducidas califican igual que en la sesión que las escribió
+        for (Evaluacion<?> evaluacion : tercera.repositorio.listarTodas()) {
+            assertEquals(evaluacion.getPuntaje(), tercera.calificador.calificar(evaluacion), 0.0);
+        }
+    }
+
+    private static void assertRecupera(Sesion original, Path archivo, long largoValido, long descartados) throws IOException {
+        Sesion recuperada = new Sesion(0);
+        BitacoraEvaluaciones.ResultadoReproduccion resultado = recuperada.reproducir(archivo, null);
+        assertEquals(descartados, resultado.bytesDescartados());
+        assertEquals(largoValido, Files.size(archivo));
+        assertMismoEstado(original, recuperada);
+    }
+
+    private static void assertMismoEstado(Sesion esperada, Sesion obtenida) {
+        assertEquals(esperada.repositorio.cantidad(), obtenida.repositorio.cantidad());
+        CatalogoClaves clavesEsperadas = esperada.calificador.getCatalogo();
+        CatalogoClaves clavesObtenidas = obtenida.calificador.getCatalogo();
+        for (Evaluacion<?> evaluacion : esperada.repositorio.listarTodas()) {
+            Evaluacion<?> recuperada = obtenida.repositorio.buscar(evaluacion.getId());
+            assertNotNull(recuperada, "falta " + evaluacion.getId());
+            assertEquals(evaluacion.getEstudiante(), recuperada.getEstudiante());
+            assertEquals(evaluacion.getTipo(), recuperada.getTipo());
+            assertEquals(evaluacion.getOrdenLlegada(), recuperada.getOrdenLlegada());
+            assertEquals(evaluacion.getRespuesta(), recuperada.getRespuesta());
+            assertEquals(clavesEsperadas.respuestaEsperada(evaluacion.getIndiceClave()),
+                    clavesObtenidas.respuestaEsperada(recuperada.getIndiceClave()));
+            assertEquals(evaluacion.estaCalificada(), recuperada.estaCalificada());
+            assertEquals(evaluacion.getPuntaje(), recuperada.getPuntaje(), 0.0);
+        }
+    }
+
+    private static void anexar(Path archivo, byte[] datos) throws IOException {
+        Files.write(archivo, datos, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Estado en memoria de una ejecución de la aplicación.
+     */
+    private static final class Sesion {
+
+        private final CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
+        private final EvaluacionRepository repositorio = new EvaluacionRepository();
+        private final ColaCorreccion cola = new ColaCorreccion();
+
+        private Sesion(int clavesPrevias) {
+            for (int i = 0; i < clavesPrevias; i++) {
+                calificador.getCatalogo().registrar("clave previa " + i);
+            }
+        }
+
+        private BitacoraEvaluaciones abrir(Path archivo) throws IOException {
+            return BitacoraEvaluaciones.abrir(archivo, calificador.getCatalogo(), 5);
+        }
+
+        private BitacoraEvaluaciones.ResultadoReproduccion reproducir(Path archivo, OyenteCalificacion oyente)
+                throws IOException {
+            return BitacoraEvaluaciones.reproducir(archivo, repositorio, calificador, cola, oyente);
+        }
+
+        private void generar(BitacoraEvaluaciones bitacora, long semilla, int cantidad) {
+            new SimuladorEvaluaciones(semilla).generarEvaluaciones(cantidad, bitacora.envolver(repositorio), calificador, cola);
+        }
+
+        // Corrige las primeras de la cola avisando a la bitácora, como el motor
+        private List<Evaluacion<?>> calificar(BitacoraEvaluaciones bitacora, int cantidad) {
+            List<Evaluacion<?>> lote = cola.tomarLote(cantidad);
+            try (MotorCalificacion motor = new MotorCalificacion(1)) {
+                motor.agregarOyente(bitacora);
+                for (Evaluacion<?> evaluacion : lote) {
+                    motor.asignarPuntaje(evaluacion, calificador.calificar(evaluacion));
+                }
+            }
+            return lote;
+        }
+    }
+
+    private static final class ContadorOyente implements OyenteCalificacion {
+
+        private int avisadas;
+
+        @Override
+        public void puntajeActualizado(Evaluacion<?> evaluacion, double puntajeAnterior) {
+            assertTrue(Double.isNaN(puntajeAnterior));
+            avisadas++;
+        }
+
+        @Override
+        public void lotePuntajesActualizados(Evaluacion<?>[] lote, double[] anteriores, int cantidad) {
+            for (int i = 0; i < cantidad; i++) {
+                puntajeActualizado(lote[i], anteriores[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class ColaAnilloMPMCTest {
+
+    private static final int PRODUCTORES = 4;
+    private static final int CONSUMIDORES = 4;
+    private static final int POR_PRODUCTOR = 50_000;
+
+    @Test
+    void conservaCadaEvaluacionConVariosProductoresYConsumidores() throws InterruptedException {
+        // Capacidad chica para que las casillas den muchas vueltas y los productores esperen espacio
+        ColaAnilloMPMC cola = new ColaAnilloMPMC(64, PoliticaColaLlena.BLOQUEAR, true);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicBoolean produccionTerminada = new AtomicBoolean();
+        ConcurrentLinkedQueue<Throwable> fallos = new ConcurrentLinkedQueue<>();
+
+        List<Thread> productores = new ArrayList<>();
+        for (int p = 0; p < PRODUCTORES; p++) {
+            int productor = p;
+            productores.add(iniciar("productor-" + p, fallos, () -> {
+                largada.await();
+                for (int i = 0; i < POR_PRODUCTOR; i++) {
+                    cola.encolar(evaluacion((long) productor * POR_PRODUCTOR + i));
+                }
+            }));
+        }
+
+        // Cada consumidor alterna las cuatro formas de tomar y guarda lo tomado en su orden
+        List<List<Long>> tomadasPorConsumidor = new ArrayList<>();
+        List<Thread> consumidores = new ArrayList<>();
+        for (int c = 0; c < CONSUMIDORES; c++) {
+            List<Long> tomadas = new ArrayList<>();
+            tomadasPorConsumidor.add(tomadas);
+            consumidores.add(iniciar("consumidor-" + c, fallos, () -> {
+                largada.await();
+                Evaluacion<?>[] lote = new Evaluacion<?>[16];
+                long[] instantes = new long[16];
+                for (int vuelta = 0; ; vuelta++) {
+                    boolean terminada = produccionTerminada.get();
+                    int antes = tomadas.size();
+                    switch (vuelta & 3) {
+                        case 0 -> {
+                            Evaluacion<?> evaluacion = cola.sondear();
+                            if (evaluacion != null) {
+                                tomadas.add(evaluacion.getOrdenLlegada());
+                            }
+                        }
+                        case 1 -> {
+                            int cantidad = cola.tomarLote(lote, 1 + vuelta % lote.length);
+                            for (int i = 0; i < cantidad; i++) {
+                                tomadas.add(lote[i].getOrdenLlegada());
+                            }
+                        }
+                        case 2 -> {
+                            for (Evaluacion<?> evaluacion : cola.tomarLote(7)) {
+                                tomadas.add(evaluacion.getOrdenLlegada());
+                            }
+                        }
+                        default -> {
+                            int cantidad = cola.tomarLote(lote, instantes, lote.length);
+                            long ahora = System.nanoTime();
+                            for (int i = 0; i < cantidad; i++) {
+                                assertTrue(instantes[i] != 0 && instantes[i] - ahora <= 0,
+                                        "instante de publicación fuera de rango");
+                                tomadas.add(lote[i].getOrdenLlegada());
+                            }
+                        }
+                    }
+                    if (tomadas.size() == antes) {
+                        // La marca se leyó antes de intentar: si ya estaba y no quedaba nada, terminó
+                        if (terminada && cola.estaVacia()) {
+                            return;
+                        }
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        largada.countDown();
+        esperar(productores);
+        produccionTerminada.set(true);
+        esperar(consumidores);
+        if (!fallos.isEmpty()) {
+            fail(fallos.peek());
+        }
+
+        BitSet vistas = new BitSet(PRODUCTORES * POR_PRODUCTOR);
+        for (List<Long> tomadas : tomadasPorConsumidor) {
+            long[] ultimaPorProductor = new long[PRODUCTORES];
+            Arrays.fill(ultimaPorProductor, -1);
+            for (long orden : tomadas) {
+                assertFalse(vistas.get((int) orden), "evaluación tomada dos veces: " + orden);
+                vistas.set((int) orden);
+                // FIFO: un consumidor ve las de cada productor en el orden en que las encoló
+                int productor = (int) (orden / POR_PRODUCTOR);
+                assertTrue(orden > ultimaPorProductor[productor], "orden FIFO roto en " + orden);
+                ultimaPorProductor[productor] = orden;
+            }
+        }
+        assertEquals(PRODUCTORES * POR_PRODUCTOR, vistas.cardinality());
+        assertTrue(cola.estaVacia());
+        assertNull(cola.sondear());
+    }
+
+    @Test
+    void respetaElOrdenYLaCapacidad() {
+        ColaAnilloMPMC cola = new ColaAnilloMPMC(3, PoliticaColaLlena.FALLAR);
+        assertEquals(4, cola.capacidad());
+        List<Evaluacion<?>> encoladas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Evaluacion<?> evaluacion = evaluacion(i);
+            encoladas.add(evaluacion);
+            cola.encolar(evaluacion);
+        }
+        assertFalse(cola.ofrecer(evaluacion(4)));
+        assertThrows(IllegalStateException.class, () -> cola.encolar(evaluacion(4)));
+
+        assertSame(encoladas.get(0), cola.sondear());
+        assertEquals(encoladas.subList(1, 4), cola.tomarLote(10));
+        assertTrue(cola.tomarLote(10).isEmpty());
+    }
+
+    @Test
+    void rechazaUnMaximoNegativo() {
+        ColaAnilloMPMC cola = new ColaAnilloMPMC(8);
+        assertThrows(IllegalArgumentException.class, () -> cola.tomarLote(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> cola.tomarLote(new Evaluacion<?>[4], -1));
+        assertEquals(0, cola.tomarLote(0).size());
+    }
+
+    @Test
+    void exigeMarcarInstantesParaDevolverlos() {
+        ColaAnilloMPMC cola = new ColaAnilloMPMC(8);
+        cola.encolar(evaluacion(0));
+        assertThrows(IllegalStateException.class, () -> cola.tomarLote(new Evaluacion<?>[1], new long[1], 1));
+        assertEquals(1, cola.pendientes());
+    }
+
+    @Test
+    void cerradaRechazaEncolarPeroEntregaLoPendiente() {
+        ColaAnilloMPMC cola = new ColaAnilloMPMC(8);
+        Evaluacion<?> pendiente = evaluacion(0);
+        cola.encolar(pendiente);
+        cola.cerrar();
+        assertThrows(IllegalStateException.class, () -> cola.encolar(evaluacion(1)));
+        assertSame(pendiente, cola.sondear());
+    }
+
+    private static Evaluacion<?> evaluacion(long ordenLlegada) {
+        return new Evaluacion<>(UUID.randomUUID(), "Ana Torres", TipoEvaluacion.ABIERTA, "respuesta", ordenLlegada);
+    }
+
+    private interface Tarea {
+        void ejecutar() throws Exception;
+    }
+
+    private static Thread iniciar(String nombre, ConcurrentLinkedQueue<Throwable> fallos, Tarea tarea) {
+        Thread hilo = new Thread(() -> {
+            try {
+                tarea.ejecutar();
+            } catch (Throwable e) {
+                fallos.add(e);
+            }
+        }, nombre);
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
+    }
+
+    private static void esperar(List<Thread> hilos) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        for (Thread hilo : hilos) {
+            hilo.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+            if (hilo.isAlive()) {
+                fail("El hilo " + hilo.getName() + " no terminó a tiempo");
+            }
+        }
+    }
+}
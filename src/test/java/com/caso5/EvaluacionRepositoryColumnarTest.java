@@ -0,0 +1,133 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class EvaluacionRepositoryColumnarTest {
+
+    @Test
+    void guardaLoMismoQueElRepositorioDeObjetos() {
+        CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
+        EvaluacionRepository objetos = new EvaluacionRepository();
+        // Más de dos segmentos de columnas
+        new SimuladorEvaluaciones(5).generarEvaluaciones(40_000, objetos, calificador, new ColaCorreccion());
+        List<Evaluacion<?>> originales = objetos.copiarComoLista();
+
+        EvaluacionRepositoryColumnar columnar = new EvaluacionRepositoryColumnar();
+        // Un lote con repetidas: las almacenadas quedan al principio y en orden
+        Evaluacion<?>[] lote = new Evaluacion<?>[3];
+        lote[0] = originales.get(0);
+        lote[1] = originales.get(0);
+        lote[2] = originales.get(1);
+        assertEquals(2, columnar.almacenarLote(lote, 3));
+        assertEquals(originales.get(0).getId(), lote[0].getId());
+        assertEquals(originales.get(1).getId(), lote[1].getId());
+        for (Evaluacion<?> evaluacion : originales.subList(2, originales.size())) {
+            assertNotNull(columnar.almacenar(evaluacion));
+        }
+        assertNull(columnar.almacenar(originales.get(100)));
+        assertEquals(originales.size(), columnar.cantidad());
+
+        List<Evaluacion<?>> listadas = new ArrayList<>(columnar.listarTodas());
+        assertEquals(originales.size(), listadas.size());
+        for (int i = 0; i < originales.size(); i++) {
+            Evaluacion<?> original = originales.get(i);
+            assertMismaFila(original, listadas.get(i));
+            assertMismaFila(original, columnar.buscar(original.getId()));
+        }
+        assertNull(columnar.buscar(UUID.randomUUID()));
+
+        int recorridas = 0;
+        String cursor = null;
+        do {
+            PaginaEvaluaciones pagina = columnar.paginar(cursor, 7_000);
+            for (Evaluacion<?> evaluacion : pagina.evaluaciones()) {
+                assertMismaFila(originales.get(recorridas++), evaluacion);
+            }
+            cursor = pagina.siguiente();
+        } while (cursor != null);
+        assertEquals(originales.size(), recorridas);
+
+        // El puntaje escrito en una vista se ve desde cualquier otra de la misma fila
+        Evaluacion<?> vista = columnar.buscar(originales.get(20_000).getId());
+        assertTrue(Double.isNaN(vista.actualizarPuntaje(64.5)));
+        assertEquals(64.5, columnar.listarTodas().stream().skip(20_000).findFirst().orElseThrow().getPuntaje(), 0.0);
+    }
+
+    @Test
+    void recorreEnOtroHiloMientrasSeAgreganSegmentos() throws InterruptedException {
+        EvaluacionRepositoryColumnar columnar = new EvaluacionRepositoryColumnar();
+        int total = 200_000;
+        AtomicBoolean terminado = new AtomicBoolean();
+        ConcurrentLinkedQueue<Throwable> fallos = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Collection<Evaluacion<?>>> listados = new ConcurrentLinkedQueue<>();
+
+        // El listado se pide en este hilo y se recorre en otro, mientras el repositorio crece
+        Thread lector = new Thread(() -> {
+            try {
+                while (!terminado.get() || !listados.isEmpty()) {
+                    Collection<Evaluacion<?>> listado = listados.poll();
+                    if (listado == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    int fila = 0;
+                    for (Evaluacion<?> evaluacion : listado) {
+                        assertEquals(fila, evaluacion.getOrdenLlegada());
+                        assertEquals(new UUID(7, fila), evaluacion.getId());
+                        fila++;
+                    }
+                    assertEquals(listado.size(), fila);
+                }
+            } catch (Throwable e) {
+                fallos.add(e);
+            }
+        }, "lector");
+        lector.setDaemon(true);
+        lector.start();
+
+        Evaluacion<?>[] lote = new Evaluacion<?>[500];
+        for (int fila = 0; fila < total; fila += lote.length) {
+            for (int i = 0; i < lote.length; i++) {
+                lote[i] = new Evaluacion<>(new UUID(7, fila + i), "Ana Torres", TipoEvaluacion.ABIERTA, "r", fila + i);
+            }
+            columnar.almacenarLote(lote, lote.length);
+            if (listados.size() < 4) {
+                listados.add(columnar.listarTodas());
+            }
+        }
+        terminado.set(true);
+        lector.join(TimeUnit.SECONDS.toMillis(60));
+        if (lector.isAlive()) {
+            fail("El lector no terminó a tiempo");
+        }
+        if (!fallos.isEmpty()) {
+            fail(fallos.peek());
+        }
+        assertEquals(total, columnar.cantidad());
+    }
+
+    private static void assertMismaFila(Evaluacion<?> esperada, Evaluacion<?> obtenida) {
+        assertNotNull(obtenida, "falta " + esperada.getId());
+        assertEquals(esperada.getId(), obtenida.getId());
+        assertEquals(esperada.getEstudiante(), obtenida.getEstudiante());
+        assertEquals(esperada.getTipo(), obtenida.getTipo());
+        assertEquals(esperada.getRespuesta(), obtenida.getRespuesta());
+        assertEquals(esperada.getOrdenLlegada(), obtenida.getOrdenLlegada());
+        assertEquals(esperada.getIndiceClave(), obtenida.getIndiceClave());
+        assertEquals(esperada.estaCalificada(), obtenida.estaCalificada());
+    }
+}
@@ -0,0 +1,109 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class GeneradorReporteTest {
+
+    // Orden del reporte escrito aparte del generador: puntaje desc, llegada asc, id
+    private static final Comparator<Evaluacion<?>> REFERENCIA =
+            Comparator.comparingDouble((Evaluacion<?> evaluacion) -> -evaluacion.getPuntaje())
+                    .thenComparingLong(Evaluacion::getOrdenLlegada)
+                    .thenComparing(Evaluacion::getId);
+
+    private static final double[] PUNTAJES_REPETIDOS = {0.0, 25.0, 50.0, 62.5, 75.0, 100.0};
+
+    @Test
+    void ordenaIgualQueLaReferencia() {
+        GeneradorReporte generador = new GeneradorReporte();
+        for (int semilla = 0; semilla < 30; semilla++) {
+            Random azar = new Random(semilla);
+            int cantidad = semilla < 3 ? semilla : azar.nextInt(5_000);
+            List<Evaluacion<?>> evaluaciones = evaluacionesAlAzar(azar, cantidad);
+
+            List<Evaluacion<?>> esperadas = new ArrayList<>(evaluaciones);
+            esperadas.sort(REFERENCIA);
+            List<Evaluacion<?>> ordenadas = generador.generarListadoOrdenado(evaluaciones);
+
+            assertEquals(evaluaciones.size(), ordenadas.size(), "semilla " + semilla);
+            for (int i = 0; i < esperadas.size(); i++) {
+                assertSame(esperadas.get(i), ordenadas.get(i), "semilla " + semilla + ", posición " + i);
+            }
+        }
+    }
+
+    @Test
+    void combinaListadosParcialesEnElMismoOrden() {
+        GeneradorReporte generador = new GeneradorReporte();
+        Random azar = new Random(99);
+        List<Evaluacion<?>> evaluaciones = evaluacionesAlAzar(azar, 4_000);
+        List<List<Evaluacion<?>>> particiones = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (Evaluacion<?> evaluacion : evaluaciones) {
+            particiones.get(azar.nextInt(particiones.size())).add(evaluacion);
+        }
+        List<List<Evaluacion<?>>> listados = new ArrayList<>();
+        for (List<Evaluacion<?>> particion : particiones) {
+            listados.add(generador.generarListadoOrdenado(particion));
+        }
+        listados.add(List.of());
+
+        List<Evaluacion<?>> esperadas = new ArrayList<>(evaluaciones);
+        esperadas.sort(REFERENCIA);
+        List<Evaluacion<?>> combinadas = generador.combinarListados(listados);
+        assertEquals(esperadas.size(), combinadas.size());
+        for (int i = 0; i < esperadas.size(); i++) {
+            assertSame(esperadas.get(i), combinadas.get(i), "posición " + i);
+        }
+    }
+
+    @Test
+    void laPermutacionRadixEsEstable() {
+        Random azar = new Random(7);
+        int cantidad = 3_000;
+        double[] puntajes = new double[cantidad];
+        long[] ordenes = new long[cantidad];
+        List<Integer> filas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            // Pocas claves distintas, con -0.0 y 0.0 mezclados, para que abunden los empates
+            puntajes[i] = azar.nextInt(8) == 0 ? -0.0 : PUNTAJES_REPETIDOS[azar.nextInt(PUNTAJES_REPETIDOS.length)];
+            ordenes[i] = azar.nextBoolean() ? azar.nextInt(20) : Long.MAX_VALUE - azar.nextInt(3);
+            filas.add(i);
+        }
+        // List.sort es estable: a claves iguales conserva el orden de las filas
+        filas.sort(Comparator.comparingDouble((Integer fila) -> -(puntajes[fila] + 0.0))
+                .thenComparingLong(fila -> ordenes[fila]));
+
+        int[] esperada = filas.stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(esperada, OrdenamientoRadix.permutacionPorPuntaje(puntajes, ordenes, cantidad));
+    }
+
+    // Mezcla puntajes repetidos y al azar, evaluaciones sin calificar (valen 0) y llegadas que
+    // vienen del contador del simulador o de System.currentTimeMillis(), con empates en ambas
+    private static List<Evaluacion<?>> evaluacionesAlAzar(Random azar, int cantidad) {
+        long ahora = System.currentTimeMillis();
+        List<Evaluacion<?>> evaluaciones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            long orden = azar.nextBoolean() ? azar.nextInt(Math.max(1, cantidad / 4)) : ahora + azar.nextInt(50);
+            Evaluacion<?> evaluacion = new Evaluacion<>(new UUID(azar.nextLong(), azar.nextLong()), "Ana Torres",
+                    TipoEvaluacion.ABIERTA, "respuesta", orden);
+            switch (azar.nextInt(4)) {
+                case 0 -> {
+                    // Sin calificar
+                }
+                case 1 -> evaluacion.actualizarPuntaje(azar.nextDouble() * 100);
+                default -> evaluacion.actualizarPuntaje(PUNTAJES_REPETIDOS[azar.nextInt(PUNTAJES_REPETIDOS.length)]);
+            }
+            evaluaciones.add(evaluacion);
+        }
+        return evaluaciones;
+    }
+}
@@ -0,0 +1,193 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImportadorEvaluacionesTest {
+
+    private static final String CLAVES_CSV = "clave,tipo,respuesta\n"
+            + "om,OM,ABCD\n"
+            + "vf,VF,VFVF\n"
+            + "abierta,ABIERTA,\"la respuesta \"\"correcta\"\"\"\n";
+
+    @TempDir
+    Path directorio;
+
+    private final CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
+    private final EvaluacionRepository repositorio = new EvaluacionRepository();
+    private final ColaCorreccion cola = new ColaCorreccion();
+
+    @Test
+    void leeCsvConComillasCrlfYMarcaBom() throws IOException {
+        ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, 1);
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        Path claves = escribir("claves.csv", bom, CLAVES_CSV.replace("\n", "\r\n"));
+        ImportadorEvaluaciones.ResultadoImportacion resultadoClaves = importador.importarClaves(claves);
+        assertEquals(3, resultadoClaves.lineas());
+        assertEquals(3, resultadoClaves.importadas());
+        assertEquals(0, resultadoClaves.errores());
+
+        Path archivo = escribir("evaluaciones.csv", bom, ("id,estudiante,tipo,respuesta,clave\n"
+                + id(1) + ",\"Pérez, Ana\",OM,0123,om\n"
+                + id(2) + ",\"Juan \"\"el Tano\"\" Díaz\",VF,1010,vf\n"
+                + id(3) + ",Luz Gómez,ABIERTA,\"dijo \"\"hola\"\", chau\",abierta\n").replace("\n", "\r\n"));
+        ImportadorEvaluaciones.ResultadoImportacion resultado = importador.importarEvaluaciones(archivo, repositorio, cola);
+
+        assertEquals(3, resultado.lineas());
+        assertEquals(3, resultado.importadas());
+        assertEquals(0, resultado.errores(), resultado.primerosErrores().toString());
+        assertEquals(3, cola.pendientes());
+        assertEquals("Pérez, Ana", buscar(1).getEstudiante());
+        assertEquals("Juan \"el Tano\" Díaz", buscar(2).getEstudiante());
+        assertEquals("dijo \"hola\", chau", buscar(3).getRespuesta());
+        // Las respuestas OM y VF se leen igual que la clave escrita con la otra notación
+        assertEquals(respuestaEsperada(buscar(1)), buscar(1).getRespuesta());
+        assertEquals(respuestaEsperada(buscar(2)), buscar(2).getRespuesta());
+        assertEquals("la respuesta \"correcta\"", respuestaEsperada(buscar(3)));
+    }
+
+    @Test
+    void leeJsonConEscapesNullYCamposDesconocidos() throws IOException {
+        ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, 1);
+        importador.importarClaves(escribir("claves.jsonl", new byte[0],
+                "{\"clave\":\"abierta\",\"tipo\":\"ABIERTA\",\"respuesta\":\"r\\u00e9plica\"}\n"
+                        + "{\"clave\": \"om\", \"tipo\": \"om\", \"respuesta\": \"abcd\", \"comentario\": 3}\n"));
+
+        Path archivo = escribir("evaluaciones.jsonl", new byte[0],
+                "{\"id\":\"" + id(1) + "\",\"estudiante\":\"Mar\\u00eda \\\"Mari\\\"\",\"tipo\":\"ABIERTA\","
+                        + "\"respuesta\":\"l\\u00ednea\\nsiguiente\",\"clave\":\"abierta\",\"extra\":true}\n"
+                        + "\n"
+                        + "{\"id\":\"" + id(2) + "\",\"estudiante\":\"Ana\",\"tipo\":\"OM\",\"respuesta\":\"ABCD\","
+                        + "\"clave\":\"om\",\"nota\":null}\n"
+                        + "{\"id\":\"" + id(3) + "\",\"estudiante\":\"Ana\",\"tipo\":\"OM\",\"respuesta\":\"ABCD\",\"clave\":null}\n"
+                        + "{\"id\":\"" + id(4) + "\",\"estudiante\":\"Ana\",\"tipo\":\"OM\",\"respuesta\":[1,2],\"clave\":\"om\"}\n"
+                        + "{\"id\":\"" + id(5) + "\",\"estudiante\":\"Ana\"\n");
+        ImportadorEvaluaciones.ResultadoImportacion resultado = importador.importarEvaluaciones(archivo, repositorio, cola);
+
+        // La línea vacía no cuenta; las tres filas rechazadas sí
+        assertEquals(5, resultado.lineas());
+        assertEquals(2, resultado.importadas());
+        assertEquals(3, resultado.errores());
+        assertEquals(List.of(
+                "línea 4: falta el campo \"clave\"",
+                "línea 5: solo se admiten valores simples",
+                "línea 6: se esperaba una coma o el cierre del objeto"), resultado.primerosErrores());
+        assertEquals("María \"Mari\"", buscar(1).getEstudiante());
+        assertEquals("línea\nsiguiente", buscar(1).getRespuesta());
+        assertEquals("réplica", respuestaEsperada(buscar(1)));
+        assertEquals(respuestaEsperada(buscar(2)), buscar(2).getRespuesta());
+    }
+
+    @Test
+    void cuentaDuplicadasClavesDesconocidasYTiposQueNoCoinciden() throws IOException {
+        ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, 1);
+        importador.importarClaves(escribir("claves.csv", new byte[0], CLAVES_CSV));
+
+        Path archivo = escribir("evaluaciones.csv", new byte[0], ""
+                + id(1) + ",Ana,OM,0123,om\n"
+                + id(1) + ",Ana,OM,3210,om\n"
+                + id(2) + ",Ana,OM,0123,inexistente\n"
+                + id(3) + ",Ana,VF,VFVF,om\n"
+                + id(4) + ",Ana,OM,012,om\n"
+                + id(5) + ",Ana,OM\n"
+                + id(6) + ",\"Ana,OM,0123,om\n");
+        ImportadorEvaluaciones.ResultadoImportacion resultado = importador.importarEvaluaciones(archivo, repositorio, cola);
+
+        assertEquals(7, resultado.lineas());
+        assertEquals(1, resultado.importadas());
+        assertEquals(1, resultado.duplicadas());
+        assertEquals(5, resultado.errores());
+        assertEquals(List.of(
+                "línea 3: clave desconocida \"inexistente\"",
+                "línea 4: la clave \"om\" es de tipo OM",
+                "línea 5: tiene 3 respuestas y la clave 4",
+                "línea 6: se esperaban 5 columnas y hay 3",
+                "línea 7: comillas sin cerrar"), resultado.primerosErrores());
+        // Gana la primera aparición del id
+        assertEquals(RespuestasOpcionMultiple.de(0, 1, 2, 3), buscar(1).getRespuesta());
+        assertEquals(1, repositorio.cantidad());
+        assertEquals(1, cola.pendientes());
+    }
+
+    @Test
+    void reparteUnArchivoDeVariosTrozosEntreLosHilos() throws IOException {
+        ImportadorEvaluaciones importador = new ImportadorEvaluaciones(calificador, 3);
+        importador.importarClaves(escribir("claves.csv", new byte[0], CLAVES_CSV));
+
+        // Más de un trozo de 4 MB: las filas cruzan los cortes y las analizan hilos distintos
+        int filas = 60_000;
+        long[] posiciones = new long[filas];
+        Path archivo = directorio.resolve("evaluaciones.csv");
+        try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            String encabezado = "id,estudiante,tipo,respuesta,clave\n";
+            escritor.write(encabezado);
+            long posicion = encabezado.length();
+            for (int i = 0; i < filas; i++) {
+                String tipo = i % 10_000 == 5_000 ? "XX" : "OM";
+                String estudiante = i == 45_001 ? "\"sin cerrar" : "Estudiante número " + i % 997 + " ".repeat(i % 7);
+                UUID identificador = i == 30_000 ? id(0) : id(i);
+                String linea = identificador + "," + estudiante + "," + tipo + ",0123,om\n";
+                posiciones[i] = posicion;
+                posicion += linea.getBytes(StandardCharsets.UTF_8).length;
+                escritor.write(linea);
+            }
+        }
+        assertTrue(Files.size(archivo) > 4 << 20);
+
+        ImportadorEvaluaciones.ResultadoImportacion resultado = importador.importarEvaluaciones(archivo, repositorio, cola);
+
+        assertEquals(filas, resultado.lineas());
+        assertEquals(7, resultado.errores());
+        assertEquals(1, resultado.duplicadas());
+        assertEquals(filas - 8, resultado.importadas());
+        assertEquals(filas - 8, repositorio.cantidad());
+        assertEquals(filas - 8, cola.pendientes());
+        assertEquals("línea 5002: tipo desconocido \"XX\"", resultado.primerosErrores().get(0));
+        assertEquals("línea 45003: comillas sin cerrar", resultado.primerosErrores().get(5));
+        assertEquals(7, resultado.primerosErrores().size());
+        // El orden de llegada es la posición de la línea en el archivo, también en los trozos siguientes
+        for (int i = 1; i < filas; i++) {
+            if (i == 30_000 || i == 45_001 || i % 10_000 == 5_000) {
+                continue;
+            }
+            Evaluacion<?> evaluacion = buscar(i);
+            assertEquals(posiciones[i], evaluacion.getOrdenLlegada(), "fila " + i);
+            assertEquals("Estudiante número " + i % 997, evaluacion.getEstudiante());
+        }
+    }
+
+    private Path escribir(String nombre, byte[] prefijo, String contenido) throws IOException {
+        Path archivo = directorio.resolve(nombre);
+        byte[] texto = contenido.getBytes(StandardCharsets.UTF_8);
+        byte[] datos = new byte[prefijo.length + texto.length];
+        System.arraycopy(prefijo, 0, datos, 0, prefijo.length);
+        System.arraycopy(texto, 0, datos, prefijo.length, texto.length);
+        return Files.write(archivo, datos);
+    }
+
+    private Evaluacion<?> buscar(long numero) {
+        Evaluacion<?> evaluacion = repositorio.buscar(id(numero));
+        assertNotNull(evaluacion, "falta la evaluación " + numero);
+        return evaluacion;
+    }
+
+    private Object respuestaEsperada(Evaluacion<?> evaluacion) {
+        return calificador.getCatalogo().respuestaEsperada(evaluacion.getIndiceClave());
+    }
+
+    private static UUID id(long numero) {
+        return new UUID(0x1234_5678_9ABC_4DEFL, numero);
+    }
+}
@@ -0,0 +1,94 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstantaneaEvaluacionesTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void abreLoQueSeEscribio() throws IOException {
+        CalificadorEvaluaciones calificador = new CalificadorEvaluaciones();
+        EvaluacionRepository repositorio = new EvaluacionRepository();
+        ColaCorreccion cola = new ColaCorreccion();
+        new SimuladorEvaluaciones(9).generarEvaluaciones(3_000, repositorio, calificador, cola);
+        // Se deja un tercio sin calificar: ordenan como 0 y la instantánea los guarda como pendientes
+        for (Evaluacion<?> evaluacion : cola.tomarLote(2_000)) {
+            evaluacion.actualizarPuntaje(calificador.calificar(evaluacion));
+        }
+
+        Path archivo = directorio.resolve("estado.bin");
+        InstantaneaEvaluaciones.escribir(repositorio, archivo);
+        InstantaneaEvaluaciones instantanea = InstantaneaEvaluaciones.abrir(archivo);
+
+        assertEquals(repositorio.cantidad(), instantanea.cantidad());
+        for (Evaluacion<?> evaluacion : repositorio.listarTodas()) {
+            Evaluacion<?> leida = instantanea.buscar(evaluacion.getId());
+            assertNotNull(leida, "falta " + evaluacion.getId());
+            assertEquals(evaluacion.getId(), leida.getId());
+            assertEquals(evaluacion.getEstudiante(), leida.getEstudiante());
+            assertEquals(evaluacion.getTipo(), leida.getTipo());
+            assertEquals(evaluacion.getOrdenLlegada(), leida.getOrdenLlegada());
+            assertEquals(evaluacion.getIndiceClave(), leida.getIndiceClave());
+            assertEquals(evaluacion.getRespuesta(), leida.getRespuesta());
+            assertEquals(evaluacion.estaCalificada(), leida.estaCalificada());
+            assertEquals(evaluacion.getPuntaje(), leida.getPuntaje(), 0.0);
+        }
+        assertNull(instantanea.buscar(UUID.randomUUID()));
+
+        List<Evaluacion<?>> esperadas = new GeneradorReporte().generarListadoOrdenado(repositorio.listarTodas());
+        assertEquals(ids(esperadas), ids(instantanea.listarOrdenadas()));
+        assertEquals(ids(repositorio.listarTodas()), ids(instantanea.listarTodas()));
+    }
+
+    @Test
+    void abreUnRepositorioVacio() throws IOException {
+        Path archivo = directorio.resolve("vacio.bin");
+        InstantaneaEvaluaciones.escribir(new EvaluacionRepository(), archivo);
+        InstantaneaEvaluaciones instantanea = InstantaneaEvaluaciones.abrir(archivo);
+
+        assertEquals(0, instantanea.cantidad());
+        assertTrue(instantanea.listarOrdenadas().isEmpty());
+        assertTrue(instantanea.listarTodas().isEmpty());
+        assertNull(instantanea.buscar(UUID.randomUUID()));
+        assertTrue(instantanea.paginarOrdenadas(null, 10).evaluaciones().isEmpty());
+    }
+
+    @Test
+    void elModoPorLotesReportaDesdeLaInstantanea() throws IOException {
+        Path archivo = directorio.resolve("estado.bin");
+        Path reporteOriginal = directorio.resolve("original.txt");
+        Path reporteInstantanea = directorio.resolve("instantanea.txt");
+        assertEquals(0, ModoLote.ejecutar(new String[]{"--cantidad", "4000", "--semilla", "3", "--hilos", "2",
+                "--instantanea", archivo.toString(), "--reporte", reporteOriginal.toString()}));
+        assertEquals(0, ModoLote.ejecutar(new String[]{"--desde-instantanea", archivo.toString(),
+                "--reporte", reporteInstantanea.toString()}));
+
+        assertTrue(Files.readAllLines(reporteOriginal).size() > 4_000);
+        assertArrayEquals(Files.readAllBytes(reporteOriginal), Files.readAllBytes(reporteInstantanea));
+        assertEquals(ModoLote.ERROR_ARGUMENTOS, ModoLote.ejecutar(new String[]{"--desde-instantanea", archivo.toString()}));
+    }
+
+    private static List<UUID> ids(Iterable<Evaluacion<?>> evaluaciones) {
+        List<UUID> ids = new ArrayList<>();
+        for (Evaluacion<?> evaluacion : evaluaciones) {
+            ids.add(evaluacion.getId());
+        }
+        return ids;
+    }
+}
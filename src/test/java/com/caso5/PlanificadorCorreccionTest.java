@@ -0,0 +1,161 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class PlanificadorCorreccionTest {
+
+    // Plazos lejanos, para que ninguno venza durante la prueba
+    private static final long FUTURO = System.currentTimeMillis() + 86_400_000L;
+
+    @Test
+    void dentroDeUnCarrilSalePorPrioridadPlazoYLlegada() {
+        PlanificadorCorreccion planificador = new PlanificadorCorreccion();
+        Random azar = new Random(17);
+        Map<UUID, Pendiente> pendientes = new HashMap<>();
+        List<Pendiente> enOrden = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            Pendiente pendiente = new Pendiente(evaluacion(TipoEvaluacion.OM, i), i);
+            // La mitad sin prioridad ni plazo va al anillo; el resto, al montículo
+            if (azar.nextBoolean()) {
+                pendiente.prioridad = azar.nextInt(5) - 2;
+                pendiente.plazo = azar.nextInt(4) == 0 ? PlanificadorCorreccion.SIN_PLAZO : FUTURO + azar.nextInt(50);
+            }
+            planificador.encolar(pendiente.evaluacion, pendiente.prioridad, pendiente.plazo);
+            pendientes.put(pendiente.evaluacion.getId(), pendiente);
+            enOrden.add(pendiente);
+        }
+
+        // Se reprograman y retiran al azar, tanto del anillo como del montículo
+        for (int i = 0; i < 600; i++) {
+            Pendiente pendiente = enOrden.get(azar.nextInt(enOrden.size()));
+            if (!pendientes.containsKey(pendiente.evaluacion.getId())) {
+                assertFalse(planificador.reprogramar(pendiente.evaluacion.getId(), 1, FUTURO));
+                continue;
+            }
+            if (i % 3 == 0) {
+                assertTrue(planificador.retirar(pendiente.evaluacion.getId()));
+                pendientes.remove(pendiente.evaluacion.getId());
+            } else {
+                pendiente.prioridad = azar.nextInt(5) - 2;
+                pendiente.plazo = azar.nextBoolean() ? PlanificadorCorreccion.SIN_PLAZO : FUTURO + azar.nextInt(50);
+                assertTrue(planificador.reprogramar(pendiente.evaluacion.getId(), pendiente.prioridad, pendiente.plazo));
+            }
+        }
+        assertFalse(planificador.retirar(UUID.randomUUID()));
+        assertFalse(planificador.reprogramar(UUID.randomUUID(), 1, FUTURO));
+        assertEquals(pendientes.size(), planificador.pendientes());
+
+        List<Pendiente> esperadas = new ArrayList<>(pendientes.values());
+        esperadas.sort(Comparator.comparingInt((Pendiente pendiente) -> -pendiente.prioridad)
+                .thenComparingLong(pendiente -> pendiente.plazo)
+                .thenComparingLong(pendiente -> pendiente.llegada));
+        List<Evaluacion<?>> tomadas = new ArrayList<>();
+        for (List<Evaluacion<?>> lote = planificador.tomarLote(97); !lote.isEmpty(); lote = planificador.tomarLote(97)) {
+            tomadas.addAll(lote);
+        }
+        assertEquals(esperadas.size(), tomadas.size());
+        for (int i = 0; i < esperadas.size(); i++) {
+            assertEquals(esperadas.get(i).evaluacion.getId(), tomadas.get(i).getId(), "posición " + i);
+        }
+        assertTrue(planificador.estaVacia());
+        assertEquals(0, planificador.getVencidas(TipoEvaluacion.OM));
+    }
+
+    @Test
+    void lasVencidasSalenAntesQueElTurnoYSeCuentan() {
+        PlanificadorCorreccion planificador = new PlanificadorCorreccion();
+        long ahora = System.currentTimeMillis();
+        List<Evaluacion<?>> sinPlazo = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Evaluacion<?> evaluacion = evaluacion(TipoEvaluacion.OM, i);
+            sinPlazo.add(evaluacion);
+            planificador.encolar(evaluacion);
+        }
+        Evaluacion<?> abiertaVencida = evaluacion(TipoEvaluacion.ABIERTA, 10);
+        Evaluacion<?> abiertaMasVencida = evaluacion(TipoEvaluacion.ABIERTA, 11);
+        Evaluacion<?> vfVencida = evaluacion(TipoEvaluacion.VF, 12);
+        Evaluacion<?> vfATiempo = evaluacion(TipoEvaluacion.VF, 13);
+        planificador.encolar(abiertaVencida, 0, ahora - 1_000);
+        planificador.encolar(abiertaMasVencida, 0, ahora - 5_000);
+        planificador.encolar(vfVencida, 0, ahora - 3_000);
+        planificador.encolar(vfATiempo, 0, FUTURO);
+
+        // Primero las vencidas, de la más antigua a la más reciente, aunque el turno sea de OM
+        List<Evaluacion<?>> tomadas = planificador.tomarLote(3);
+        assertEquals(List.of(abiertaMasVencida, vfVencida, abiertaVencida), tomadas);
+        assertEquals(2, planificador.getVencidas(TipoEvaluacion.ABIERTA));
+        assertEquals(1, planificador.getVencidas(TipoEvaluacion.VF));
+
+        // Después sigue el turno ponderado: cuatro OM y luego el carril VF
+        assertEquals(sinPlazo.subList(0, 4), planificador.tomarLote(4));
+        assertEquals(List.of(vfATiempo, sinPlazo.get(4)), planificador.tomarLote(10));
+        assertEquals(1, planificador.getVencidas(TipoEvaluacion.VF));
+        assertEquals(0, planificador.getVencidas(TipoEvaluacion.OM));
+        assertEquals(7, planificador.getEspera(TipoEvaluacion.OM).getCantidad()
+                + planificador.getEspera(TipoEvaluacion.VF).getCantidad());
+    }
+
+    @Test
+    void repartePorTurnosSegunElPeso() {
+        PlanificadorCorreccion planificador = new PlanificadorCorreccion(
+                Map.of(TipoEvaluacion.OM, 2, TipoEvaluacion.VF, 1, TipoEvaluacion.ABIERTA, 1));
+        Evaluacion<?>[] lote = new Evaluacion<?>[18];
+        for (int i = 0; i < 6; i++) {
+            lote[i] = evaluacion(TipoEvaluacion.ABIERTA, i);
+            lote[6 + i] = evaluacion(TipoEvaluacion.VF, 6 + i);
+            lote[12 + i] = evaluacion(TipoEvaluacion.OM, 12 + i);
+        }
+        planificador.encolarLote(lote, lote.length);
+        assertEquals(6, planificador.pendientes(TipoEvaluacion.OM));
+
+        StringBuilder tipos = new StringBuilder();
+        Evaluacion<?>[] destino = new Evaluacion<?>[18];
+        int tomadas = planificador.tomarLote(destino, destino.length);
+        for (int i = 0; i < tomadas; i++) {
+            tipos.append(destino[i].getTipo().name().charAt(0));
+        }
+        assertEquals("OOVAOOVAOOVAVAVAVA", tipos.toString());
+    }
+
+    @Test
+    void rechazaEncolarDosVecesConPrioridad() {
+        PlanificadorCorreccion planificador = new PlanificadorCorreccion();
+        Evaluacion<?> evaluacion = evaluacion(TipoEvaluacion.VF, 0);
+        planificador.encolar(evaluacion, 1, FUTURO);
+        assertThrows(IllegalStateException.class, () -> planificador.encolar(evaluacion, 2, FUTURO));
+        assertEquals(1, planificador.pendientes());
+    }
+
+    private static Evaluacion<?> evaluacion(TipoEvaluacion tipo, long ordenLlegada) {
+        return new Evaluacion<>(UUID.randomUUID(), "Ana Torres", tipo, "respuesta", ordenLlegada);
+    }
+
+    /**
+     * Modelo de referencia de una evaluación encolada.
+     */
+    private static final class Pendiente {
+
+        private final Evaluacion<?> evaluacion;
+        private final long llegada;
+        private int prioridad;
+        private long plazo = PlanificadorCorreccion.SIN_PLAZO;
+
+        private Pendiente(Evaluacion<?> evaluacion, long llegada) {
+            this.evaluacion = evaluacion;
+            this.llegada = llegada;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.caso5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VolcadoMetricasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void alCerrarEscribeLaFilaFinalYCierraElArchivo() throws Exception {
+        Path archivo = directorio.resolve("metricas.csv");
+        Writer destino = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+        MetricasCalificacion metricas = new MetricasCalificacion();
+        VolcadoMetricas volcado = new VolcadoMetricas(metricas, destino, 1);
+        for (int i = 0; i < 200; i++) {
+            metricas.registrarCalificacion(TipoEvaluacion.OM, 1_000 + i);
+            Thread.sleep(0, 100_000);
+        }
+        volcado.close();
+
+        List<String> lineas = Files.readAllLines(archivo);
+        assertTrue(lineas.size() >= 2, "falta la fila final");
+        int columnas = lineas.get(0).split(",").length;
+        for (String linea : lineas) {
+            assertEquals(columnas, linea.split(",").length, linea);
+        }
+        assertTrue(lineas.get(lineas.size() - 1).contains(",200,"), "la fila final no tiene las 200 calificaciones");
+        assertThrows(IOException.class, () -> destino.write("x"));
+    }
+
+    @Test
+    void cerrarConElHiloInterrumpidoNoPierdeLaFilaFinal() throws IOException {
+        Path archivo = directorio.resolve("metricas.csv");
+        VolcadoMetricas volcado = new VolcadoMetricas(new MetricasCalificacion(),
+                Files.newBufferedWriter(archivo, StandardCharsets.UTF_8), 60_000);
+        Thread.currentThread().interrupt();
+        try {
+            volcado.close();
+            assertTrue(Thread.currentThread().isInterrupted(), "se perdió la interrupción");
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(2, Files.readAllLines(archivo).size());
+    }
+}